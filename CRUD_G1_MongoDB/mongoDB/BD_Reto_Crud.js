@@ -4,6 +4,7 @@ use users_manager
 // Insertar documentos (crea la colección "users")
 db.users.insertMany([
   {
+    P_TYPE: "ADMIN",
     P_EMAIL: "admin@sandia.com",
     P_USERNAME: "admin",
     P_PASSWORD: "Ab123456",
@@ -13,6 +14,7 @@ db.users.insertMany([
     A_CURRENT_ACCOUNT: "1234123412341234"
   },
   {
+    P_TYPE: "USER",
     P_EMAIL: "user1@sandia.com",
     P_USERNAME: "user1",
     P_PASSWORD: "Ab123456",
@@ -23,6 +25,7 @@ db.users.insertMany([
     U_CARD: "4321432143214321"
   },
   {
+    P_TYPE: "USER",
     P_EMAIL: "user2@sandia.com",
     P_USERNAME: "user2",
     P_PASSWORD: "Ab123456",
@@ -33,6 +36,7 @@ db.users.insertMany([
     U_CARD: "4321432337914321"
   },
   {
+    P_TYPE: "USER",
     P_EMAIL: "user3@sandia.com",
     P_USERNAME: "user3",
     P_PASSWORD: "Ab123456",
@@ -47,3 +51,13 @@ db.users.insertMany([
 // Creación de índices UNIQUE (obligatorio antes de usar la app)
 db.users.createIndex({ P_EMAIL: 1 }, { unique: true })
 db.users.createIndex({ P_USERNAME: 1 }, { unique: true })
+
+// Índices de la búsqueda de usuarios (la aplicación también los crea al arrancar)
+db.users.createIndex({ P_LASTNAME: 1 })
+db.users.createIndex({ U_GENDER: 1, _id: 1 })
+
+// Índice del tipo de perfil: el listado de usuarios es un recorrido por rango
+db.users.createIndex({ P_TYPE: 1, _id: 1 })
+
+// Índice de la tabla de usuarios ordenada por nombre
+db.users.createIndex({ P_NAME: 1, _id: 1 })
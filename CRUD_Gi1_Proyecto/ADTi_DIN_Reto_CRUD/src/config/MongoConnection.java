@@ -7,30 +7,189 @@ package config;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import org.bson.Document;
 
 public class MongoConnection {
 
-    private static final String URI = "mongodb://localhost:27017";
-    private static final String DB_NAME = "users_manager";
-
-    private static final MongoClient client = MongoClients.create(
-        MongoClientSettings.builder()
-            .applyConnectionString(new ConnectionString(URI))
-            .applyToConnectionPoolSettings(builder -> {
-                builder.minSize(2);
-                builder.maxSize(5);
-            })
-            .build()
-    );
-    
-    private static final MongoDatabase database = client.getDatabase(DB_NAME);
+    private static final Logger LOGGER = Logger.getLogger(MongoConnection.class.getName());
+
+    private static final String DEFAULTS_RESOURCE = "/config/mongo.properties";
+    private static final String CONFIG_FILE_PROPERTY = "mongo.config";
+
+    private static final Properties settings = loadSettings();
+
+    private static final PoolMetrics poolMetrics = new PoolMetrics(intSetting("mongo.pool.maxSize"));
+
+    private static CompletableFuture<MongoDatabase> ready;
+
+    /**
+     * Starts creating the MongoDB client on a background thread, if it has not been started yet. Building the client loads the driver classes and starts server discovery, which is slow enough to delay the first window, so the application calls this method as early as possible and lets the work overlap with the loading of the interface. Once the client exists, a ping is sent to warm up the first pooled connection.
+     *
+     * @return a future completed with the application database once the client has been created
+     */
+    public static synchronized CompletableFuture<MongoDatabase> connectAsync() {
+        if (ready == null) {
+            long start = System.nanoTime();
+
+            ready = CompletableFuture.supplyAsync(MongoConnection::createDatabase, MongoConnection::runInBackground);
+            ready.thenAcceptAsync(database -> warmUp(database, start), MongoConnection::runInBackground);
+        }
+        return ready;
+    }
 
     public static MongoCollection<Document> getUsersCollection() {
-        return database.getCollection("users");
+        return awaitDatabase().getCollection("users");
+    }
+
+    /**
+     * Returns the live metrics of the connection pool, such as the connections in use, the operations waiting for a connection and the check out wait histogram.
+     *
+     * @return the connection pool metrics
+     */
+    public static PoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
+    /**
+     * Waits until the background initialization has produced the database. If the initialization has not been started yet it is started now, and if it failed the original driver exception is rethrown.
+     *
+     * @return the application database
+     */
+    private static MongoDatabase awaitDatabase() {
+        try {
+            return connectAsync().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private static MongoDatabase createDatabase() {
+        MongoClient client = MongoClients.create(
+            MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(setting("mongo.uri")))
+                .applyToConnectionPoolSettings(builder -> {
+                    builder.minSize(intSetting("mongo.pool.minSize"));
+                    builder.maxSize(intSetting("mongo.pool.maxSize"));
+                    builder.maxWaitTime(longSetting("mongo.pool.maxWaitTimeMs"), TimeUnit.MILLISECONDS);
+                    builder.maxConnectionIdleTime(longSetting("mongo.pool.maxConnectionIdleTimeMs"), TimeUnit.MILLISECONDS);
+                    builder.maxConnectionLifeTime(longSetting("mongo.pool.maxConnectionLifeTimeMs"), TimeUnit.MILLISECONDS);
+                    builder.addConnectionPoolListener(poolMetrics);
+                })
+                .applyToSocketSettings(builder -> {
+                    builder.connectTimeout(intSetting("mongo.socket.connectTimeoutMs"), TimeUnit.MILLISECONDS);
+                    builder.readTimeout(intSetting("mongo.socket.readTimeoutMs"), TimeUnit.MILLISECONDS);
+                })
+                .readPreference(ReadPreference.valueOf(setting("mongo.readPreference")))
+                .writeConcern(WriteConcern.valueOf(setting("mongo.writeConcern")))
+                .build()
+        );
+
+        registerPoolMetrics();
+
+        return client.getDatabase(setting("mongo.database"));
+    }
+
+    /**
+     * Sends a ping so the first connection is opened before the user needs it, and logs how long the client took to become usable. A failed ping is only logged; the operations that need the database will report the error to the user.
+     *
+     * @param database the application database
+     * @param start the System.nanoTime value when the initialization started
+     */
+    private static void warmUp(MongoDatabase database, long start) {
+        try {
+            database.runCommand(new Document("ping", 1));
+            LOGGER.log(Level.INFO, "MongoDB connection ready in {0} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "MongoDB warm-up ping failed", ex);
+        }
+    }
+
+    private static void runInBackground(Runnable task) {
+        Thread thread = new Thread(task, "mongo-startup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Loads the connection settings. The defaults bundled in mongo.properties are replaced by the file named in the mongo.config system property, if any, and finally by individual system properties with the same keys.
+     *
+     * @return the effective connection settings
+     */
+    private static Properties loadSettings() {
+        Properties properties = new Properties();
+
+        try (InputStream in = MongoConnection.class.getResourceAsStream(DEFAULTS_RESOURCE)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Could not read " + DEFAULTS_RESOURCE, ex);
+        }
+
+        String externalFile = System.getProperty(CONFIG_FILE_PROPERTY);
+        if (externalFile != null) {
+            try (InputStream in = new FileInputStream(externalFile)) {
+                properties.load(in);
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Could not read " + externalFile, ex);
+            }
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            String override = System.getProperty(key);
+            if (override != null) {
+                properties.setProperty(key, override);
+            }
+        }
+
+        return properties;
+    }
+
+    private static String setting(String key) {
+        String value = settings.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing MongoDB setting " + key);
+        }
+        return value.trim();
+    }
+
+    private static int intSetting(String key) {
+        return Integer.parseInt(setting(key));
+    }
+
+    private static long longSetting(String key) {
+        return Long.parseLong(setting(key));
+    }
+
+    /**
+     * Publishes the pool metrics in the platform MBean server so they can be inspected with any JMX client. A registration failure only disables the JMX view; the metrics keep being collected.
+     */
+    private static void registerPoolMetrics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(poolMetrics, new ObjectName("config:type=MongoConnectionPool"));
+        } catch (JMException ex) {
+            LOGGER.log(Level.WARNING, "Could not register the connection pool metrics MBean", ex);
+        }
     }
 }
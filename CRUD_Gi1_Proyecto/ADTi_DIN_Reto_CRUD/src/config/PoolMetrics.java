@@ -0,0 +1,170 @@
+package config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection pool listener that keeps live metrics of the MongoDB connection pool. This class counts checked out, waiting and open connections and records how long each operation waited for a connection, so pool exhaustion becomes visible instead of showing up only as slow operations.
+ *
+ * All counters are updated from driver threads without locking and can be read at any time through the PoolMetricsMXBean interface.
+ */
+public class PoolMetrics implements ConnectionPoolListener, PoolMetricsMXBean
+{
+
+    private static final Logger LOGGER = Logger.getLogger(PoolMetrics.class.getName());
+
+    private static final long[] WAIT_BUCKET_LIMITS_MILLIS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    private final int maxSize;
+    private final AtomicInteger checkedOut = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger open = new AtomicInteger();
+    private final LongAdder checkOutFailures = new LongAdder();
+    private final LongAdder[] waitHistogram = new LongAdder[WAIT_BUCKET_LIMITS_MILLIS.length + 1];
+
+    /**
+     * Constructs a new PoolMetrics for a pool with the given maximum size.
+     *
+     * @param maxSize the configured maximum number of connections of the pool
+     */
+    public PoolMetrics(int maxSize)
+    {
+        this.maxSize = maxSize;
+
+        for (int i = 0; i < waitHistogram.length; i++)
+        {
+            waitHistogram[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event)
+    {
+        waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event)
+    {
+        waiting.decrementAndGet();
+        checkedOut.incrementAndGet();
+        recordWait(event.getElapsedTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event)
+    {
+        waiting.decrementAndGet();
+        checkOutFailures.increment();
+        recordWait(event.getElapsedTime(TimeUnit.MILLISECONDS));
+
+        LOGGER.log(Level.WARNING, "Connection check out failed ({0}) with {1}/{2} connections in use and {3} operations waiting",
+                new Object[]{event.getReason(), checkedOut.get(), maxSize, waiting.get()});
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event)
+    {
+        checkedOut.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event)
+    {
+        open.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event)
+    {
+        open.decrementAndGet();
+    }
+
+    /**
+     * Adds a check out wait time to the histogram.
+     *
+     * @param millis the time the operation waited for a connection, in milliseconds
+     */
+    private void recordWait(long millis)
+    {
+        int bucket = 0;
+
+        while (bucket < WAIT_BUCKET_LIMITS_MILLIS.length && millis > WAIT_BUCKET_LIMITS_MILLIS[bucket])
+        {
+            bucket++;
+        }
+
+        waitHistogram[bucket].increment();
+    }
+
+    @Override
+    public int getCheckedOutCount()
+    {
+        return checkedOut.get();
+    }
+
+    @Override
+    public int getWaitingCount()
+    {
+        return waiting.get();
+    }
+
+    @Override
+    public int getOpenConnectionCount()
+    {
+        return open.get();
+    }
+
+    @Override
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Override
+    public long getCheckOutFailureCount()
+    {
+        return checkOutFailures.sum();
+    }
+
+    @Override
+    public long[] getWaitBucketLimitsMillis()
+    {
+        return WAIT_BUCKET_LIMITS_MILLIS.clone();
+    }
+
+    @Override
+    public long[] getWaitHistogram()
+    {
+        long[] counts = new long[waitHistogram.length];
+
+        for (int i = 0; i < counts.length; i++)
+        {
+            counts[i] = waitHistogram[i].sum();
+        }
+
+        return counts;
+    }
+
+    /**
+     * Returns a one-line summary of the pool state, suitable for logging.
+     *
+     * @return the current pool metrics as text
+     */
+    @Override
+    public String toString()
+    {
+        return "Pool {in use: " + checkedOut.get() + "/" + maxSize + ", waiting: " + waiting.get() + ", open: " + open.get()
+                + ", failed check outs: " + checkOutFailures.sum() + "}";
+    }
+}
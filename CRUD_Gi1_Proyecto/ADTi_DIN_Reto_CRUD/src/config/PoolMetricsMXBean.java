@@ -0,0 +1,57 @@
+package config;
+
+/**
+ * Management interface exposing the live state of the MongoDB connection pool. It is registered in the platform MBean server, so the figures can be watched with JConsole or any other JMX client while the application is running.
+ */
+public interface PoolMetricsMXBean
+{
+
+    /**
+     * Returns the number of connections currently checked out of the pool by running operations.
+     *
+     * @return the number of connections in use
+     */
+    public int getCheckedOutCount();
+
+    /**
+     * Returns the number of operations currently waiting for a connection to become available.
+     *
+     * @return the number of operations waiting for a connection
+     */
+    public int getWaitingCount();
+
+    /**
+     * Returns the number of connections currently open in the pool, either in use or idle.
+     *
+     * @return the number of open connections
+     */
+    public int getOpenConnectionCount();
+
+    /**
+     * Returns the configured maximum number of connections of the pool.
+     *
+     * @return the maximum pool size
+     */
+    public int getMaxSize();
+
+    /**
+     * Returns the number of check outs that failed, typically because the maximum wait time elapsed while the pool was exhausted.
+     *
+     * @return the number of failed check outs
+     */
+    public long getCheckOutFailureCount();
+
+    /**
+     * Returns the upper limits, in milliseconds, of the buckets of the check out wait histogram. The last bucket has no upper limit and is not listed.
+     *
+     * @return the bucket limits in milliseconds
+     */
+    public long[] getWaitBucketLimitsMillis();
+
+    /**
+     * Returns the check out wait histogram. Each position counts the check outs whose wait time fell into the matching bucket of getWaitBucketLimitsMillis, with one extra trailing position for waits above the last limit.
+     *
+     * @return the number of check outs per wait time bucket
+     */
+    public long[] getWaitHistogram();
+}
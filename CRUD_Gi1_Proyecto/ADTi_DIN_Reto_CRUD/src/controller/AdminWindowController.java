@@ -1,31 +1,51 @@
 package controller;
 
+import dao.ExportFormat;
+import dao.UserChangeListener;
+import exception.ErrorMessages;
 import exception.OurException;
 import exception.ShowAlert;
+import exception.VersionConflictException;
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.function.Function;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.PieChart;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.RadioButton;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import model.Admin;
 import model.Gender;
 import model.LoggedProfile;
+import model.ProfileField;
 import model.User;
+import model.UserStatistics;
+import model.UserSummary;
+import org.bson.types.ObjectId;
 
 /**
  * Controller class for the Administrator Window interface. This class handles the administration functionality including user management, profile updates, and system operations. It provides an interface for administrators to view, modify, and delete user accounts with comprehensive validation and data management capabilities.
@@ -37,8 +57,51 @@ public class AdminWindowController implements Initializable
 
     private Controller controller;
     private Admin admin;
-    private ArrayList<User> users;
     private User selectedUser;
+    private boolean pendingSelection;
+    private UserTableSource usersSource;
+    private final BackgroundTasks tasks = new BackgroundTasks();
+
+    private String searchQuery = "";
+    private Gender searchGender;
+    private ProfileField sortField;
+    private boolean sortAscending = true;
+
+    private static final String ANY_GENDER = "ALL";
+    private static final int STATISTICS_MONTHS = 12;
+    private static final double ROW_HEIGHT = 24;
+
+    private static final String LOAD_USER = "loadUser";
+    private static final String SAVE = "save";
+
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(300));
+
+    private final UserChangeListener userChangeListener = new UserChangeListener()
+    {
+        @Override
+        public void userInserted(User user)
+        {
+            Platform.runLater(() -> applyUserInserted(user));
+        }
+
+        @Override
+        public void userUpdated(User user)
+        {
+            Platform.runLater(() -> applyUserUpdated(user));
+        }
+
+        @Override
+        public void userDeleted(ObjectId id)
+        {
+            Platform.runLater(() -> applyUserDeleted(id));
+        }
+
+        @Override
+        public void changesMissed()
+        {
+            Platform.runLater(() -> refreshUserList());
+        }
+    };
 
     @FXML
     private Pane leftPane;
@@ -57,17 +120,34 @@ public class AdminWindowController implements Initializable
     @FXML
     private Label usernameLabel, passwordLabel, nameLabel, telephoneLabel, genderLabel, emailLabel, cardNumberLabel;
     @FXML
-    private ComboBox<User> usersComboBox;
+    private TableView<UserSummary> usersTable;
     @FXML
-    private Button deleteUserBttn, saveChangesBttn, logOutBttn;
+    private TableColumn<UserSummary, String> usernameColumn, emailColumn, nameColumn, genderColumn;
+    private final Label tablePlaceholder = new Label();
+    @FXML
+    private TextField searchTextField;
+    @FXML
+    private ComboBox<String> genderFilterComboBox;
+    @FXML
+    private Button deleteUserBttn, saveChangesBttn, logOutBttn, bulkDeleteBttn, exportBttn, statsBttn;
     @FXML
     private Label username;
+    @FXML
+    private ProgressBar exportProgressBar;
+    @FXML
+    private Pane dashboardPane;
+    @FXML
+    private Label totalUsersLabel, totalAdminsLabel, usersPerAdminLabel;
+    @FXML
+    private PieChart genderChart;
+    @FXML
+    private BarChart<String, Number> registrationsChart;
 
     private final String ERROR_STYLE = "-fx-border-color: red; -fx-border-width: 2px;";
     private final String NORMAL_STYLE = "-fx-border-color: null;";
 
     /**
-     * Sets the main controller and initializes the administrator interface. This method configures the controller reference, retrieves the currently logged-in admin profile from the LoggedProfile singleton, displays the admin username, and loads the list of users from the system.
+     * Sets the main controller and initializes the administrator interface. This method configures the controller reference, retrieves the currently logged-in admin profile from the LoggedProfile singleton, displays the admin username, fills the users table from the system and subscribes to the changes made to users by other administrators. The verification and bulk delete windows are loaded in the background meanwhile.
      *
      * @param controller the main application controller that manages business logic and data operations
      */
@@ -76,23 +156,188 @@ public class AdminWindowController implements Initializable
         this.controller = controller;
         admin = (Admin) LoggedProfile.getInstance().getProfile();
         username.setText(admin.getUsername());
+        usersSource = new UserTableSource(controller, tasks, this::usersLoaded, this::usersFailed);
+        usersTable.setItems(usersSource);
         getUsers();
+        controller.addUserChangeListener(userChangeListener);
+        controller.getNavigator().preload(Navigator.VERIFY_USER, Navigator.BULK_DELETE);
     }
 
     /**
-     * Retrieves the complete list of users from the system and populates the users combo box. This method fetches all user records through the main controller and updates the UI component to display them. If an error occurs during retrieval, an error alert is displayed to the administrator.
+     * Restarts the users table with the current search and order. This method drops every row shown, cancels any page still being loaded and has the users counted again, of the current search if there is one; the rows are then loaded page by page as the table displays them, so only the part of the list the administrator scrolls to is ever read from the database.
      */
     private void getUsers()
     {
-        try
+        tablePlaceholder.setText("Loading users...");
+        usersSource.reset(searchQuery, searchGender, sortField, sortAscending);
+        usersTable.scrollTo(0);
+    }
+
+    /**
+     * Shows the rows that have just been loaded in the users table. This method redraws the visible cells, updates the text shown when the table is empty and, if the row the administrator clicked was still loading, loads its user now. When the rows have moved, such as after another administrator added a user before the one being edited, the selection is moved back to the row of the user in the form.
+     */
+    private void usersLoaded()
+    {
+        usersTable.refresh();
+        tablePlaceholder.setText(isSearching() ? "No users found" : "No users");
+
+        if (pendingSelection)
         {
-            users = controller.getUsers();
-            usersComboBox.getItems().setAll(users);
+            loadSelectedUser();
         }
-        catch (OurException ex)
+        else if (selectedUser != null)
         {
-            ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+            int index = usersSource.indexOfUser(selectedUser.getId());
+
+            if (index >= 0 && index != usersTable.getSelectionModel().getSelectedIndex())
+            {
+                usersTable.getSelectionModel().clearAndSelect(index);
+            }
+        }
+    }
+
+    /**
+     * Displays an error alert when the users of the table could not be counted or loaded.
+     *
+     * @param error the error of the failed request
+     */
+    private void usersFailed(Throwable error)
+    {
+        tablePlaceholder.setText("No users");
+        ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.GET_USERS).getMessage(), Alert.AlertType.ERROR);
+    }
+
+    /**
+     * Tells whether the user list is showing the results of a search instead of every user.
+     *
+     * @return true if a search text or a gender filter is applied, false otherwise
+     */
+    private boolean isSearching()
+    {
+        return !searchQuery.isEmpty() || searchGender != null;
+    }
+
+    /**
+     * Applies the text of the search box and the selected gender filter to the user list. This method is called once the administrator stops typing for a moment, or right away when the gender filter changes, and restarts the table at the top of the new search. Nothing is reloaded if the search has not changed.
+     */
+    private void applySearch()
+    {
+        String query = searchTextField.getText().trim();
+        String genderFilter = genderFilterComboBox.getValue();
+        Gender gender = genderFilter == null || ANY_GENDER.equals(genderFilter) ? null : Gender.valueOf(genderFilter);
+
+        if (query.equals(searchQuery) && gender == searchGender)
+        {
+            return;
         }
+
+        searchQuery = query;
+        searchGender = gender;
+        refreshUserList();
+    }
+
+    /**
+     * Configures the search box and the gender filter. Typing in the search box restarts a short delay, so the search is sent once the administrator pauses instead of once per key; changing the gender filter searches immediately.
+     */
+    private void configureSearch()
+    {
+        genderFilterComboBox.getItems().add(ANY_GENDER);
+
+        for (Gender gender : Gender.values())
+        {
+            genderFilterComboBox.getItems().add(gender.name());
+        }
+
+        genderFilterComboBox.setValue(ANY_GENDER);
+        genderFilterComboBox.setOnAction(e -> applySearch());
+
+        searchDelay.setOnFinished(e -> applySearch());
+        searchTextField.textProperty().addListener((obs, oldValue, newValue) -> searchDelay.playFromStart());
+        searchTextField.setOnAction(e ->
+        {
+            searchDelay.stop();
+            applySearch();
+        });
+    }
+
+    /**
+     * Shows a user registered elsewhere in the users table. The user is added to the loaded rows when its place among them is known, and the table is reloaded in the background otherwise, keeping its rows and scroll position until the new ones arrive.
+     *
+     * @param user the inserted user
+     */
+    private void applyUserInserted(User user)
+    {
+        usersSource.userInserted(user);
+    }
+
+    /**
+     * Refreshes the row of a user modified elsewhere, in place when the change does not move it. The form of the user being edited is left untouched so the changes typed in it are not lost.
+     *
+     * @param user the user as it is after the change
+     */
+    private void applyUserUpdated(User user)
+    {
+        usersSource.userUpdated(user);
+    }
+
+    /**
+     * Removes a user deleted elsewhere from the users table, clearing the form first if it was the user being edited.
+     *
+     * @param id the identifier of the deleted profile
+     */
+    private void applyUserDeleted(ObjectId id)
+    {
+        if (selectedUser != null && selectedUser.getId().equals(id))
+        {
+            clearUserFields();
+        }
+
+        usersSource.userDeleted(id);
+    }
+
+    /**
+     * Configures the users table. Each column shows one attribute of the user summaries and sorts by the matching profile field, so clicking a column header has the database sort the whole list instead of the table sorting the rows it holds; rows loading show as empty. The rows have a fixed height so the table can place them without measuring each one, and choosing a row loads its user into the form.
+     */
+    private void configureUsersTable()
+    {
+        configureColumn(usernameColumn, ProfileField.USERNAME, UserSummary::getUsername);
+        configureColumn(emailColumn, ProfileField.EMAIL, UserSummary::getEmail);
+        configureColumn(nameColumn, ProfileField.NAME, UserSummary::getName);
+        configureColumn(genderColumn, ProfileField.GENDER, summary -> summary.getGender() != null ? summary.getGender().name() : null);
+
+        usersTable.setFixedCellSize(ROW_HEIGHT);
+        usersTable.setPlaceholder(tablePlaceholder);
+        usersTable.setSortPolicy(table ->
+        {
+            applySort();
+            return true;
+        });
+        usersTable.getSelectionModel().selectedIndexProperty().addListener((obs, oldIndex, newIndex) -> loadSelectedUser());
+    }
+
+    private void configureColumn(TableColumn<UserSummary, String> column, ProfileField field, Function<UserSummary, String> value)
+    {
+        column.setUserData(field);
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue() != null ? value.apply(cell.getValue()) : null));
+    }
+
+    /**
+     * Applies the order chosen in the users table headers. The first column of the sort order decides the order of the whole list and the table is restarted at the top; without any sorted column the users are listed in identifier order. The user in the form stays selected if its row is loaded again.
+     */
+    private void applySort()
+    {
+        TableColumn<UserSummary, ?> column = usersTable.getSortOrder().isEmpty() ? null : usersTable.getSortOrder().get(0);
+        ProfileField field = column != null ? (ProfileField) column.getUserData() : null;
+        boolean ascending = column == null || column.getSortType() == TableColumn.SortType.ASCENDING;
+
+        if (usersSource == null || (field == sortField && ascending == sortAscending))
+        {
+            return;
+        }
+
+        sortField = field;
+        sortAscending = ascending;
+        getUsers();
     }
 
     /**
@@ -115,11 +360,12 @@ public class AdminWindowController implements Initializable
         otherRadioButton.setSelected(false);
 
         selectedUser = null;
-        usersComboBox.getSelectionModel().clearSelection();
+        pendingSelection = false;
+        usersTable.getSelectionModel().clearSelection();
     }
 
     /**
-     * Refreshes the user list and clears all input fields. This method reloads the user data from the system and resets the form to its initial state, ensuring the interface displays the most current user information.
+     * Refreshes the user list and clears all input fields. This method restarts the users table from the top and resets the form to its initial state, ensuring the interface displays the most current user information.
      */
     private void refreshUserList()
     {
@@ -128,23 +374,61 @@ public class AdminWindowController implements Initializable
     }
 
     /**
-     * Loads the data of the currently selected user into the form fields. This method populates all input fields with the information of the selected user, including personal details, contact information, and payment card data. If no user is selected, the method returns without performing any operations.
+     * Loads the complete data of the user chosen in the users table. The table only holds user summaries, so this method fetches the full user through the main controller in the background and fills the form once it arrives. A user still being loaded when another one is chosen is cancelled, so only the last choice fills the form. A row chosen while it is still loading is remembered and its user loaded once the row arrives; choosing the row of the user already in the form does nothing.
      */
-    private void loadUserData()
+    private void loadSelectedUser()
     {
-        if (selectedUser == null)
+        int index = usersTable.getSelectionModel().getSelectedIndex();
+        UserSummary summary = index >= 0 && index < usersSource.size() ? usersSource.get(index) : null;
+
+        pendingSelection = index >= 0 && summary == null;
+
+        if (summary == null || (selectedUser != null && selectedUser.getId().equals(summary.getId())))
+        {
+            return;
+        }
+
+        selectedUser = null;
+        tasks.cancel(LOAD_USER);
+
+        tasks.run(LOAD_USER, () -> controller.getUserAsync(summary.getId()), (user, error) ->
+        {
+            if (error != null)
+            {
+                ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.GET_USERS).getMessage(), Alert.AlertType.ERROR);
+            }
+            else if (user == null)
+            {
+                ShowAlert.showAlert("Error", "The selected user no longer exists.", Alert.AlertType.ERROR);
+            }
+            else
+            {
+                selectedUser = user;
+                loadUserData(user);
+            }
+        });
+    }
+
+    /**
+     * Loads the data of a user into the form fields. This method populates all input fields with the information of the given user, including personal details, contact information, and payment card data. The password field is left empty, since only a hash of the password is stored. If no user is given, the method returns without performing any operations.
+     *
+     * @param user the user whose data is shown, usually the selected user
+     */
+    private void loadUserData(User user)
+    {
+        if (user == null)
         {
             return;
         }
 
-        usernameTextField.setText(selectedUser.getUsername());
-        emailTextField.setText(selectedUser.getEmail());
-        nameTextField.setText(selectedUser.getName());
-        lastnameTextField.setText(selectedUser.getLastname());
-        telephoneTextField.setText(selectedUser.getTelephone());
-        passwordPasswordField.setText(selectedUser.getPassword());
+        usernameTextField.setText(user.getUsername());
+        emailTextField.setText(user.getEmail());
+        nameTextField.setText(user.getName());
+        lastnameTextField.setText(user.getLastname());
+        telephoneTextField.setText(user.getTelephone());
+        passwordPasswordField.clear();
 
-        switch (selectedUser.getGender())
+        switch (user.getGender())
         {
             case MALE:
                 maleRadioButton.setSelected(true);
@@ -157,17 +441,17 @@ public class AdminWindowController implements Initializable
                 break;
         }
 
-        if (selectedUser.getCard() != null && selectedUser.getCard().length() == 16)
+        if (user.getCard() != null && user.getCard().length() == 16)
         {
-            cardNumber1TextField.setText(selectedUser.getCard().substring(0, 4));
-            cardNumber2TextField.setText(selectedUser.getCard().substring(4, 8));
-            cardNumber3TextField.setText(selectedUser.getCard().substring(8, 12));
-            cardNumber4TextField.setText(selectedUser.getCard().substring(12, 16));
+            cardNumber1TextField.setText(user.getCard().substring(0, 4));
+            cardNumber2TextField.setText(user.getCard().substring(4, 8));
+            cardNumber3TextField.setText(user.getCard().substring(8, 12));
+            cardNumber4TextField.setText(user.getCard().substring(12, 16));
         }
     }
 
     /**
-     * Saves the changes made to the selected user's profile. This method validates all input fields, updates the user object with the modified data, and persists the changes to the system. If validation fails or the update operation encounters an error, appropriate alert messages are displayed to the administrator.
+     * Saves the changes made to the selected user's profile. This method validates all input fields, builds a copy of the selected user with the modified data, and persists only the modified fields to the system in the background; the selected user is only replaced by the copy once the save succeeds. If another administrator saved the same user in the meantime, the administrator is offered to reload it and merge the changes. If validation fails or the update operation encounters any other error, appropriate alert messages are displayed to the administrator.
      *
      */
     @FXML
@@ -190,20 +474,47 @@ public class AdminWindowController implements Initializable
             return;
         }
 
-        selectedUser.setName(nameTextField.getText().trim());
-        selectedUser.setLastname(lastnameTextField.getText().trim());
-        selectedUser.setTelephone(telephoneTextField.getText().trim());
-        selectedUser.setPassword(passwordPasswordField.getText().trim());
-        selectedUser.setGender(maleRadioButton.isSelected() ? Gender.MALE : femaleRadioButton.isSelected() ? Gender.FEMALE : Gender.OTHER);
-        selectedUser.setCard(cardNumber1TextField.getText() + cardNumber2TextField.getText()
+        String password = passwordPasswordField.getText().trim();
+
+        User edited = new User(selectedUser);
+        edited.setName(nameTextField.getText().trim());
+        edited.setLastname(lastnameTextField.getText().trim());
+        edited.setTelephone(telephoneTextField.getText().trim());
+
+        if (!password.isEmpty())
+        {
+            edited.setPassword(password);
+        }
+
+        edited.setGender(maleRadioButton.isSelected() ? Gender.MALE : femaleRadioButton.isSelected() ? Gender.FEMALE : Gender.OTHER);
+        edited.setCard(cardNumber1TextField.getText() + cardNumber2TextField.getText()
                 + cardNumber3TextField.getText() + cardNumber4TextField.getText());
 
-        try
+        if (!edited.hasChanges())
+        {
+            ShowAlert.showAlert("Information", "There are no changes to save.", Alert.AlertType.INFORMATION);
+            return;
+        }
+
+        tasks.run(SAVE, () -> controller.updateUserAsync(edited), (success, error) ->
         {
-            boolean success = controller.updateUser(selectedUser);
+            OurException failure = error != null ? OurException.unwrap(error, ErrorMessages.UPDATE_USER) : null;
 
-            if (success)
+            if (failure instanceof VersionConflictException)
             {
+                reloadAndMerge(edited, password);
+            }
+            else if (failure != null)
+            {
+                ShowAlert.showAlert("Error", failure.getMessage(), Alert.AlertType.ERROR);
+            }
+            else if (success)
+            {
+                if (selectedUser != null && selectedUser.getId().equals(edited.getId()))
+                {
+                    selectedUser = edited;
+                }
+
                 ShowAlert.showAlert("Success", "User updated successfully.", Alert.AlertType.INFORMATION);
                 resetFieldStyles();
             }
@@ -211,11 +522,84 @@ public class AdminWindowController implements Initializable
             {
                 ShowAlert.showAlert("Error", "Could not update user.", Alert.AlertType.ERROR);
             }
-        }
-        catch (OurException ex)
+        }, saveChangesBttn, deleteUserBttn);
+    }
+
+    /**
+     * Handles a save rejected because another administrator modified the user after it was loaded. This method loads the current version of the user in the background and asks the administrator how to continue. Merging keeps every field the administrator changed and takes the new value of every field they did not touch, then leaves the merged data in the form so it can be reviewed and saved again; discarding shows the current version as it is.
+     *
+     * @param edited the user with the changes that could not be saved
+     * @param password the new password typed by the administrator, or an empty string to keep the current one
+     */
+    private void reloadAndMerge(User edited, String password)
+    {
+        User base = selectedUser;
+
+        tasks.run("reload", () -> controller.getUserAsync(edited.getId()), (latest, error) ->
         {
-            ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+            if (selectedUser != base)
+            {
+                return;
+            }
+
+            if (error != null)
+            {
+                ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.GET_USERS).getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+
+            if (latest == null)
+            {
+                ShowAlert.showAlert("Error", "The selected user no longer exists.", Alert.AlertType.ERROR);
+                refreshUserList();
+                return;
+            }
+
+            Alert prompt = new Alert(Alert.AlertType.CONFIRMATION);
+            prompt.setTitle("Conflict");
+            prompt.setHeaderText(ErrorMessages.VERSION_CONFLICT);
+            prompt.setContentText("Keep your changes on top of the current version? Fields you did not change will take their new values; review the form and save again.\n\nChoose Cancel to discard your changes and show the current version.");
+            Optional<ButtonType> answer = prompt.showAndWait();
+
+            selectedUser = latest;
+
+            if (answer.isPresent() && answer.get() == ButtonType.OK)
+            {
+                loadUserData(merge(base, edited, latest));
+                passwordPasswordField.setText(password);
+            }
+            else
+            {
+                loadUserData(latest);
+            }
+        }, saveChangesBttn);
+    }
+
+    /**
+     * Combines the changes an administrator made to a user with the changes saved by someone else. For every editable field, the edited value is kept if it differs from the value the user was loaded with; otherwise the value of the latest version is taken. The password is always taken from the latest version, since a new password typed by the administrator is put back in the form instead.
+     *
+     * @param base the user as it was loaded
+     * @param edited the user with the administrator's changes
+     * @param latest the current version of the user
+     * @return a new user with the merged data and the version of latest
+     */
+    private User merge(User base, User edited, User latest)
+    {
+        User merged = new User(latest.getId(), latest.getEmail(), latest.getUsername(),
+                latest.getPassword(),
+                pick(base.getName(), edited.getName(), latest.getName()),
+                pick(base.getLastname(), edited.getLastname(), latest.getLastname()),
+                pick(base.getTelephone(), edited.getTelephone(), latest.getTelephone()),
+                pick(base.getGender(), edited.getGender(), latest.getGender()),
+                pick(base.getCard(), edited.getCard(), latest.getCard()));
+        merged.setVersion(latest.getVersion());
+
+        return merged;
+    }
+
+    private <T> T pick(T base, T edited, T latest)
+    {
+        return Objects.equals(base, edited) ? latest : edited;
     }
 
     /**
@@ -232,19 +616,11 @@ public class AdminWindowController implements Initializable
 
         try
         {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/VerifyUserWindow.fxml"));
-            Parent root = loader.load();
-            VerifyUserWindowController verifyController = loader.getController();
-            verifyController.setController(controller, selectedUser.getId());
-            verifyController.setOnUserDeletedCallback(this::refreshUserList);
-
-            Stage stage = new Stage();
-            stage.setScene(new Scene(root));
-            stage.setTitle("Confirm");
-            stage.getIcons().add(new Image(getClass().getResourceAsStream("/images/logo.png")));
-            stage.initModality(Modality.WINDOW_MODAL);
-            stage.initOwner(deleteUserBttn.getScene().getWindow());
-            stage.show();
+            controller.getNavigator().showModal(deleteUserBttn.getScene().getWindow(), Navigator.VERIFY_USER, verifyController ->
+            {
+                verifyController.setController(controller, selectedUser.getId());
+                verifyController.setOnUserDeletedCallback(this::refreshUserList);
+            });
         }
         catch (IOException ex)
         {
@@ -253,25 +629,141 @@ public class AdminWindowController implements Initializable
     }
 
     /**
-     * Logs out the current administrator and returns to the login screen. This method clears the logged-in profile, resets user references, and navigates back to the login window. If an error occurs during the logout process, an error alert is displayed to the user.
+     * Exports every user to a file chosen by the administrator, as NDJSON or CSV depending on the selected extension filter. The export runs in the background while a progress bar under the user list shows how far it has gone, so the window stays responsive; the export button is disabled until it finishes. Passwords are not exported and payment cards are masked.
+     */
+    @FXML
+    public void exportUsers()
+    {
+        FileChooser.ExtensionFilter ndjson = new FileChooser.ExtensionFilter("NDJSON (*.ndjson)", "*.ndjson");
+        FileChooser.ExtensionFilter csv = new FileChooser.ExtensionFilter("CSV (*.csv)", "*.csv");
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export users");
+        chooser.setInitialFileName("users.ndjson");
+        chooser.getExtensionFilters().addAll(ndjson, csv);
+
+        File file = chooser.showSaveDialog(exportBttn.getScene().getWindow());
+
+        if (file == null)
+        {
+            return;
+        }
+
+        ExportFormat format = chooser.getSelectedExtensionFilter() == csv || file.getName().toLowerCase().endsWith(".csv")
+                ? ExportFormat.CSV
+                : ExportFormat.NDJSON;
+
+        exportProgressBar.setProgress(0);
+        exportProgressBar.setVisible(true);
+
+        tasks.run("export", () -> controller.exportUsersAsync(file, format, (exported, total)
+                -> Platform.runLater(() -> exportProgressBar.setProgress(total > 0 ? (double) exported / total : 1))),
+                (exported, error) ->
+                {
+                    exportProgressBar.setVisible(false);
+
+                    if (error != null)
+                    {
+                        ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.EXPORT_USERS).getMessage(), Alert.AlertType.ERROR);
+                        return;
+                    }
+
+                    ShowAlert.showAlert("Success", exported + " users exported to " + file.getName() + ".", Alert.AlertType.INFORMATION);
+                }, exportBttn);
+    }
+
+    /**
+     * Shows or hides the statistics dashboard over the user form. Every time the dashboard is shown, the statistics are requested in the background and the counters and charts are filled once they arrive; the database computes them and the result is briefly cached, so reopening the dashboard is cheap.
+     */
+    @FXML
+    public void toggleDashboard()
+    {
+        if (dashboardPane.isVisible())
+        {
+            dashboardPane.setVisible(false);
+            statsBttn.setText("STATISTICS");
+            return;
+        }
+
+        dashboardPane.setVisible(true);
+        statsBttn.setText("USER FORM");
+
+        tasks.run("statistics", () -> controller.getUserStatisticsAsync(STATISTICS_MONTHS), (statistics, error) ->
+        {
+            if (error != null)
+            {
+                ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.GET_STATISTICS).getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+
+            showStatistics(statistics);
+        });
+    }
+
+    /**
+     * Fills the dashboard counters and charts with the given statistics.
+     *
+     * @param statistics the statistics to display
+     */
+    private void showStatistics(UserStatistics statistics)
+    {
+        totalUsersLabel.setText("Users: " + statistics.getUserCount());
+        totalAdminsLabel.setText("Admins: " + statistics.getAdminCount());
+        usersPerAdminLabel.setText(String.format("Users per admin: %.1f", statistics.getUsersPerAdmin()));
+
+        genderChart.getData().clear();
+
+        for (Map.Entry<Gender, Long> entry : statistics.getUsersByGender().entrySet())
+        {
+            genderChart.getData().add(new PieChart.Data(entry.getKey().name() + " (" + entry.getValue() + ")", entry.getValue()));
+        }
+
+        XYChart.Series<String, Number> registrations = new XYChart.Series<>();
+
+        for (Map.Entry<YearMonth, Long> entry : statistics.getRegistrationsByMonth().entrySet())
+        {
+            registrations.getData().add(new XYChart.Data<>(entry.getKey().toString(), entry.getValue()));
+        }
+
+        registrationsChart.getData().clear();
+        registrationsChart.getData().add(registrations);
+    }
+
+    /**
+     * Opens the bulk delete window, where the administrator can select many users and delete them with a single confirmation. The user list is refreshed once the deletion finishes.
+     */
+    @FXML
+    public void openBulkDelete()
+    {
+        try
+        {
+            controller.getNavigator().showModal(bulkDeleteBttn.getScene().getWindow(), Navigator.BULK_DELETE, bulkController ->
+            {
+                bulkController.setController(controller);
+                bulkController.setOnUsersDeletedCallback(this::refreshUserList);
+            });
+        }
+        catch (IOException ex)
+        {
+            ShowAlert.showAlert("Error", "Error opening Bulk Delete window.", Alert.AlertType.ERROR);
+        }
+    }
+
+    /**
+     * Logs out the current administrator and returns to the login screen. This method stops listening to user changes, clears the logged-in profile, resets user references, and navigates back to the login window. If an error occurs during the logout process, an error alert is displayed to the user.
      */
     @FXML
     public void logOut()
     {
+        controller.removeUserChangeListener(userChangeListener);
         LoggedProfile.getInstance().clear();
         admin = null;
         selectedUser = null;
 
         try
         {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/LoginWindow.fxml"));
-            Parent window = loader.load();
-            LoginWindowController loginController = loader.getController();
-            loginController.setController(controller);
             Stage currentwindow = (Stage) logOutBttn.getScene().getWindow();
-            currentwindow.setTitle("Logi In");
-            currentwindow.setResizable(false);
-            currentwindow.setScene(new Scene(window));
+            controller.getNavigator().show(currentwindow, Navigator.LOGIN, loginController -> loginController.setController(controller));
         }
         catch (IOException ex)
         {
@@ -306,7 +798,8 @@ public class AdminWindowController implements Initializable
             isValid = false;
         }
 
-        if (passwordPasswordField.getText().trim().isEmpty() || !isValidPassword(passwordPasswordField.getText().trim()))
+        // An empty password keeps the current one, which is only stored as a hash
+        if (!passwordPasswordField.getText().trim().isEmpty() && !isValidPassword(passwordPasswordField.getText().trim()))
         {
             passwordPasswordField.setStyle(ERROR_STYLE);
             isValid = false;
@@ -435,7 +928,7 @@ public class AdminWindowController implements Initializable
     }
 
     /**
-     * Initializes the controller class and sets up event handlers. This method is automatically called after the FXML file has been loaded and initializes the user interface components, including setting up the user selection combo box handler and configuring input validation for telephone and card number fields.
+     * Initializes the controller class and sets up event handlers. This method is automatically called after the FXML file has been loaded and initializes the user interface components, including setting up the users table, whose rows are loaded on demand and load the chosen user into the form, and configuring input validation for telephone and card number fields.
      *
      * @param url the location used to resolve relative paths for the root object, or null if the location is not known
      * @param rb the resources used to localize the root object, or null if the root object was not localized
@@ -443,11 +936,9 @@ public class AdminWindowController implements Initializable
     @Override
     public void initialize(URL url, ResourceBundle rb)
     {
-        usersComboBox.setOnAction(e ->
-        {
-            selectedUser = usersComboBox.getValue();
-            loadUserData();
-        });
+        tasks.attach(usersTable);
+        configureUsersTable();
+        configureSearch();
         configureCardNumber();
         configureTelephone();
     }
@@ -0,0 +1,222 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+
+/**
+ * Runs the background operations of one window. Every window controller owns an instance and starts its data operations through it instead of handling the futures returned by the Controller itself, so all windows behave the same way while the database is slow or unreachable.
+ *
+ * <p>
+ * Each operation is started under a key that names what it does, such as "save" or "login". While it is running the nodes that triggered it are disabled and a second submission under the same key is ignored, so a double click on a button or a repeated Enter key never sends the same request twice. The completion callback is always called on the JavaFX Application Thread, after the triggering nodes have been enabled again, so it can update the interface directly.</p>
+ *
+ * <p>
+ * Once attached to a node, the window shows a wait cursor while any operation is running, and every running operation is cancelled when the window is closed or its scene is replaced by another one. A cancelled operation never calls its callback, so a window that is gone is never updated. Operations that have not started yet are dropped by the worker pools; one already talking to the database is left to finish, since interrupting the driver would close its connection, and its result is discarded.</p>
+ *
+ * <p>
+ * This class is not thread safe and must only be used from the JavaFX Application Thread.</p>
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class BackgroundTasks
+{
+
+    private final Map<String, Running> running = new HashMap<>();
+    private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(this, "busy");
+
+    /**
+     * Starts an operation unless another one with the same key is still running. The operation is started immediately; the triggering nodes stay disabled until it completes or is cancelled.
+     *
+     * @param <T> the type of the value produced by the operation
+     * @param key the name of the operation, used to ignore duplicate submissions
+     * @param operation starts the operation, usually by calling one of the asynchronous methods of the Controller
+     * @param onComplete receives the result, or the error if the operation failed, on the JavaFX Application Thread
+     * @param triggers the nodes to disable while the operation is running, such as the button that started it
+     * @return true if the operation was started, false if it was ignored because the same operation is still running
+     */
+    public <T> boolean run(String key, Supplier<CompletableFuture<T>> operation, BiConsumer<? super T, Throwable> onComplete, Node... triggers)
+    {
+        if (running.containsKey(key))
+        {
+            return false;
+        }
+
+        CompletableFuture<T> future;
+
+        try
+        {
+            future = operation.get();
+        }
+        catch (RuntimeException ex)
+        {
+            onComplete.accept(null, ex);
+            return true;
+        }
+
+        Running task = new Running(future, triggers);
+        running.put(key, task);
+        task.setTriggersDisabled(true);
+        busy.set(true);
+
+        future.whenComplete((result, error) -> Platform.runLater(() ->
+        {
+            // A cancelled operation, or one replaced after it was cancelled, has already been removed
+            if (running.get(key) != task)
+            {
+                return;
+            }
+
+            finish(key);
+            onComplete.accept(result, error);
+        }));
+
+        return true;
+    }
+
+    /**
+     * Checks whether an operation is still running.
+     *
+     * @param key the name of the operation
+     * @return true if an operation with that key has been started and has not completed or been cancelled
+     */
+    public boolean isRunning(String key)
+    {
+        return running.containsKey(key);
+    }
+
+    /**
+     * Cancels a running operation. Its triggering nodes are enabled again and its callback is never called.
+     *
+     * @param key the name of the operation
+     */
+    public void cancel(String key)
+    {
+        Running task = running.get(key);
+
+        if (task != null)
+        {
+            finish(key);
+            task.future.cancel(false);
+        }
+    }
+
+    /**
+     * Cancels every running operation.
+     */
+    public void cancelAll()
+    {
+        for (String key : new ArrayList<>(running.keySet()))
+        {
+            cancel(key);
+        }
+    }
+
+    /**
+     * Tells whether any operation is running.
+     *
+     * @return a property that is true while at least one operation is running
+     */
+    public ReadOnlyBooleanProperty busyProperty()
+    {
+        return busy.getReadOnlyProperty();
+    }
+
+    /**
+     * Ties the operations to the window that shows a node. The scene of the node shows a wait cursor while an operation is running, and every operation is cancelled when the window is hidden or when the scene of the node is taken off the window, as happens when the window moves on to another screen. Window controllers call this method from initialize with any of their nodes.
+     *
+     * @param node a node of the window, which does not need to be in a scene yet
+     */
+    public void attach(Node node)
+    {
+        ChangeListener<Boolean> showing = (observable, wasShowing, isShowing) ->
+        {
+            if (!isShowing)
+            {
+                cancelAll();
+            }
+        };
+
+        ChangeListener<Window> window = (observable, oldWindow, newWindow) ->
+        {
+            if (oldWindow != null)
+            {
+                oldWindow.showingProperty().removeListener(showing);
+                cancelAll();
+            }
+
+            if (newWindow != null)
+            {
+                newWindow.showingProperty().addListener(showing);
+            }
+        };
+
+        ChangeListener<Scene> scene = (observable, oldScene, newScene) ->
+        {
+            if (oldScene != null)
+            {
+                oldScene.windowProperty().removeListener(window);
+                oldScene.cursorProperty().unbind();
+            }
+
+            if (newScene != null)
+            {
+                newScene.windowProperty().addListener(window);
+                window.changed(newScene.windowProperty(), null, newScene.getWindow());
+                newScene.cursorProperty().bind(Bindings.when(busy).then(Cursor.WAIT).otherwise(Cursor.DEFAULT));
+            }
+        };
+
+        node.sceneProperty().addListener(scene);
+        scene.changed(node.sceneProperty(), null, node.getScene());
+    }
+
+    private void finish(String key)
+    {
+        running.remove(key).setTriggersDisabled(false);
+        busy.set(!running.isEmpty());
+    }
+
+    /**
+     * An operation in progress and the nodes it disabled.
+     */
+    private static class Running
+    {
+
+        private final CompletableFuture<?> future;
+        private final List<Node> triggers = new ArrayList<>();
+
+        Running(CompletableFuture<?> future, Node[] triggers)
+        {
+            this.future = future;
+
+            for (Node trigger : triggers)
+            {
+                if (trigger != null)
+                {
+                    this.triggers.add(trigger);
+                }
+            }
+        }
+
+        void setTriggersDisabled(boolean disabled)
+        {
+            for (Node trigger : triggers)
+            {
+                trigger.setDisable(disabled);
+            }
+        }
+    }
+}
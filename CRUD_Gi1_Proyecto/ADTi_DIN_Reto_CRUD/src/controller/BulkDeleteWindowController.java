@@ -0,0 +1,254 @@
+package controller;
+
+import exception.ErrorMessages;
+import exception.OurException;
+import exception.ShowAlert;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.Set;
+import javafx.collections.ListChangeListener;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+import model.BulkReport;
+import model.LoggedProfile;
+import model.UserSummary;
+import org.bson.types.ObjectId;
+
+/**
+ * Controller class for the Bulk Delete Window interface. This class lets an administrator select many users at once and delete all of them with a single confirmation and a single request to the database, instead of going through the verification windows once per user.
+ *
+ * The controller implements JavaFX Initializable interface to properly initialize the UI components and set up the multiple selection list.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class BulkDeleteWindowController implements Initializable
+{
+
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_REPORTED_FAILURES = 10;
+
+    private static final String LOAD_PAGE = "loadPage";
+
+    private Controller controller;
+    private final BackgroundTasks tasks = new BackgroundTasks();
+    private Runnable onUsersDeletedCallback;
+    private ObjectId lastLoadedId;
+    private boolean hasMoreUsers = true;
+
+    @FXML
+    private Pane rightPane;
+    @FXML
+    private Label username;
+    @FXML
+    private Label titleLabel;
+    @FXML
+    private Label selectionLabel;
+    @FXML
+    private ListView<UserSummary> usersListView;
+    @FXML
+    private Button selectAllBttn, deleteBttn, cancelBttn;
+
+    /**
+     * Initializes the controller with the main controller, displays the current administrator and loads the first page of users.
+     *
+     * @param controller the main application controller that manages business logic and data operations
+     */
+    public void setController(Controller controller)
+    {
+        this.controller = controller;
+        username.setText(LoggedProfile.getInstance().getProfile().getUsername());
+        loadNextPage();
+    }
+
+    /**
+     * Sets the callback function to be executed after the selected users have been deleted, such as refreshing the administrator's user list.
+     *
+     * @param callback the runnable function to execute after the deletion
+     */
+    public void setOnUsersDeletedCallback(Runnable callback)
+    {
+        onUsersDeletedCallback = callback;
+    }
+
+    /**
+     * Loads the next page of users and appends it to the list. This method fetches the summaries of the page through the main controller in the background and updates the list on the JavaFX Application Thread once it arrives. Further pages are requested as the administrator scrolls to the end of the list.
+     */
+    private void loadNextPage()
+    {
+        if (tasks.isRunning(LOAD_PAGE) || !hasMoreUsers)
+        {
+            return;
+        }
+
+        tasks.run(LOAD_PAGE, () -> controller.getUserSummariesPageAsync(lastLoadedId, PAGE_SIZE), (page, error) ->
+        {
+            if (error != null)
+            {
+                hasMoreUsers = false;
+                ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.GET_USERS).getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+
+            hasMoreUsers = !page.isEmpty();
+
+            if (!page.isEmpty())
+            {
+                lastLoadedId = page.get(page.size() - 1).getId();
+                usersListView.getItems().addAll(page);
+            }
+        });
+    }
+
+    /**
+     * Selects every user loaded so far. Users on pages that have not been loaded yet are not selected.
+     */
+    @FXML
+    public void selectAll()
+    {
+        usersListView.getSelectionModel().selectAll();
+    }
+
+    /**
+     * Deletes the selected users after a single confirmation. This method sends all the selected identifiers in one request in the background, disabling the window buttons while it runs, and then shows how many users were deleted together with the first failures, if any. Only the users that were actually deleted are removed from the list, so those listed as failures stay selectable for another attempt, and the callback is notified.
+     */
+    @FXML
+    public void deleteSelected()
+    {
+        List<UserSummary> selected = new ArrayList<>(usersListView.getSelectionModel().getSelectedItems());
+
+        if (selected.isEmpty())
+        {
+            ShowAlert.showAlert("Error", "Please select at least one user to delete.", Alert.AlertType.ERROR);
+            return;
+        }
+
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Confirm");
+        confirm.setHeaderText(null);
+        confirm.setContentText("Delete " + selected.size() + " users? This action cannot be undone.");
+        Optional<ButtonType> answer = confirm.showAndWait();
+
+        if (!answer.isPresent() || answer.get() != ButtonType.OK)
+        {
+            return;
+        }
+
+        List<ObjectId> ids = new ArrayList<>(selected.size());
+        List<String> usernames = new ArrayList<>(selected.size());
+
+        for (UserSummary summary : selected)
+        {
+            ids.add(summary.getId());
+            usernames.add(summary.getUsername());
+        }
+
+        tasks.run("delete", () -> controller.deleteUsersAsync(ids), (report, error) ->
+        {
+            if (error != null)
+            {
+                ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.DELETE_USER).getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+
+            Set<UserSummary> deleted = new HashSet<>(selected);
+
+            for (BulkReport.Failure failure : report.getFailures())
+            {
+                deleted.remove(selected.get(failure.getIndex()));
+            }
+
+            usersListView.getSelectionModel().clearSelection();
+            usersListView.getItems().removeAll(deleted);
+            showReport(report, usernames);
+
+            if (onUsersDeletedCallback != null)
+            {
+                onUsersDeletedCallback.run();
+            }
+        }, selectAllBttn, deleteBttn, cancelBttn);
+    }
+
+    /**
+     * Shows the outcome of a bulk deletion, listing the first failures if some users could not be deleted.
+     *
+     * @param report the report returned by the deletion
+     * @param usernames the usernames of the selected users, in the order their identifiers were sent
+     */
+    private void showReport(BulkReport report, List<String> usernames)
+    {
+        if (report.getFailures().isEmpty())
+        {
+            ShowAlert.showAlert("Success", report.getSucceeded() + " users deleted successfully.", Alert.AlertType.INFORMATION);
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append(report.getSucceeded()).append(" of ").append(report.getProcessed()).append(" users deleted.\n");
+
+        for (int i = 0; i < report.getFailures().size() && i < MAX_REPORTED_FAILURES; i++)
+        {
+            BulkReport.Failure failure = report.getFailures().get(i);
+            message.append("\n").append(usernames.get(failure.getIndex())).append(": ").append(failure.getMessage());
+        }
+
+        if (report.getFailures().size() > MAX_REPORTED_FAILURES)
+        {
+            message.append("\n...");
+        }
+
+        ShowAlert.showAlert("Warning", message.toString(), Alert.AlertType.WARNING);
+    }
+
+    /**
+     * Handles the cancellation action when the cancel button is clicked. This method closes the bulk delete window without deleting anything.
+     */
+    @FXML
+    public void cancelButton()
+    {
+        Stage stage = (Stage) cancelBttn.getScene().getWindow();
+        stage.close();
+    }
+
+    /**
+     * Initializes the controller class after the FXML file has been loaded. This method enables multiple selection in the users list, keeps the selection counter up to date and installs a cell factory that requests the next page when the last loaded user becomes visible.
+     *
+     * @param url the location used to resolve relative paths for the root object, or null if the location is not known
+     * @param rb the resources used to localize the root object, or null if the root object was not localized
+     */
+    @Override
+    public void initialize(URL url, ResourceBundle rb)
+    {
+        tasks.attach(usersListView);
+        usersListView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        usersListView.getSelectionModel().getSelectedIndices().addListener((ListChangeListener<Integer>) change
+                -> selectionLabel.setText(usersListView.getSelectionModel().getSelectedIndices().size() + " users selected"));
+
+        usersListView.setCellFactory(listView -> new ListCell<UserSummary>()
+        {
+            @Override
+            protected void updateItem(UserSummary item, boolean empty)
+            {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.getUsername() + "  (" + item.getEmail() + ")");
+
+                if (!empty && getIndex() >= getListView().getItems().size() - 1)
+                {
+                    loadNextPage();
+                }
+            }
+        });
+    }
+}
@@ -1,30 +1,53 @@
 package controller;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import javafx.stage.Stage;
+import dao.AsyncDBImplementation;
+import dao.AsyncModelDAO;
+import dao.CachingModelDAO;
 import dao.DBImplementation;
+import dao.ExportFormat;
+import dao.ExportProgress;
 import dao.ModelDAO;
+import dao.PasswordHasher;
+import dao.SecuritySettings;
+import dao.ThrottledModelDAO;
+import dao.UserChangeListener;
+import dao.UserChangeWatcher;
 import exception.ErrorMessages;
 import exception.OurException;
+import model.BulkReport;
+import model.Gender;
 import model.Profile;
+import model.ProfileField;
 import model.User;
-import javafx.scene.image.Image;
+import model.UserStatistics;
+import model.UserSummary;
+import org.bson.types.ObjectId;
 
 /**
  * Main controller class that serves as the central coordinator between the user interface and the data access layer. This class handles application initialization, window management, and delegates business operations to the underlying DAO implementation.
  *
  * The controller follows the Facade pattern by providing a simplified interface to complex subsystem operations while managing the application's main workflow and user navigation.
  *
+ * The methods whose names end in Async never block the calling thread. The futures they return are completed on a background worker, so window controllers must switch back to the JavaFX Application Thread before touching the interface, which BackgroundTasks does for them.
+ *
  * @author Kevin, Alex, Victor, Ekaitz
  */
 public class Controller
 {
 
     private final ModelDAO dao;
+    private final AsyncModelDAO asyncDao;
+    private final UserChangeWatcher userChanges;
+    private final Navigator navigator = new Navigator();
 
     /**
      * Constructs a new Controller instance with a custom DAO implementation. This constructor is primarily intended for testing purposes, allowing dependency injection of mock or test DAO implementations.
@@ -34,10 +57,12 @@ public class Controller
     public Controller(ModelDAO dao)
     {
         this.dao = dao;
+        this.asyncDao = new AsyncDBImplementation(dao);
+        this.userChanges = null;
     }
 
     /**
-     * Constructs a new Controller instance and initializes the data access layer. This constructor attempts to establish a connection to the database through the DBImplementation class. If the database connection fails, an exception is thrown with a descriptive error message.
+     * Constructs a new Controller instance and initializes the data access layer. This constructor attempts to establish a connection to the database through the DBImplementation class and in the background adds the profile type to documents stored without it, creates the indexes the queries rely on, then verifies that login queries are served by an index. Logins go through a ThrottledModelDAO, which rejects repeated attempts before they reach the database, and reads go through a CachingModelDAO, so lists reloaded after a local edit are served from memory, and a UserChangeWatcher keeps that cache in step with the changes made by other clients. The verification waits for the database client, which is created on its own background thread, so neither step delays the first window. If the database connection fails, an exception is thrown with a descriptive error message.
      *
      * @throws OurException if the database connection cannot be established, containing details about the connection failure
      */
@@ -45,7 +70,20 @@ public class Controller
     {
         try
         {
-            dao = new DBImplementation();
+            DBImplementation db = new DBImplementation();
+            CachingModelDAO cache = new CachingModelDAO(db);
+            dao = new ThrottledModelDAO(cache, SecuritySettings.getDefault());
+            asyncDao = new AsyncDBImplementation(dao);
+            asyncDao.submit(() ->
+            {
+                db.migrateProfileTypes();
+                db.createIndexes();
+                return db.checkLoginQueryPlan();
+            });
+
+            userChanges = db.createUserChangeWatcher();
+            userChanges.addListener(cache);
+            userChanges.start();
         }
         catch (Exception ex)
         {
@@ -54,84 +92,205 @@ public class Controller
     }
 
     /**
-     * Displays the main application window starting with the login interface. This method initializes the primary stage with the login window scene, configures the window properties including title and icon, and sets up the controller reference for the login interface.
+     * Displays the main application window starting with the login interface. This method shows the login window on the primary stage, configures the window icon, and sets up the controller reference for the login interface, which starts preparing the windows that may follow it.
      *
      * @param stage the primary stage to be used for displaying the application window
      * @throws IOException if the FXML file for the login window cannot be loaded or if there are issues with the resource loading process
      */
     public void showWindow(Stage stage) throws IOException
     {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/LoginWindow.fxml"));
-        Parent root = loader.load();
-
-        LoginWindowController loginController = loader.getController();
-        loginController.setController(this);
+        navigator.show(stage, Navigator.LOGIN, loginController -> loginController.setController(this));
 
-        Scene scene = new Scene(root);
-        stage.setScene(scene);
-        stage.setTitle("Log In");
-        stage.setResizable(false);
-        stage.getIcons().add(new Image(getClass().getResourceAsStream("/images/logo.png")));
+        stage.getIcons().add(navigator.getIcon());
         stage.show();
     }
 
     /**
-     * Registers a new user in the system. This method delegates the user registration process to the data access layer, which handles the persistence of user data and ensures data integrity.
+     * Returns the navigator that window controllers use to move between windows. Every window goes through the same navigator, so the views it keeps loaded are shared by the whole application.
+     *
+     * @return the navigator of the application
+     */
+    public Navigator getNavigator()
+    {
+        return navigator;
+    }
+
+    /**
+     * Registers a new user in the system without blocking the calling thread.
      *
      * @param user the User object containing all registration information
-     * @return the registered User object, typically with generated identifiers and any system-assigned values
-     * @throws OurException if the registration process fails due to validation errors, duplicate users, or database constraints violations
+     * @return a future completed with the registered User object, or exceptionally with an OurException if the registration fails
      */
-    public User register(User user) throws OurException
+    public CompletableFuture<User> registerAsync(User user)
     {
-        return dao.register(user);
+        return asyncDao.register(user);
     }
 
     /**
-     * Authenticates a user using provided credentials. This method verifies user identity by checking the provided credential (which can be username or email) and password against stored user data.
+     * Authenticates a user using provided credentials without blocking the calling thread.
      *
      * @param credential the user's username or email address used for identification
      * @param password the user's password for authentication
-     * @return the authenticated user's Profile object containing user information and access privileges
-     * @throws OurException if authentication fails due to invalid credentials, user not found, or database access issues
+     * @return a future completed with the authenticated Profile, with null if the credentials are invalid, or exceptionally with an OurException if the process fails
+     */
+    public CompletableFuture<Profile> loginAsync(String credential, String password)
+    {
+        return asyncDao.login(credential, password);
+    }
+
+    /**
+     * Checks a password against the one stored in a profile without blocking the calling thread, such as when the logged-in user confirms an action. The check runs on the PasswordHasher pool, since hashing is deliberately slow.
+     *
+     * @param profile the profile whose password is checked, as it was read at login
+     * @param password the password entered by the user
+     * @return a future completed with true if the password is correct, or exceptionally with an OurException if the check cannot be made
+     */
+    public CompletableFuture<Boolean> verifyPasswordAsync(Profile profile, String password)
+    {
+        return PasswordHasher.getDefault().verifyAsync(password, profile.getPassword());
+    }
+
+    /**
+     * Retrieves one page of user summaries from the system without blocking the calling thread. Summaries only carry the identifier, username, email, name and gender of each user; the complete user is loaded on demand with getUserAsync.
+     *
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of summaries to return
+     * @return a future completed with the summaries of the requested page, or exceptionally with an OurException if the retrieval fails
+     */
+    public CompletableFuture<ArrayList<UserSummary>> getUserSummariesPageAsync(ObjectId afterId, int limit)
+    {
+        return asyncDao.submit(() -> dao.getUserSummariesPage(afterId, limit));
+    }
+
+    /**
+     * Searches users by the beginning of their username, email or last name, optionally restricted to one gender, and retrieves one range of the matches sorted by a listed attribute, without blocking the calling thread. The search and the sort run in the database, so a table can show any part of a large result by requesting only the rows it displays.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @param sortField the attribute to sort by, one of USERNAME, EMAIL, NAME or GENDER, or null to sort by identifier
+     * @param ascending true to sort from the lowest value, false to sort from the highest
+     * @param offset the position of the first summary to return among every matching user
+     * @param limit the maximum number of summaries to return
+     * @return a future completed with the summaries of the requested range, or exceptionally with an OurException if the search fails
+     */
+    public CompletableFuture<ArrayList<UserSummary>> searchUsersSortedAsync(String query, Gender gender, ProfileField sortField, boolean ascending, int offset, int limit)
+    {
+        return asyncDao.submit(() -> dao.searchUsersSorted(query, gender, sortField, ascending, offset, limit));
+    }
+
+    /**
+     * Counts the users matching a search without blocking the calling thread.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @return a future completed with the number of matching users, or exceptionally with an OurException if the count fails
+     */
+    public CompletableFuture<Long> countUsersAsync(String query, Gender gender)
+    {
+        return asyncDao.submit(() -> dao.countUsers(query, gender));
+    }
+
+    /**
+     * Retrieves the statistics shown on the administrator dashboard without blocking the calling thread. The statistics are computed by the database and briefly cached.
+     *
+     * @param months the number of months of registrations to report, including the current one
+     * @return a future completed with the statistics of the users collection, or exceptionally with an OurException if they cannot be computed
      */
-    public Profile login(String credential, String password) throws OurException
+    public CompletableFuture<UserStatistics> getUserStatisticsAsync(int months)
     {
-        return dao.login(credential, password);
+        return asyncDao.submit(() -> dao.getUserStatistics(months));
     }
 
     /**
-     * Retrieves a list of all users from the system. This method provides access to the complete user database, typically used by administrative interfaces for user management operations.
+     * Retrieves the complete data of a single user without blocking the calling thread.
      *
-     * @return an ArrayList containing all User objects in the system
-     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     * @param id the unique identifier of the user to retrieve
+     * @return a future completed with the User object, with null if no user exists with the specified ID, or exceptionally with an OurException if the retrieval fails
      */
-    public ArrayList<User> getUsers() throws OurException
+    public CompletableFuture<User> getUserAsync(ObjectId id)
     {
-        return dao.getUsers();
+        return asyncDao.submit(() -> dao.getUser(id));
     }
 
     /**
-     * Updates an existing user's information in the system. This method persists changes made to a user's profile data, ensuring that modifications are saved to the database.
+     * Updates an existing user's information without blocking the calling thread.
      *
      * @param user the User object containing updated information to be saved
-     * @return true if the update operation was successful, false if no changes were made or the operation did not affect any records
-     * @throws OurException if the update operation fails due to validation errors, database constraints violations, or data access issues
+     * @return a future completed with true if the update was successful, false otherwise, or exceptionally with an OurException if the update fails
      */
-    public boolean updateUser(User user) throws OurException
+    public CompletableFuture<Boolean> updateUserAsync(User user)
     {
-        return dao.updateUser(user);
+        return asyncDao.updateUser(user);
     }
 
     /**
-     * Deletes a user from the system by their unique identifier. This method permanently removes a user record from the database based on the provided user ID.
+     * Deletes a user from the system by their unique identifier without blocking the calling thread.
      *
      * @param id the unique identifier of the user to be deleted
-     * @return true if the deletion was successful, false if no user was found with the specified ID or the operation did not affect any records
-     * @throws OurException if the deletion operation fails due to database constraints, referential integrity issues, or data access errors
+     * @return a future completed with true if the deletion was successful, false otherwise, or exceptionally with an OurException if the deletion fails
+     */
+    public CompletableFuture<Boolean> deleteUserAsync(ObjectId id)
+    {
+        return asyncDao.deleteUser(id);
+    }
+
+    /**
+     * Deletes many users in a single request without blocking the calling thread.
+     *
+     * @param ids the unique identifiers of the users to be deleted
+     * @return a future completed with a report of the deleted users and of every identifier that could not be deleted, or exceptionally with an OurException if the request fails
+     */
+    public CompletableFuture<BulkReport> deleteUsersAsync(Collection<ObjectId> ids)
+    {
+        return asyncDao.submit(() -> dao.deleteUsers(ids));
+    }
+
+    /**
+     * Exports every user to a file without blocking the calling thread. The file is opened, written and closed on a background worker, and the progress receiver is called from that worker as well.
+     *
+     * @param file the file to write, replaced if it already exists
+     * @param format the output format
+     * @param progress the receiver of the export progress, or null if progress is not needed
+     * @return a future completed with the number of users written, or exceptionally with an OurException if the export fails
      */
-    public boolean deleteUser(String id) throws OurException
+    public CompletableFuture<Long> exportUsersAsync(File file, ExportFormat format, ExportProgress progress)
     {
-        return dao.deleteUser(id);
+        return asyncDao.submit(() ->
+        {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file)))
+            {
+                return dao.exportUsers(out, format, progress);
+            }
+            catch (IOException ex)
+            {
+                throw new OurException(ErrorMessages.EXPORT_USERS);
+            }
+        });
+    }
+
+    /**
+     * Registers a listener that receives the changes made to the users collection by any client, as they happen. Listeners are called on the watcher thread, so window controllers must switch to the JavaFX Application Thread before touching the interface. If live changes are not available, such as when the controller was built around a custom DAO, the listener is never called.
+     *
+     * @param listener the listener to register
+     */
+    public void addUserChangeListener(UserChangeListener listener)
+    {
+        if (userChanges != null)
+        {
+            userChanges.addListener(listener);
+        }
+    }
+
+    /**
+     * Unregisters a listener previously registered with addUserChangeListener. Windows call this method when they are closed so they stop receiving changes.
+     *
+     * @param listener the listener to unregister
+     */
+    public void removeUserChangeListener(UserChangeListener listener)
+    {
+        if (userChanges != null)
+        {
+            userChanges.removeListener(listener);
+        }
     }
 }
@@ -1,15 +1,13 @@
 package controller;
 
+import exception.ErrorMessages;
 import exception.OurException;
 import exception.ShowAlert;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
@@ -26,10 +24,11 @@ import model.User;
  *
  * @author Kevin, Alex, Victor, Ekaitz
  */
-public class LoginWindowController implements Initializable
+public class LoginWindowController implements Initializable, ReusableView
 {
 
     private Controller controller;
+    private final BackgroundTasks tasks = new BackgroundTasks();
 
     @FXML
     private Pane leftPane;
@@ -45,30 +44,38 @@ public class LoginWindowController implements Initializable
     private Button signUpBttn;
 
     /**
-     * Sets the main controller for this login window controller. This method establishes the connection to the main application controller that handles business logic and data operations.
+     * Sets the main controller for this login window controller. This method establishes the connection to the main application controller that handles business logic and data operations, and starts loading the User, Admin and Sign Up windows in the background while the form is being filled, so the window that follows is shown at once.
      *
      * @param controller the main application controller that manages business logic and data operations
      */
     public void setController(Controller controller)
     {
         this.controller = controller;
+        controller.getNavigator().preload(Navigator.USER, Navigator.ADMIN, Navigator.SIGN_UP);
     }
 
     /**
-     * Handles the user login process when the login button is clicked. This method validates input fields, authenticates user credentials through the main controller, and navigates to the appropriate user interface (User Window or Admin Window) based on the authenticated profile type.
+     * Clears the credentials typed in the form, so the window is empty the next time it is shown, such as after the user logs out.
+     */
+    @Override
+    public void reset()
+    {
+        credentialTextField.clear();
+        passwordPasswordField.clear();
+    }
+
+    /**
+     * Handles the user login process when the login button is clicked. This method validates input fields, authenticates user credentials through the main controller in the background, and navigates to the appropriate user interface (User Window or Admin Window) based on the authenticated profile type.
      *
      * <p>
      * The method performs the following steps:
      * <ol>
      * <li>Validates that both credential and password fields are not empty</li>
-     * <li>Attempts authentication through the main controller</li>
+     * <li>Attempts authentication through the main controller without blocking the JavaFX Application Thread, ignoring repeated clicks while it is in progress</li>
      * <li>Redirects to User Window for regular users or Admin Window for administrators</li>
      * <li>Displays appropriate error messages for authentication failures or exceptions</li>
      * </ol>
      * </p>
-     *
-     * @throws OurException if authentication fails due to invalid credentials or system errors
-     * @throws IOException if there is an error loading the destination window FXML file
      */
     @FXML
     private void handleLogin()
@@ -82,39 +89,42 @@ public class LoginWindowController implements Initializable
             return;
         }
 
-        try
+        tasks.run("login", () -> controller.loginAsync(credential, password), (loggedIn, error) ->
         {
-            Profile loggedIn = controller.login(credential, password);
-
-            if (loggedIn != null)
+            if (error != null)
             {
-                boolean isUser = loggedIn instanceof User;
-                String fxmlPath = isUser ? "/view/UserWindow.fxml" : "/view/AdminWindow.fxml";
-                FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-                Parent window = loader.load();
-
-                if (isUser)
-                {
-                    ((UserWindowController) loader.getController()).setController(this.controller);
-                }
-                else
-                {
-                    ((AdminWindowController) loader.getController()).setController(this.controller);
-                }
-
-                Stage currentwindow = (Stage) logInBttn.getScene().getWindow();
-                currentwindow.setTitle(isUser ? "User" : "Admin");
-                currentwindow.setScene(new Scene(window));
+                ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.LOGIN).getMessage(), Alert.AlertType.ERROR);
+            }
+            else if (loggedIn != null)
+            {
+                openProfileWindow(loggedIn);
             }
             else
             {
                 ShowAlert.showAlert("Error", "Incorrect credentials.", Alert.AlertType.ERROR);
             }
+        }, logInBttn, signUpBttn);
+    }
 
-        }
-        catch (OurException ex)
+    /**
+     * Navigates to the window matching the authenticated profile type. This method shows the User Window for regular users or the Admin Window for administrators, usually already loaded while the credentials were typed, hands them the main controller and replaces the login scene. It must be called on the JavaFX Application Thread.
+     *
+     * @param loggedIn the authenticated profile returned by the login process
+     */
+    private void openProfileWindow(Profile loggedIn)
+    {
+        try
         {
-            ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+            Stage currentwindow = (Stage) logInBttn.getScene().getWindow();
+
+            if (loggedIn instanceof User)
+            {
+                controller.getNavigator().show(currentwindow, Navigator.USER, userController -> userController.setController(this.controller));
+            }
+            else
+            {
+                controller.getNavigator().show(currentwindow, Navigator.ADMIN, adminController -> adminController.setController(this.controller));
+            }
         }
         catch (IOException ex)
         {
@@ -126,7 +136,7 @@ public class LoginWindowController implements Initializable
      * Opens the Sign Up window for new user registration. This method navigates from the login screen to the user registration interface, allowing new users to create accounts in the system.
      *
      * <p>
-     * The method loads the Sign Up window FXML file, sets up the corresponding controller, and transitions the current window to display the registration form.</p>
+     * The method takes the Sign Up window from the navigator, which usually has it loaded already, sets up the corresponding controller, and transitions the current window to display the registration form.</p>
      *
      */
     @FXML
@@ -134,16 +144,8 @@ public class LoginWindowController implements Initializable
     {
         try
         {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/SignUpWindow.fxml"));
-            Parent parentWindow = loader.load();
-
-            SignUpWindowController nextController = loader.getController();
-            nextController.setController(controller);
-
             Stage actualWindow = (Stage) signUpBttn.getScene().getWindow();
-            actualWindow.setTitle("Sign Up");
-            actualWindow.setResizable(false);
-            actualWindow.setScene(new Scene(parentWindow));
+            controller.getNavigator().show(actualWindow, Navigator.SIGN_UP, nextController -> nextController.setController(controller));
         }
         catch (IOException ex)
         {
@@ -160,6 +162,6 @@ public class LoginWindowController implements Initializable
     @Override
     public void initialize(URL url, ResourceBundle rb)
     {
-        // TODO
+        tasks.attach(logInBttn);
     }
 }
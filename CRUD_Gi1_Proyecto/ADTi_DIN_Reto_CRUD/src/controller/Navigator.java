@@ -0,0 +1,263 @@
+package controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * Moves the application between its windows. Instead of every window controller parsing the FXML file of the next window when a button is pressed, windows are requested from this class, which keeps the views that are likely to be needed next already loaded.
+ *
+ * <p>
+ * A view can be loaded ahead of time with preload, which parses its FXML file and creates its controller on a background thread, so the login window can prepare the User and Admin windows while the credentials are being typed. A view whose controller implements ReusableView is also kept once a window moves on from it: it is reset and shown again, together with its scene, the next time it is requested. Any view that is not ready when requested is loaded on the spot, so navigating never waits for the background thread.</p>
+ *
+ * <p>
+ * The JavaFX Application Thread is the only one that may use this class; only the parsing of preloaded views runs elsewhere, before they are attached to any scene.</p>
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class Navigator
+{
+
+    private static final Logger LOGGER = Logger.getLogger(Navigator.class.getName());
+
+    public static final Screen<LoginWindowController> LOGIN = new Screen<>("/view/LoginWindow.fxml", "Log In", false);
+    public static final Screen<SignUpWindowController> SIGN_UP = new Screen<>("/view/SignUpWindow.fxml", "Sign Up", false);
+    public static final Screen<UserWindowController> USER = new Screen<>("/view/UserWindow.fxml", "User", false);
+    public static final Screen<AdminWindowController> ADMIN = new Screen<>("/view/AdminWindow.fxml", "Admin", false);
+    public static final Screen<VerifyUserWindowController> VERIFY_USER = new Screen<>("/view/VerifyUserWindow.fxml", "Verify User", false);
+    public static final Screen<VerifyActionWindowController> VERIFY_ACTION = new Screen<>("/view/VerifyActionWindow.fxml", "Verify your Action", false);
+    public static final Screen<VerifyCaptchaWindowController> VERIFY_CAPTCHA = new Screen<>("/view/VerifyCaptchaWindow.fxml", "Captcha", false);
+    public static final Screen<BulkDeleteWindowController> BULK_DELETE = new Screen<>("/view/BulkDeleteWindow.fxml", "Bulk Delete", true);
+
+    /**
+     * Views that are loaded, or being loaded, and not shown in any window. At most one view is kept for each screen.
+     */
+    private final Map<Screen<?>, CompletableFuture<View>> ready = new HashMap<>();
+    private final ExecutorService preloader = Executors.newSingleThreadExecutor(task ->
+    {
+        Thread thread = new Thread(task, "view-preloader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private Image icon;
+
+    /**
+     * Starts loading views in the background, so they are shown at once when they are requested later. Screens that already have a view loaded or being loaded are skipped, so windows can call this method every time they are shown.
+     *
+     * @param screens the screens that are likely to be requested next
+     */
+    public void preload(Screen<?>... screens)
+    {
+        for (Screen<?> screen : screens)
+        {
+            if (!ready.containsKey(screen))
+            {
+                ready.put(screen, CompletableFuture.supplyAsync(() ->
+                {
+                    try
+                    {
+                        return load(screen);
+                    }
+                    catch (IOException ex)
+                    {
+                        throw new UncheckedIOException(ex);
+                    }
+                }, preloader));
+            }
+        }
+    }
+
+    /**
+     * Replaces the scene of a window with the view of a screen. The controller of the view is set up before the view is shown, and the view the window was showing is kept for later if its controller implements ReusableView.
+     *
+     * @param <C> the type of the controller of the screen
+     * @param stage the window whose scene is replaced
+     * @param screen the screen to show
+     * @param setUp receives the controller of the view, usually to hand it the main controller
+     * @throws IOException if the view has to be loaded and its FXML file cannot be read
+     */
+    public <C> void show(Stage stage, Screen<C> screen, Consumer<? super C> setUp) throws IOException
+    {
+        View view = take(screen);
+        setUp.accept(screen.controllerOf(view));
+
+        Scene previous = stage.getScene();
+
+        stage.setTitle(screen.title);
+        stage.setResizable(screen.resizable);
+        stage.setScene(view.getScene());
+
+        release(previous);
+    }
+
+    /**
+     * Opens the view of a screen in a new window that blocks its owner until it is closed. Views shown by later calls to show on the new window, such as the following steps of a verification, are kept as well once the window is closed.
+     *
+     * @param <C> the type of the controller of the screen
+     * @param owner the window that cannot be used while the new one is open
+     * @param screen the screen to show
+     * @param setUp receives the controller of the view, usually to hand it the main controller
+     * @throws IOException if the view has to be loaded and its FXML file cannot be read
+     */
+    public <C> void showModal(Window owner, Screen<C> screen, Consumer<? super C> setUp) throws IOException
+    {
+        View view = take(screen);
+        setUp.accept(screen.controllerOf(view));
+
+        Stage stage = new Stage();
+        stage.setTitle(screen.title);
+        stage.setResizable(screen.resizable);
+        stage.getIcons().add(getIcon());
+        stage.initModality(Modality.WINDOW_MODAL);
+        stage.initOwner(owner);
+        stage.setScene(view.getScene());
+        stage.setOnHidden(e ->
+        {
+            // A scene can only belong to one window, so it is taken off the closed one before being kept
+            Scene last = stage.getScene();
+            stage.setScene(null);
+            release(last);
+        });
+        stage.show();
+    }
+
+    /**
+     * Returns the application icon shown by every window.
+     *
+     * @return the application icon
+     */
+    public Image getIcon()
+    {
+        if (icon == null)
+        {
+            icon = new Image(getClass().getResourceAsStream("/images/logo.png"));
+        }
+
+        return icon;
+    }
+
+    private View take(Screen<?> screen) throws IOException
+    {
+        CompletableFuture<View> preloaded = ready.get(screen);
+
+        // A view still being parsed is left to finish for the next request instead of being waited for
+        if (preloaded != null && preloaded.isDone())
+        {
+            ready.remove(screen);
+
+            try
+            {
+                return preloaded.join();
+            }
+            catch (RuntimeException ex)
+            {
+                LOGGER.log(Level.WARNING, "Could not preload " + screen.fxml + ", loading it again", ex);
+            }
+        }
+
+        return load(screen);
+    }
+
+    private void release(Scene scene)
+    {
+        if (scene == null)
+        {
+            return;
+        }
+
+        Object stored = scene.getRoot().getProperties().get(View.class);
+
+        if (stored instanceof View)
+        {
+            View view = (View) stored;
+
+            if (view.controller instanceof ReusableView && !ready.containsKey(view.screen))
+            {
+                ((ReusableView) view.controller).reset();
+                ready.put(view.screen, CompletableFuture.completedFuture(view));
+            }
+        }
+    }
+
+    private static View load(Screen<?> screen) throws IOException
+    {
+        FXMLLoader loader = new FXMLLoader(Navigator.class.getResource(screen.fxml));
+        Parent root = loader.load();
+        View view = new View(screen, root, loader.getController());
+
+        root.getProperties().put(View.class, view);
+        return view;
+    }
+
+    /**
+     * A window of the application: the FXML file of its view, the type of its controller and how the window is presented.
+     *
+     * @param <C> the type of the controller declared in the FXML file
+     */
+    public static final class Screen<C>
+    {
+
+        private final String fxml;
+        private final String title;
+        private final boolean resizable;
+
+        private Screen(String fxml, String title, boolean resizable)
+        {
+            this.fxml = fxml;
+            this.title = title;
+            this.resizable = resizable;
+        }
+
+        @SuppressWarnings("unchecked")
+        private C controllerOf(View view)
+        {
+            return (C) view.controller;
+        }
+    }
+
+    /**
+     * A loaded view with its controller, and the scene that shows it once it has been shown for the first time.
+     */
+    private static class View
+    {
+
+        private final Screen<?> screen;
+        private final Parent root;
+        private final Object controller;
+        private Scene scene;
+
+        View(Screen<?> screen, Parent root, Object controller)
+        {
+            this.screen = screen;
+            this.root = root;
+            this.controller = controller;
+        }
+
+        Scene getScene()
+        {
+            // Scenes are only created on the JavaFX Application Thread, so preloaded views get theirs when first shown
+            if (scene == null)
+            {
+                scene = new Scene(root);
+            }
+
+            return scene;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package controller;
+
+/**
+ * Window controller whose view can be shown again after the window has moved on to another one. When the Navigator takes such a view off a window it calls reset and keeps the view, so the next time it is needed it is shown at once instead of being parsed again from its FXML file.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public interface ReusableView
+{
+
+    /**
+     * Returns the view to the state it had right after being loaded. This method is called on the JavaFX Application Thread once the view is no longer shown, and must clear every field, message and reference left by the previous use, since the same view will be handed to a new setController call.
+     */
+    void reset();
+}
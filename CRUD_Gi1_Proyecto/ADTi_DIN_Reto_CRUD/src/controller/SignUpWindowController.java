@@ -1,15 +1,14 @@
 package controller;
 
+import exception.ErrorMessages;
 import exception.OurException;
 import exception.ShowAlert;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -19,7 +18,6 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import model.Gender;
-import model.Profile;
 import model.User;
 
 /**
@@ -27,10 +25,11 @@ import model.User;
  *
  * The controller implements JavaFX Initializable interface to properly initialize the UI components and set up input validation handlers.
  */
-public class SignUpWindowController implements Initializable
+public class SignUpWindowController implements Initializable, ReusableView
 {
 
     private Controller controller;
+    private final BackgroundTasks tasks = new BackgroundTasks();
 
     @FXML
     private Pane leftPane;
@@ -95,7 +94,29 @@ public class SignUpWindowController implements Initializable
     }
 
     /**
-     * Handles the user registration process when the sign up button is clicked. This method validates all input fields, collects user data, creates a new User object, and attempts to register the user through the main controller. Upon successful registration, the user is automatically logged in and redirected to the user window.
+     * Empties the registration form and removes any error styling, so the next person signing up does not see the data entered by the previous one.
+     */
+    @Override
+    public void reset()
+    {
+        usernameTextField.clear();
+        emailTextField.clear();
+        passwordPasswordField.clear();
+        nameTextField.clear();
+        lastnameTextField.clear();
+        telephoneTextField.clear();
+        maleRadioButton.setSelected(false);
+        femaleRadioButton.setSelected(false);
+        otherRadioButton.setSelected(false);
+        cardNumber1TextField.clear();
+        cardNumber2TextField.clear();
+        cardNumber3TextField.clear();
+        cardNumber4TextField.clear();
+        resetFieldStyles();
+    }
+
+    /**
+     * Handles the user registration process when the sign up button is clicked. This method validates all input fields, collects user data, creates a new User object, and attempts to register the user through the main controller in the background. Upon successful registration, the user is automatically logged in and redirected to the user window.
      *
      * The method performs comprehensive validation including field completeness checks, email format validation, telephone number format validation, password strength requirements, and credit card number validation.
      *
@@ -136,46 +157,38 @@ public class SignUpWindowController implements Initializable
                 + cardNumber3TextField.getText()
                 + cardNumber4TextField.getText();
 
-        try
-        {
-            User user = new User(email, username, password, name, lastname, telephone, gender, cardNumber);
-
-            User registeredUser = controller.register(user);
-
-            if (registeredUser != null)
-            {
-                Profile loggedIn = controller.login(username, password);
+        User user = new User(email, username, password, name, lastname, telephone, gender, cardNumber);
 
-                if (loggedIn != null)
+        tasks.run("signUp", () -> controller.registerAsync(user)
+                .thenCompose(registeredUser -> registeredUser != null ? controller.loginAsync(username, password) : CompletableFuture.completedFuture(null)),
+                (loggedIn, error) ->
                 {
-                    String fxmlPath = "/view/UserWindow.fxml";
-                    FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-                    Parent window = loader.load();
-
-                    UserWindowController userController = loader.getController();
-                    userController.setController(this.controller);
-
-                    Stage currentWindow = (Stage) signUpBttn.getScene().getWindow();
-                    currentWindow.setTitle("User");
-                    currentWindow.setScene(new Scene(window));
-
-                    ShowAlert.showAlert("Success", "Account created successfully!", Alert.AlertType.INFORMATION);
-                    resetFieldStyles();
-                }
-                else
-                {
-                    ShowAlert.showAlert("Error", "Account created but login failed.", Alert.AlertType.ERROR);
-                }
-            }
-            else
-            {
-                ShowAlert.showAlert("Error", "User registration failed. Please try again.", Alert.AlertType.ERROR);
-            }
+                    if (error != null)
+                    {
+                        ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.REGISTER_USER).getMessage(), Alert.AlertType.ERROR);
+                    }
+                    else if (loggedIn != null)
+                    {
+                        openUserWindow();
+                    }
+                    else
+                    {
+                        ShowAlert.showAlert("Error", "Account created but login failed.", Alert.AlertType.ERROR);
+                    }
+                }, signUpBttn, logInBttn);
+    }
 
-        }
-        catch (OurException ex)
+    /**
+     * Navigates to the User Window after a successful registration and automatic login. This method takes the user interface from the navigator, hands it the main controller and replaces the registration scene. It must be called on the JavaFX Application Thread.
+     */
+    private void openUserWindow()
+    {
+        try
         {
-            ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+            Stage currentWindow = (Stage) signUpBttn.getScene().getWindow();
+            controller.getNavigator().show(currentWindow, Navigator.USER, userController -> userController.setController(this.controller));
+
+            ShowAlert.showAlert("Success", "Account created successfully!", Alert.AlertType.INFORMATION);
         }
         catch (IOException ex)
         {
@@ -184,7 +197,7 @@ public class SignUpWindowController implements Initializable
     }
 
     /**
-     * Navigates back to the login window. This method loads the login interface and transitions the current window to display the login screen, typically used when the user chooses to return to login.
+     * Navigates back to the login window. This method takes the login interface from the navigator and transitions the current window to display the login screen, typically used when the user chooses to return to login.
      *
      */
     @FXML
@@ -192,15 +205,8 @@ public class SignUpWindowController implements Initializable
     {
         try
         {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/LoginWindow.fxml"));
-            Parent parentWindow = loader.load();
-            LoginWindowController nextController = loader.getController();
-            nextController.setController(controller);
-
             Stage actualWindow = (Stage) logInBttn.getScene().getWindow();
-            actualWindow.setTitle("Logi In");
-            actualWindow.setResizable(false);
-            actualWindow.setScene(new Scene(parentWindow));
+            controller.getNavigator().show(actualWindow, Navigator.LOGIN, nextController -> nextController.setController(controller));
         }
         catch (IOException ex)
         {
@@ -399,5 +405,6 @@ public class SignUpWindowController implements Initializable
     {
         configureCardNumber();
         configureTelephone();
+        tasks.attach(signUpBttn);
     }
 }
@@ -0,0 +1,554 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.collections.ObservableListBase;
+import javafx.util.Duration;
+import model.Gender;
+import model.ProfileField;
+import model.User;
+import model.UserSummary;
+import org.bson.types.ObjectId;
+
+/**
+ * Read-only list of user summaries that backs a TableView without holding the users it lists. The list reports the number of users matching the current search and sort, counted by the database, but only keeps a few pages of rows in memory: a row that is not loaded is returned as null and its page is requested in the background, so the table shows an empty row for a moment and the real one once it arrives.
+ *
+ * <p>
+ * A TableView only reads the rows it displays, so the pages requested are always the ones around the viewport, and the memory used does not depend on how many users there are. Requests are gathered for a short delay and only the pages asked for last are loaded, together with the pages next to them, so dragging the scroll bar across the whole list does not queue a request for every page passed on the way; pages still loading that have gone off screen are cancelled. The least recently shown pages are dropped once MAX_PAGES are held.</p>
+ *
+ * <p>
+ * Arriving rows are not announced as list changes, since a replaced row would make the table reset its selection; the owner is called instead so it can refresh the visible cells. Only changes of the number of rows are announced.</p>
+ *
+ * <p>
+ * Users added, modified or deleted by other administrators are applied to the loaded pages directly whenever the new position of the row can be worked out from the rows already loaded, so a change costs no query at all, or at most the reload of the pages that moved. Only when the position cannot be known, such as when a user that is not loaded is modified while the list is sorted by a field it may have changed, is the whole list counted and loaded again. Like the BackgroundTasks it runs its requests through, this class must only be used from the JavaFX Application Thread.</p>
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class UserTableSource extends ObservableListBase<UserSummary>
+{
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 12;
+    private static final int MAX_REQUESTED_PAGES = 2;
+    private static final long REQUEST_DELAY_MILLIS = 40;
+
+    private static final String COUNT = "userCount";
+    private static final String PAGE = "userPage";
+
+    private final Controller controller;
+    private final BackgroundTasks tasks;
+    private final Runnable onLoaded;
+    private final Consumer<Throwable> onError;
+
+    private String query = "";
+    private Gender gender;
+    private ProfileField sortField;
+    private boolean ascending = true;
+
+    private int size;
+    private boolean recount;
+    private boolean failed;
+
+    private final LinkedHashMap<Integer, List<UserSummary>> pages = new LinkedHashMap<Integer, List<UserSummary>>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<UserSummary>> eldest)
+        {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    /**
+     * Pages read before the last reload. They are shown while their new version is loading, so rows do not go blank every time another administrator changes a user.
+     */
+    private final Map<Integer, List<UserSummary>> stalePages = new LinkedHashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private final LinkedHashSet<Integer> wanted = new LinkedHashSet<>();
+    private final PauseTransition requestDelay = new PauseTransition(Duration.millis(REQUEST_DELAY_MILLIS));
+
+    /**
+     * Constructs a new, empty UserTableSource. Nothing is loaded until reset is called.
+     *
+     * @param controller the main application controller used to count and read the users
+     * @param tasks the background tasks of the window that shows the table, so requests are cancelled when the window closes
+     * @param onLoaded called whenever rows or the number of rows have been loaded, usually to refresh the table
+     * @param onError called with the error when a request fails; no more pages are requested until the next reset or reload
+     */
+    public UserTableSource(Controller controller, BackgroundTasks tasks, Runnable onLoaded, Consumer<Throwable> onError)
+    {
+        this.controller = controller;
+        this.tasks = tasks;
+        this.onLoaded = onLoaded;
+        this.onError = onError;
+
+        requestDelay.setOnFinished(e -> requestWantedPages());
+    }
+
+    /**
+     * Returns the summary at a position of the current search and sort.
+     *
+     * @param index the position of the row
+     * @return the summary of the row, or null if its page is not loaded yet; the page is then requested
+     */
+    @Override
+    public UserSummary get(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        int page = index / PAGE_SIZE;
+        List<UserSummary> rows = pages.get(page);
+
+        if (rows == null)
+        {
+            want(page);
+            rows = stalePages.get(page);
+        }
+
+        // A page read after users were deleted can be shorter than the count said
+        return rows != null && index % PAGE_SIZE < rows.size() ? rows.get(index % PAGE_SIZE) : null;
+    }
+
+    /**
+     * Returns the number of users matching the current search, as last counted.
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Starts listing another search or order. Every row is dropped at once and the users are counted again; the rows are loaded as the table asks for them.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @param sortField the attribute to sort by, one of USERNAME, EMAIL, NAME or GENDER, or null to sort by identifier
+     * @param ascending true to sort from the lowest value, false to sort from the highest
+     */
+    public void reset(String query, Gender gender, ProfileField sortField, boolean ascending)
+    {
+        this.query = query;
+        this.gender = gender;
+        this.sortField = sortField;
+        this.ascending = ascending;
+
+        cancelRequests();
+        pages.clear();
+        stalePages.clear();
+        resize(0);
+        count();
+    }
+
+    /**
+     * Loads the current search again after the users changed, such as when another administrator adds, edits or deletes one. The rows already loaded stay visible until their new version arrives, and the number of rows only changes at the end of the list, so the table keeps its scroll position and selection. Reloads requested while the users are being counted are gathered into a single one.
+     */
+    public void reload()
+    {
+        if (tasks.isRunning(COUNT))
+        {
+            recount = true;
+            return;
+        }
+
+        cancelRequests();
+        stalePages.clear();
+        stalePages.putAll(pages);
+        pages.clear();
+        count();
+    }
+
+    /**
+     * Returns the position of a user among the loaded rows.
+     *
+     * @param id the identifier of the user to look for
+     * @return the position of the user, or -1 if it is not in any loaded page
+     */
+    public int indexOfUser(ObjectId id)
+    {
+        for (Map.Entry<Integer, List<UserSummary>> page : pages.entrySet())
+        {
+            List<UserSummary> rows = page.getValue();
+
+            for (int i = 0; i < rows.size(); i++)
+            {
+                if (rows.get(i).getId().equals(id))
+                {
+                    return page.getKey() * PAGE_SIZE + i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Applies a user registered elsewhere. A user that does not match the current search is ignored. One that sorts after every loaded row only makes the list one row longer, and is appended to the last page if that page is loaded; otherwise the rows it lands among are not known and the list is reloaded.
+     *
+     * @param user the inserted user
+     */
+    public void userInserted(User user)
+    {
+        if (!matches(user))
+        {
+            return;
+        }
+
+        UserSummary summary = new UserSummary(user);
+
+        if (tasks.isRunning(COUNT) || !sortsAfterLoadedRows(summary))
+        {
+            reload();
+            return;
+        }
+
+        cancelPageLoads();
+
+        List<UserSummary> last = pages.get(size / PAGE_SIZE);
+        UserSummary previous = size > 0 ? loadedRow(size - 1) : null;
+
+        // Appended only when it is known to follow the last row of the whole list
+        if (last != null && last.size() == size % PAGE_SIZE && (size == 0 || (previous != null && order().compare(summary, previous) > 0)))
+        {
+            last.add(summary);
+        }
+
+        beginChange();
+        nextAdd(size, size + 1);
+        size++;
+        endChange();
+
+        onLoaded.run();
+    }
+
+    /**
+     * Applies a change made elsewhere to a user. If the user is loaded, still matches the search and still sorts between the rows next to it, its row is replaced in place. A user that is not loaded is ignored when the list has no search and is in identifier order, since the change cannot move it; in any other case the list is reloaded.
+     *
+     * @param user the user as it is after the change
+     */
+    public void userUpdated(User user)
+    {
+        int index = indexOfUser(user.getId());
+
+        if (index < 0)
+        {
+            // Any other field of the user may have changed, so only identifier order without a search is certain not to move
+            if (!query.isEmpty() || gender != null || sortField != null)
+            {
+                reload();
+            }
+
+            return;
+        }
+
+        UserSummary summary = new UserSummary(user);
+        UserSummary previous = index > 0 ? loadedRow(index - 1) : null;
+        UserSummary next = index < size - 1 ? loadedRow(index + 1) : null;
+
+        boolean inPlace = matches(user)
+                && (index == 0 || (previous != null && order().compare(previous, summary) < 0))
+                && (index == size - 1 || (next != null && order().compare(summary, next) < 0));
+
+        if (tasks.isRunning(COUNT) || !inPlace)
+        {
+            reload();
+            return;
+        }
+
+        pages.get(index / PAGE_SIZE).set(index % PAGE_SIZE, summary);
+        onLoaded.run();
+    }
+
+    /**
+     * Applies the deletion of a user made elsewhere. A loaded row is removed and every following row moves up by one, taking the first row of the next page when that page is loaded; pages that cannot be completed that way are loaded again when shown, keeping their old rows meanwhile. A deleted user that is not loaded may or may not have been listed, so the list is reloaded.
+     *
+     * @param id the identifier of the deleted profile
+     */
+    public void userDeleted(ObjectId id)
+    {
+        int index = indexOfUser(id);
+
+        if (index < 0 || tasks.isRunning(COUNT))
+        {
+            reload();
+            return;
+        }
+
+        cancelPageLoads();
+
+        int page = index / PAGE_SIZE;
+        UserSummary removed = pages.get(page).remove(index % PAGE_SIZE);
+
+        // Consecutive loaded pages pass their first row back to the page before them
+        while (pages.containsKey(page + 1) && !pages.get(page + 1).isEmpty())
+        {
+            pages.get(page).add(pages.get(page + 1).remove(0));
+            page++;
+        }
+
+        beginChange();
+        nextRemove(index, removed);
+        size--;
+        endChange();
+
+        if (pages.get(page).size() < Math.min(PAGE_SIZE, size - page * PAGE_SIZE))
+        {
+            stalePages.put(page, pages.remove(page));
+        }
+
+        for (Integer later : new ArrayList<>(pages.keySet()))
+        {
+            if (later > page)
+            {
+                stalePages.put(later, pages.remove(later));
+            }
+        }
+
+        onLoaded.run();
+    }
+
+    private boolean matches(User user)
+    {
+        if (gender != null && user.getGender() != gender)
+        {
+            return false;
+        }
+
+        // Same anchored, case-sensitive prefix as the search of the DAO
+        return query.isEmpty() || startsWith(user.getUsername()) || startsWith(user.getEmail()) || startsWith(user.getLastname());
+    }
+
+    private boolean startsWith(String value)
+    {
+        return value != null && value.startsWith(query);
+    }
+
+    private boolean sortsAfterLoadedRows(UserSummary summary)
+    {
+        Comparator<UserSummary> order = order();
+
+        for (List<UserSummary> rows : pages.values())
+        {
+            if (!rows.isEmpty() && order.compare(summary, rows.get(rows.size() - 1)) <= 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the order of the rows, the same the DAO sorts them in: missing values first, then the identifier as a tiebreaker, everything reversed for a descending sort.
+     */
+    private Comparator<UserSummary> order()
+    {
+        Comparator<UserSummary> order = Comparator.comparing(this::sortKey, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        order = order.thenComparing(UserSummary::getId);
+
+        return ascending ? order : order.reversed();
+    }
+
+    private String sortKey(UserSummary summary)
+    {
+        if (sortField == null)
+        {
+            return "";
+        }
+
+        switch (sortField)
+        {
+            case USERNAME:
+                return summary.getUsername();
+            case EMAIL:
+                return summary.getEmail();
+            case NAME:
+                return summary.getName();
+            default:
+                return summary.getGender() != null ? summary.getGender().name() : null;
+        }
+    }
+
+    private UserSummary loadedRow(int index)
+    {
+        List<UserSummary> rows = pages.get(index / PAGE_SIZE);
+
+        return rows != null && index % PAGE_SIZE < rows.size() ? rows.get(index % PAGE_SIZE) : null;
+    }
+
+    private void count()
+    {
+        failed = false;
+        recount = false;
+
+        tasks.run(COUNT, () -> controller.countUsersAsync(query, gender), (total, error) ->
+        {
+            if (error != null)
+            {
+                fail(error);
+                return;
+            }
+
+            if (recount)
+            {
+                reload();
+                return;
+            }
+
+            resize((int) Math.min(total, Integer.MAX_VALUE));
+            onLoaded.run();
+        });
+    }
+
+    private void want(int page)
+    {
+        if (failed || loading.contains(page))
+        {
+            return;
+        }
+
+        // Most recently asked for last
+        wanted.remove(page);
+        wanted.add(page);
+
+        if (requestDelay.getStatus() != Animation.Status.RUNNING)
+        {
+            requestDelay.play();
+        }
+    }
+
+    private void requestWantedPages()
+    {
+        List<Integer> asked = new ArrayList<>(wanted);
+        wanted.clear();
+
+        Set<Integer> needed = new LinkedHashSet<>();
+        int lastPage = (size - 1) / PAGE_SIZE;
+
+        // The pages asked for last are the ones on screen now; the rest were scrolled past while the delay ran
+        for (int page : asked.subList(Math.max(0, asked.size() - MAX_REQUESTED_PAGES), asked.size()))
+        {
+            needed.add(page);
+
+            if (page > 0)
+            {
+                needed.add(page - 1);
+            }
+
+            if (page < lastPage)
+            {
+                needed.add(page + 1);
+            }
+        }
+
+        for (Integer page : new ArrayList<>(loading))
+        {
+            if (!needed.contains(page))
+            {
+                tasks.cancel(PAGE + page);
+                loading.remove(page);
+            }
+        }
+
+        for (int page : needed)
+        {
+            if (!pages.containsKey(page) && !loading.contains(page))
+            {
+                load(page);
+            }
+        }
+    }
+
+    private void load(int page)
+    {
+        String query = this.query;
+        Gender gender = this.gender;
+        ProfileField sortField = this.sortField;
+        boolean ascending = this.ascending;
+
+        loading.add(page);
+
+        tasks.run(PAGE + page, () -> controller.searchUsersSortedAsync(query, gender, sortField, ascending, page * PAGE_SIZE, PAGE_SIZE), (rows, error) ->
+        {
+            loading.remove(page);
+
+            if (error != null)
+            {
+                fail(error);
+                return;
+            }
+
+            stalePages.remove(page);
+            pages.put(page, rows);
+            onLoaded.run();
+        });
+    }
+
+    private void fail(Throwable error)
+    {
+        if (!failed)
+        {
+            failed = true;
+            cancelRequests();
+            onError.accept(error);
+        }
+    }
+
+    private void cancelRequests()
+    {
+        cancelPageLoads();
+        tasks.cancel(COUNT);
+    }
+
+    /**
+     * Cancels the pages being loaded, whose rows may be read before or after a change applied to the loaded pages. They are requested again as soon as the table shows them.
+     */
+    private void cancelPageLoads()
+    {
+        requestDelay.stop();
+        wanted.clear();
+
+        for (Integer page : loading)
+        {
+            tasks.cancel(PAGE + page);
+        }
+
+        loading.clear();
+    }
+
+    private void resize(int newSize)
+    {
+        if (newSize == size)
+        {
+            return;
+        }
+
+        beginChange();
+
+        if (newSize > size)
+        {
+            nextAdd(size, newSize);
+        }
+        else
+        {
+            nextRemove(newSize, Collections.nCopies(size - newSize, (UserSummary) null));
+        }
+
+        size = newSize;
+        endChange();
+    }
+}
@@ -1,24 +1,21 @@
 package controller;
 
+import exception.ErrorMessages;
 import exception.OurException;
 import exception.ShowAlert;
+import exception.VersionConflictException;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
 import model.Gender;
 import model.LoggedProfile;
@@ -34,8 +31,11 @@ import model.User;
 public class UserWindowController implements Initializable
 {
 
+    private static final String SAVE = "save";
+
     private Controller controller;
     private User user;
+    private final BackgroundTasks tasks = new BackgroundTasks();
 
     @FXML
     private Pane leftPane;
@@ -94,7 +94,7 @@ public class UserWindowController implements Initializable
     private final String NORMAL_STYLE = "-fx-border-color: null;";
 
     /**
-     * Sets the main controller and initializes the user interface with current user data. This method configures the controller reference, retrieves the currently logged-in user profile from the LoggedProfile singleton, displays the username, and populates all form fields with the user's current information.
+     * Sets the main controller and initializes the user interface with current user data. This method configures the controller reference, retrieves the currently logged-in user profile from the LoggedProfile singleton, displays the username, and populates all form fields with the user's current information. The verification window used to delete the account is loaded in the background meanwhile.
      *
      * @param controller the main application controller that manages business logic and data operations
      */
@@ -104,17 +104,18 @@ public class UserWindowController implements Initializable
         user = (User) LoggedProfile.getInstance().getProfile();
         username.setText(user.getUsername());
         setData();
+        controller.getNavigator().preload(Navigator.VERIFY_USER);
     }
 
     /**
-     * Populates the form fields with the current user's data. This method loads all user information from the User object into the corresponding form fields, including personal details, contact information, and payment card data. It also sets the appropriate gender radio button based on the user's stored gender preference.
+     * Populates the form fields with the current user's data. This method loads all user information from the User object into the corresponding form fields, including personal details, contact information, and payment card data. The password field is left empty, since only a hash of the password is stored. It also sets the appropriate gender radio button based on the user's stored gender preference.
      */
     public void setData()
     {
         username.setText(user.getUsername());
         usernameTextField.setText(user.getUsername());
         emailTextField.setText(user.getEmail());
-        passwordPasswordField.setText(user.getPassword());
+        passwordPasswordField.clear();
         nameTextField.setText(user.getName());
         lastnameTextField.setText(user.getLastname());
         telephoneTextField.setText(String.valueOf(user.getTelephone()));
@@ -142,12 +143,18 @@ public class UserWindowController implements Initializable
     }
 
     /**
-     * Saves the changes made to the user's profile information. This method validates all input fields, updates the user object with the modified data, and persists the changes to the system. Upon successful update, the logged-in profile is refreshed and a success message is displayed.
+     * Saves the changes made to the user's profile information. This method validates all input fields, applies the modified data to a copy of the logged-in user, and persists only the modified fields to the system in the background; if nothing was modified, no request is sent. The logged-in profile is only replaced by the copy once the update succeeds, so a failed or rejected save leaves it as it was stored, and a success message is displayed. If the profile was modified elsewhere since it was loaded, such as by an administrator, the current version is loaded into the form so the user can apply the changes again.
      *
      */
     @FXML
     public void saveChanges()
     {
+        // A save is still running; a second one would be rejected for using the same version
+        if (tasks.isRunning(SAVE))
+        {
+            return;
+        }
+
         if (!validateFields())
         {
             ShowAlert.showAlert("Validation Error",
@@ -181,21 +188,40 @@ public class UserWindowController implements Initializable
                 + cardNumber3TextField.getText()
                 + cardNumber4TextField.getText();
 
-        user.setUsername(username);
-        user.setEmail(email);
-        user.setName(name);
-        user.setLastname(lastname);
-        user.setTelephone(telephone);
-        user.setPassword(password);
-        user.setGender(gender);
-        user.setCard(card);
+        User edited = new User(user);
+        edited.setUsername(username);
+        edited.setEmail(email);
+        edited.setName(name);
+        edited.setLastname(lastname);
+        edited.setTelephone(telephone);
+        if (!password.isEmpty())
+        {
+            edited.setPassword(password);
+        }
+        edited.setGender(gender);
+        edited.setCard(card);
 
-        try
+        if (!edited.hasChanges())
         {
-            boolean success = controller.updateUser(user);
+            ShowAlert.showAlert("Information", "There are no changes to save.", Alert.AlertType.INFORMATION);
+            return;
+        }
+
+        tasks.run(SAVE, () -> controller.updateUserAsync(edited), (success, error) ->
+        {
+            OurException failure = error != null ? OurException.unwrap(error, ErrorMessages.UPDATE_USER) : null;
 
-            if (success)
+            if (failure instanceof VersionConflictException)
+            {
+                reloadProfile();
+            }
+            else if (failure != null)
+            {
+                ShowAlert.showAlert("Error", failure.getMessage(), Alert.AlertType.ERROR);
+            }
+            else if (success)
             {
+                user = edited;
                 LoggedProfile.getInstance().setProfile(user);
 
                 ShowAlert.showAlert("Success", "User updated successfully.", Alert.AlertType.INFORMATION);
@@ -206,11 +232,27 @@ public class UserWindowController implements Initializable
             {
                 ShowAlert.showAlert("Error", "Could not update user.", Alert.AlertType.ERROR);
             }
-        }
-        catch (OurException ex)
+        }, saveChangesBttn, deleteUserBttn, logOutBttn);
+    }
+
+    /**
+     * Loads the current version of the logged-in user after a save was rejected because the profile had been modified elsewhere. The form is filled with the current data and the user is told to apply the changes again.
+     */
+    private void reloadProfile()
+    {
+        tasks.run("reload", () -> controller.getUserAsync(user.getId()), (latest, error) ->
         {
-            ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+            if (error != null || latest == null)
+            {
+                ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.UPDATE_USER).getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+
+            user = latest;
+            LoggedProfile.getInstance().setProfile(user);
+            setData();
+            ShowAlert.showAlert("Warning", ErrorMessages.VERSION_CONFLICT + " The current data has been loaded; please apply your changes again.", Alert.AlertType.WARNING);
+        }, saveChangesBttn);
     }
 
     /**
@@ -221,25 +263,15 @@ public class UserWindowController implements Initializable
     {
         try
         {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/VerifyUserWindow.fxml"));
-            Parent root = loader.load();
-
-            VerifyUserWindowController verifyController = loader.getController();
-            verifyController.setController(this.controller, null);
-
-            verifyController.setOnUserDeletedCallback(() ->
+            controller.getNavigator().showModal(deleteUserBttn.getScene().getWindow(), Navigator.VERIFY_USER, verifyController ->
             {
-                logOut();
-            });
+                verifyController.setController(this.controller, null);
 
-            Stage stage = new Stage();
-            stage.setScene(new Scene(root));
-            stage.setTitle("Verify User");
-            stage.setResizable(false);
-            stage.getIcons().add(new Image(getClass().getResourceAsStream("/images/logo.png")));
-            stage.initModality(Modality.WINDOW_MODAL);
-            stage.initOwner(deleteUserBttn.getScene().getWindow());
-            stage.show();
+                verifyController.setOnUserDeletedCallback(() ->
+                {
+                    logOut();
+                });
+            });
         }
         catch (IOException ex)
         {
@@ -258,12 +290,8 @@ public class UserWindowController implements Initializable
 
         try
         {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/LoginWindow.fxml"));
-            Parent window = loader.load();
-            LoginWindowController loginController = loader.getController();
-            loginController.setController(this.controller);
             Stage currentwindow = (Stage) logOutBttn.getScene().getWindow();
-            currentwindow.setScene(new Scene(window));
+            controller.getNavigator().show(currentwindow, Navigator.LOGIN, loginController -> loginController.setController(this.controller));
         }
         catch (IOException ex)
         {
@@ -300,7 +328,8 @@ public class UserWindowController implements Initializable
             isValid = false;
         }
 
-        if (passwordPasswordField.getText().trim().isEmpty() || !isValidPassword(passwordPasswordField.getText().trim()))
+        // An empty password keeps the current one, which is only stored as a hash
+        if (!passwordPasswordField.getText().trim().isEmpty() && !isValidPassword(passwordPasswordField.getText().trim()))
         {
             passwordPasswordField.setStyle(ERROR_STYLE);
             isValid = false;
@@ -440,5 +469,6 @@ public class UserWindowController implements Initializable
     {
         configureCardNumber();
         configureTelephone();
+        tasks.attach(saveChangesBttn);
     }
 }
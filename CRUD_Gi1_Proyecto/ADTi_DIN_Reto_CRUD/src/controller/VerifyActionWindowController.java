@@ -5,10 +5,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -16,6 +13,7 @@ import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import model.LoggedProfile;
 import model.Profile;
+import org.bson.types.ObjectId;
 
 /**
  * Controller class for the Verification Action Window interface. This class handles the initial step of user verification process for sensitive operations, particularly user account deletion. It serves as an intermediate confirmation screen before proceeding to more rigorous security verification.
@@ -24,12 +22,12 @@ import model.Profile;
  *
  * @author Kevin, Alex, Victor, Ekaitz
  */
-public class VerifyActionWindowController implements Initializable
+public class VerifyActionWindowController implements Initializable, ReusableView
 {
 
     private Controller controller;
     private Profile profile;
-    private String userDelete;
+    private ObjectId userDelete;
     private Runnable onUserDeletedCallback;
 
     @FXML
@@ -46,18 +44,30 @@ public class VerifyActionWindowController implements Initializable
     private Label textLabel;
 
     /**
-     * Initializes the controller with necessary dependencies and user data. This method sets up the main controller reference, identifies the user to be deleted, and displays the current user's username in the interface. It functions similarly to a constructor for the controller setup.
+     * Initializes the controller with necessary dependencies and user data. This method sets up the main controller reference, identifies the user to be deleted, and displays the current user's username in the interface, while the CAPTCHA window is loaded in the background. It functions similarly to a constructor for the controller setup.
      *
      * @param controller the main application controller that manages business logic and data operations
-     * @param userDelete the unique identifier of the user to be deleted, or -1 if deleting the currently logged-in user
+     * @param userDelete the unique identifier of the user to be deleted, or null if deleting the currently logged-in user
      */
-    public void setController(Controller controller, String userDelete)
+    public void setController(Controller controller, ObjectId userDelete)
     {
         this.controller = controller;
         this.userDelete = userDelete;
 
         profile = LoggedProfile.getInstance().getProfile();
         username.setText(profile.getUsername());
+        controller.getNavigator().preload(Navigator.VERIFY_CAPTCHA);
+    }
+
+    /**
+     * Forgets the user to delete and the callback, so the window can confirm another action.
+     */
+    @Override
+    public void reset()
+    {
+        profile = null;
+        userDelete = null;
+        onUserDeletedCallback = null;
     }
 
     /**
@@ -78,21 +88,17 @@ public class VerifyActionWindowController implements Initializable
     {
         try
         {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/VerifyCaptchaWindow.fxml"));
-            Parent parentWindow = loader.load();
-
-            VerifyCaptchaWindowController nextController = loader.getController();
-            nextController.setController(controller, userDelete);
+            Stage actualWindow = (Stage) confirmBttn.getScene().getWindow();
 
-            if (onUserDeletedCallback != null)
+            controller.getNavigator().show(actualWindow, Navigator.VERIFY_CAPTCHA, nextController ->
             {
-                nextController.setOnUserDeletedCallback(onUserDeletedCallback);
-            }
+                nextController.setController(controller, userDelete);
 
-            Stage actualWindow = (Stage) confirmBttn.getScene().getWindow();
-            actualWindow.setTitle("Capcha");
-            actualWindow.setResizable(false);
-            actualWindow.setScene(new Scene(parentWindow));
+                if (onUserDeletedCallback != null)
+                {
+                    nextController.setOnUserDeletedCallback(onUserDeletedCallback);
+                }
+            });
         }
         catch (IOException ex)
         {
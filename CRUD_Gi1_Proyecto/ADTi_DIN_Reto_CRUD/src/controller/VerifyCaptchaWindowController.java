@@ -1,5 +1,6 @@
 package controller;
 
+import exception.ErrorMessages;
 import exception.OurException;
 import exception.ShowAlert;
 import java.net.URL;
@@ -15,6 +16,7 @@ import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import model.LoggedProfile;
 import model.Profile;
+import org.bson.types.ObjectId;
 
 /**
  * Controller class for the CAPTCHA Verification Window interface. This class handles the security verification process using CAPTCHA codes for sensitive operations, particularly user account deletion. It generates random verification codes, validates user input, and executes the deletion operation upon successful verification.
@@ -23,13 +25,14 @@ import model.Profile;
  *
  * @author Kevin, Alex, Victor, Ekaitz
  */
-public class VerifyCaptchaWindowController implements Initializable
+public class VerifyCaptchaWindowController implements Initializable, ReusableView
 {
 
     private Controller controller;
+    private final BackgroundTasks tasks = new BackgroundTasks();
     private Profile profile;
     private int code;
-    private String userDelete;
+    private ObjectId userDelete;
     private Runnable onUserDeletedCallback;
 
     @FXML
@@ -53,9 +56,9 @@ public class VerifyCaptchaWindowController implements Initializable
      * Initializes the controller with necessary dependencies and user data. This method sets up the main controller reference, identifies the user to be deleted, displays the current user's username, and generates the initial CAPTCHA code. It functions similarly to a constructor for the controller setup.
      *
      * @param controller the main application controller that manages business logic and data operations
-     * @param userDelete the unique identifier of the user to be deleted, or -1 if deleting the currently logged-in user
+     * @param userDelete the unique identifier of the user to be deleted, or null if deleting the currently logged-in user
      */
-    public void setController(Controller controller, String userDelete)
+    public void setController(Controller controller, ObjectId userDelete)
     {
         this.controller = controller;
         this.userDelete = userDelete;
@@ -76,6 +79,19 @@ public class VerifyCaptchaWindowController implements Initializable
         onUserDeletedCallback = callback;
     }
 
+    /**
+     * Clears the typed code and error message and forgets the user to delete and the callback. A new code is generated when the window is set up again.
+     */
+    @Override
+    public void reset()
+    {
+        codeTextField.clear();
+        errorLabel.setText("");
+        profile = null;
+        userDelete = null;
+        onUserDeletedCallback = null;
+    }
+
     /**
      * Generates a new random CAPTCHA code and updates the display. This method creates a 4-digit random verification code, displays it to the user, clears any previous error messages, and resets the input field to prepare for new user input.
      */
@@ -87,9 +103,7 @@ public class VerifyCaptchaWindowController implements Initializable
     }
 
     /**
-     * Handles the confirmation action when the confirm button is clicked. This method validates the user-input CAPTCHA code against the generated code, executes the user deletion operation upon successful verification, and triggers the callback function if provided. It also handles error cases and displays appropriate feedback to the user.
-     *
-     * @throws OurException if the user deletion operation fails due to database constraints, data access issues, or system errors
+     * Handles the confirmation action when the confirm button is clicked. This method validates the user-input CAPTCHA code against the generated code, executes the user deletion operation in the background upon successful verification, and triggers the callback function if provided. It also handles error cases and displays appropriate feedback to the user.
      */
     @FXML
     private void confirmButton()
@@ -109,11 +123,13 @@ public class VerifyCaptchaWindowController implements Initializable
             return;
         }
 
-        try
+        tasks.run("delete", () -> controller.deleteUserAsync(userDelete != null ? userDelete : profile.getId()), (success, error) ->
         {
-            boolean success = controller.deleteUser((userDelete != null && !userDelete.isEmpty()) ? userDelete : profile.getId());
-
-            if (success)
+            if (error != null)
+            {
+                ShowAlert.showAlert("Error", OurException.unwrap(error, ErrorMessages.DELETE_USER).getMessage(), Alert.AlertType.ERROR);
+            }
+            else if (success)
             {
                 if (onUserDeletedCallback != null)
                 {
@@ -128,11 +144,7 @@ public class VerifyCaptchaWindowController implements Initializable
             {
                 ShowAlert.showAlert("Error", "User could not be deleted.", Alert.AlertType.ERROR);
             }
-        }
-        catch (OurException ex)
-        {
-            ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+        }, confirmBttn, cancelBttn);
     }
 
     /**
@@ -153,5 +165,6 @@ public class VerifyCaptchaWindowController implements Initializable
     @Override
     public void initialize(URL url, ResourceBundle rb)
     {
+        tasks.attach(confirmBttn);
     }
 }
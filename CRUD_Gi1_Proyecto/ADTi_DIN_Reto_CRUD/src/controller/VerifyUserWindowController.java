@@ -1,13 +1,12 @@
 package controller;
 
+import exception.ErrorMessages;
+import exception.OurException;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
@@ -15,6 +14,7 @@ import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import model.LoggedProfile;
 import model.Profile;
+import org.bson.types.ObjectId;
 
 /**
  * Controller class for the User Verification Window interface. This class handles the initial password verification step for sensitive operations, particularly user account deletion. It serves as the first security layer by requiring the user to confirm their identity with their password before proceeding to additional verification steps.
@@ -23,12 +23,13 @@ import model.Profile;
  *
  * @author Kevin, Alex, Victor, Ekaitz
  */
-public class VerifyUserWindowController implements Initializable
+public class VerifyUserWindowController implements Initializable, ReusableView
 {
 
     private Controller controller;
+    private final BackgroundTasks tasks = new BackgroundTasks();
     private Profile profile;
-    private String userDelete;
+    private ObjectId userDelete;
     private Runnable onUserDeletedCallback;
 
     @FXML
@@ -47,18 +48,32 @@ public class VerifyUserWindowController implements Initializable
     private Label errorLabel;
 
     /**
-     * Initializes the controller with necessary dependencies and user data. This method sets up the main controller reference, identifies the user to be deleted, and displays the current user's username in the interface. It functions similarly to a constructor for the controller setup.
+     * Initializes the controller with necessary dependencies and user data. This method sets up the main controller reference, identifies the user to be deleted, and displays the current user's username in the interface, while the next verification step is loaded in the background. It functions similarly to a constructor for the controller setup.
      *
      * @param controller the main application controller that manages business logic and data operations
-     * @param userDelete the unique identifier of the user to be deleted, or -1 if deleting the currently logged-in user
+     * @param userDelete the unique identifier of the user to be deleted, or null if deleting the currently logged-in user
      */
-    public void setController(Controller controller, String userDelete)
+    public void setController(Controller controller, ObjectId userDelete)
     {
         this.controller = controller;
         this.userDelete = userDelete;
 
         profile = LoggedProfile.getInstance().getProfile();
         username.setText(profile.getUsername());
+        controller.getNavigator().preload(Navigator.VERIFY_ACTION);
+    }
+
+    /**
+     * Clears the password and error message and forgets the user to delete and the callback, so the window can verify another action.
+     */
+    @Override
+    public void reset()
+    {
+        passwordPasswordField.clear();
+        errorLabel.setText("");
+        profile = null;
+        userDelete = null;
+        onUserDeletedCallback = null;
     }
 
     /**
@@ -72,7 +87,7 @@ public class VerifyUserWindowController implements Initializable
     }
 
     /**
-     * Handles the confirmation action when the confirm button is clicked. This method validates the user's password against the stored profile password, and if successful, navigates to the next verification step (action confirmation window). It transfers the callback function to the next verification step and displays appropriate error messages for invalid or missing passwords.
+     * Handles the confirmation action when the confirm button is clicked. This method checks the user's password against the stored password hash in the background, since hashing is deliberately slow, keeping the confirm button disabled meanwhile, and if it is correct navigates to the next verification step (action confirmation window). It displays appropriate error messages for invalid or missing passwords.
      *
      */
     @FXML
@@ -86,34 +101,45 @@ public class VerifyUserWindowController implements Initializable
             return;
         }
 
-        if (profile.getPassword().equals(password))
+        tasks.run("verify", () -> controller.verifyPasswordAsync(profile, password), (valid, error) ->
         {
-            try
+            if (error != null)
             {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/VerifyActionWindow.fxml"));
-                Parent parentWindow = loader.load();
+                errorLabel.setText(OurException.unwrap(error, ErrorMessages.HASH_PASSWORD).getMessage());
+            }
+            else if (valid)
+            {
+                showActionVerification();
+            }
+            else
+            {
+                errorLabel.setText("Incorrect password.");
+            }
+        }, confirmBttn);
+    }
+
+    /**
+     * Navigates to the next verification step (action confirmation window), transferring the user to delete and the callback function to it.
+     */
+    private void showActionVerification()
+    {
+        try
+        {
+            Stage actualWindow = (Stage) confirmBttn.getScene().getWindow();
 
-                VerifyActionWindowController nextController = loader.getController();
+            controller.getNavigator().show(actualWindow, Navigator.VERIFY_ACTION, nextController ->
+            {
                 nextController.setController(controller, userDelete);
 
                 if (onUserDeletedCallback != null)
                 {
                     nextController.setOnUserDeletedCallback(onUserDeletedCallback);
                 }
-
-                Stage actualWindow = (Stage) confirmBttn.getScene().getWindow();
-                actualWindow.setTitle("Verify your Action");
-                actualWindow.setResizable(false);
-                actualWindow.setScene(new Scene(parentWindow));
-            }
-            catch (IOException ex)
-            {
-                errorLabel.setText("Error loading window.");
-            }
+            });
         }
-        else
+        catch (IOException ex)
         {
-            errorLabel.setText("Incorrect password.");
+            errorLabel.setText("Error loading window.");
         }
     }
 
@@ -136,5 +162,6 @@ public class VerifyUserWindowController implements Initializable
     @Override
     public void initialize(URL url, ResourceBundle rb)
     {
+        tasks.attach(confirmBttn);
     }
 }
@@ -0,0 +1,163 @@
+package dao;
+
+import exception.ErrorMessages;
+import exception.OurException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.Profile;
+import model.User;
+import org.bson.types.ObjectId;
+
+/**
+ * Asynchronous implementation of the AsyncModelDAO interface. This class wraps a blocking ModelDAO and runs each of its operations on a bounded pool of daemon worker threads, handing the result back through a CompletableFuture.
+ *
+ * The pool never grows beyond a fixed number of threads and queued operations, so a slow or unreachable database cannot make the application pile up an unbounded number of pending requests. When the queue is full the returned future fails immediately with an OurException instead of blocking the caller.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class AsyncDBImplementation implements AsyncModelDAO
+{
+
+    private static final int CORE_THREADS = 2;
+    private static final int MAX_THREADS = 5;
+    private static final int QUEUE_CAPACITY = 100;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final ModelDAO dao;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructs a new AsyncDBImplementation that delegates every operation to the given blocking DAO. The worker pool is sized to match the database connection pool so background operations never wait on each other for a connection.
+     *
+     * @param dao the blocking ModelDAO implementation that performs the actual data operations
+     */
+    public AsyncDBImplementation(ModelDAO dao)
+    {
+        this.dao = dao;
+        this.executor = new ThreadPoolExecutor(CORE_THREADS, MAX_THREADS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), new WorkerThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Schedules an arbitrary blocking data operation on the worker pool. The OurException thrown by the operation is passed to the future untouched, while unexpected runtime failures are reported with a generic database error message. If the future is cancelled while the operation is still queued, such as when the window that requested it is closed, the operation is skipped instead of being sent to the database.
+     *
+     * @param <T> the type of the value produced by the operation
+     * @param call the blocking data operation to run in the background
+     * @return a future completed with the operation result, or exceptionally with an OurException if it fails or cannot be queued
+     */
+    @Override
+    public <T> CompletableFuture<T> submit(DAOCall<T> call)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try
+        {
+            executor.execute(() ->
+            {
+                if (future.isDone())
+                {
+                    return;
+                }
+
+                try
+                {
+                    future.complete(call.call());
+                }
+                catch (OurException ex)
+                {
+                    future.completeExceptionally(ex);
+                }
+                catch (RuntimeException ex)
+                {
+                    future.completeExceptionally(new OurException(ErrorMessages.DATABASE));
+                }
+            });
+        }
+        catch (RejectedExecutionException ex)
+        {
+            future.completeExceptionally(new OurException(ErrorMessages.BUSY));
+        }
+
+        return future;
+    }
+
+    /**
+     * Updates an existing user's information in the data store in the background.
+     *
+     * @param user the User object containing updated information to be saved
+     * @return a future completed with true if the update affected at least one record, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> updateUser(User user)
+    {
+        return submit(() -> dao.updateUser(user));
+    }
+
+    /**
+     * Deletes a user from the data store by their unique identifier in the background.
+     *
+     * @param id the unique identifier of the user to be deleted
+     * @return a future completed with true if the deletion affected at least one record, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteUser(ObjectId id)
+    {
+        return submit(() -> dao.deleteUser(id));
+    }
+
+    /**
+     * Authenticates a user using provided credentials in the background.
+     *
+     * @param credential the user's username or email address used for identification
+     * @param password the user's password for authentication
+     * @return a future completed with the authenticated Profile, or with null if the credentials are invalid
+     */
+    @Override
+    public CompletableFuture<Profile> login(String credential, String password)
+    {
+        return submit(() -> dao.login(credential, password));
+    }
+
+    /**
+     * Registers a new user in the system in the background.
+     *
+     * @param user the User object containing all registration information
+     * @return a future completed with the registered User object including its generated identifier
+     */
+    @Override
+    public CompletableFuture<User> register(User user)
+    {
+        return submit(() -> dao.register(user));
+    }
+
+    /**
+     * Stops accepting new operations and releases the worker threads once the queued operations have finished.
+     */
+    @Override
+    public void shutdown()
+    {
+        executor.shutdown();
+    }
+
+    /**
+     * Thread factory for the worker pool. Threads are named for easier debugging and marked as daemon threads so a pending database operation never keeps the application alive after the last window is closed.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory
+    {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task)
+        {
+            Thread thread = new Thread(task, "dao-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
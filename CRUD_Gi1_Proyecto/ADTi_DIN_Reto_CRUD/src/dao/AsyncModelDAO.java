@@ -0,0 +1,84 @@
+package dao;
+
+import exception.OurException;
+import java.util.concurrent.CompletableFuture;
+import model.Profile;
+import model.User;
+import org.bson.types.ObjectId;
+
+/**
+ * Asynchronous Data Access Object interface mirroring the operations of ModelDAO. Every method returns immediately with a CompletableFuture that is completed on a background worker once the underlying data operation finishes, so callers running on the JavaFX Application Thread never block on a database round trip.
+ *
+ * <p>
+ * Futures are completed exceptionally with an OurException when the underlying operation fails, or when the worker pool is saturated and the operation cannot be queued.</p>
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public interface AsyncModelDAO
+{
+
+    /**
+     * Functional contract for a single blocking data operation that can be scheduled on the asynchronous worker pool. It allows callers to run any ModelDAO method, including those without a dedicated asynchronous variant, off the calling thread.
+     *
+     * @param <T> the type of the value produced by the operation
+     */
+    @FunctionalInterface
+    public interface DAOCall<T>
+    {
+
+        /**
+         * Executes the blocking data operation.
+         *
+         * @return the value produced by the operation
+         * @throws OurException if the data operation fails
+         */
+        public T call() throws OurException;
+    }
+
+    /**
+     * Schedules an arbitrary blocking data operation on the worker pool. This method is the building block used by all the other asynchronous operations and can be used directly for operations that have no dedicated asynchronous variant.
+     *
+     * @param <T> the type of the value produced by the operation
+     * @param call the blocking data operation to run in the background
+     * @return a future completed with the operation result, or exceptionally with an OurException if it fails or cannot be queued
+     */
+    public <T> CompletableFuture<T> submit(DAOCall<T> call);
+
+    /**
+     * Updates an existing user's information in the data store in the background.
+     *
+     * @param user the User object containing updated information to be saved
+     * @return a future completed with true if the update affected at least one record, false otherwise
+     */
+    public CompletableFuture<Boolean> updateUser(User user);
+
+    /**
+     * Deletes a user from the data store by their unique identifier in the background.
+     *
+     * @param id the unique identifier of the user to be deleted
+     * @return a future completed with true if the deletion affected at least one record, false otherwise
+     */
+    public CompletableFuture<Boolean> deleteUser(ObjectId id);
+
+    /**
+     * Authenticates a user using provided credentials in the background.
+     *
+     * @param credential the user's username or email address used for identification
+     * @param password the user's password for authentication
+     * @return a future completed with the authenticated Profile, or with null if the credentials are invalid
+     */
+    public CompletableFuture<Profile> login(String credential, String password);
+
+    /**
+     * Registers a new user in the system in the background.
+     *
+     * @param user the User object containing all registration information
+     * @return a future completed with the registered User object including its generated identifier
+     */
+    public CompletableFuture<User> register(User user);
+
+    /**
+     * Stops accepting new operations and releases the worker threads once the queued operations have finished.
+     */
+    public void shutdown();
+}
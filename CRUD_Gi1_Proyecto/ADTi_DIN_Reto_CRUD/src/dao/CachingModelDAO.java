@@ -0,0 +1,574 @@
+package dao;
+
+import exception.OurException;
+import exception.VersionConflictException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import model.BulkReport;
+import model.Gender;
+import model.Profile;
+import model.ProfileField;
+import model.User;
+import model.UserStatistics;
+import model.UserSummary;
+import org.bson.types.ObjectId;
+
+/**
+ * Read-through cache placed in front of another ModelDAO. This class keeps recently read users in memory, so choosing again a user that was just shown or saved in an administrative window does not reload it from the database. Listings are not cached: the admin table reads sorted ranges that any change shifts, and the bulk delete window reads each page once.
+ *
+ * <p>
+ * Cached users are kept in a bounded map keyed by identifier, evicting the least recently used entries once the map is full and discarding any entry older than the configured time to live. The cache is updated by its own updateUser, deleteUser and register calls, so local edits are reflected without a round trip. Users are stored and returned as copies, so a caller editing the user it was given, as the admin form does before saving, never changes the cached version or the one handed to another window. Registered as a UserChangeListener it also applies the changes made by other clients as they happen; otherwise those become visible once the affected entries expire.</p>
+ *
+ * <p>
+ * All methods are thread safe. The cache lock is never held while the underlying DAO is being called.</p>
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class CachingModelDAO implements ModelDAO, UserChangeListener
+{
+
+    private static final int DEFAULT_MAX_USERS = 10000;
+    private static final long DEFAULT_TTL_SECONDS = 60;
+    private static final long STATISTICS_TTL_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final ModelDAO dao;
+    private final int maxUsers;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<ObjectId, Cached<User>> users;
+    private Cached<UserStatistics> statistics;
+    private int statisticsMonths;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new CachingModelDAO with the default size and time to live.
+     *
+     * @param dao the ModelDAO implementation whose results are cached
+     */
+    public CachingModelDAO(ModelDAO dao)
+    {
+        this(dao, DEFAULT_MAX_USERS, DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Constructs a new CachingModelDAO with a custom size and time to live.
+     *
+     * @param dao the ModelDAO implementation whose results are cached
+     * @param maxUsers the maximum number of users kept in memory
+     * @param ttl how long a cached entry stays valid
+     * @param unit the time unit of the ttl argument
+     */
+    public CachingModelDAO(ModelDAO dao, int maxUsers, long ttl, TimeUnit unit)
+    {
+        this.dao = dao;
+        this.maxUsers = maxUsers;
+        this.ttlNanos = unit.toNanos(ttl);
+
+        this.users = new LinkedHashMap<ObjectId, Cached<User>>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ObjectId, Cached<User>> eldest)
+            {
+                return evictIf(size() > CachingModelDAO.this.maxUsers);
+            }
+        };
+    }
+
+    /**
+     * Retrieves all users from the underlying DAO and caches the users it contains. The complete list itself is not cached, since it can be far larger than the cache.
+     *
+     * @return an ArrayList containing all User objects in the system
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public ArrayList<User> getUsers() throws OurException
+    {
+        ArrayList<User> loaded = dao.getUsers();
+        store(loaded);
+        return loaded;
+    }
+
+    /**
+     * Retrieves one page of users from the underlying DAO and caches the users it contains.
+     *
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing at most limit User objects ordered by identifier
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public ArrayList<User> getUsersPage(ObjectId afterId, int limit) throws OurException
+    {
+        ArrayList<User> page = dao.getUsersPage(afterId, limit);
+        store(page);
+        return page;
+    }
+
+    /**
+     * Retrieves the summaries of all users from the underlying DAO. Summary listings are not cached.
+     *
+     * @return an ArrayList containing a UserSummary for every user in the system
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public ArrayList<UserSummary> getUserSummaries() throws OurException
+    {
+        return dao.getUserSummaries();
+    }
+
+    /**
+     * Retrieves one page of user summaries from the underlying DAO. Pages are not cached, since the bulk delete window reads each one once and any registration or deletion would shift them.
+     *
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of summaries to return
+     * @return an ArrayList containing at most limit UserSummary objects ordered by identifier
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public ArrayList<UserSummary> getUserSummariesPage(ObjectId afterId, int limit) throws OurException
+    {
+        return dao.getUserSummariesPage(afterId, limit);
+    }
+
+    /**
+     * Searches users through the underlying DAO. Search results are not cached: each query text and filter is usually requested once, so caching them would only evict the entries that are read again.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of summaries to return
+     * @return an ArrayList containing at most limit matching UserSummary objects ordered by identifier
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public ArrayList<UserSummary> searchUsers(String query, Gender gender, ObjectId afterId, int limit) throws OurException
+    {
+        return dao.searchUsers(query, gender, afterId, limit);
+    }
+
+    /**
+     * Searches users in a given order through the underlying DAO. Sorted ranges are not cached for the same reason as searches, and because a single change moves every row after it to another range.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @param sortField the attribute to sort by, or null to sort by identifier
+     * @param ascending true to sort from the lowest value, false to sort from the highest
+     * @param offset the position of the first summary to return among every matching user
+     * @param limit the maximum number of summaries to return
+     * @return an ArrayList containing at most limit matching UserSummary objects in the requested order
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public ArrayList<UserSummary> searchUsersSorted(String query, Gender gender, ProfileField sortField, boolean ascending, int offset, int limit) throws OurException
+    {
+        return dao.searchUsersSorted(query, gender, sortField, ascending, offset, limit);
+    }
+
+    /**
+     * Counts the users matching a search through the underlying DAO. Counts are not cached, since any insert or delete changes them.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @return the number of matching users
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public long countUsers(String query, Gender gender) throws OurException
+    {
+        return dao.countUsers(query, gender);
+    }
+
+    /**
+     * Returns the dashboard statistics, computing them through the underlying DAO at most once every few seconds. Statistics are totals over the whole collection, so they are kept for a short time of their own instead of being updated on every change; an administrator reopening the dashboard sees numbers at most that old.
+     *
+     * @param months the number of months of registrations to report, including the current one
+     * @return the statistics of the users collection
+     * @throws OurException if the statistics have to be computed and the underlying DAO fails
+     */
+    @Override
+    public UserStatistics getUserStatistics(int months) throws OurException
+    {
+        synchronized (this)
+        {
+            if (statistics != null && statisticsMonths == months && !expired(statistics, STATISTICS_TTL_NANOS))
+            {
+                hits.increment();
+                return statistics.value;
+            }
+
+            misses.increment();
+        }
+
+        UserStatistics computed = dao.getUserStatistics(months);
+
+        synchronized (this)
+        {
+            statistics = new Cached<>(computed);
+            statisticsMonths = months;
+        }
+
+        return computed;
+    }
+
+    /**
+     * Retrieves a single user, serving a copy of it from memory when it was read recently.
+     *
+     * @param id the unique identifier of the user to retrieve
+     * @return a User object the caller may modify, or null if no user exists with the specified ID
+     * @throws OurException if the user has to be loaded and the underlying DAO fails
+     */
+    @Override
+    public User getUser(ObjectId id) throws OurException
+    {
+        synchronized (this)
+        {
+            User user = cachedUser(id);
+
+            if (user != null)
+            {
+                hits.increment();
+                return new User(user);
+            }
+
+            misses.increment();
+        }
+
+        User user = dao.getUser(id);
+
+        if (user != null)
+        {
+            store(Collections.singleton(user));
+        }
+
+        return user;
+    }
+
+    /**
+     * Updates a user through the underlying DAO and refreshes the cached copy of that user. If the update is rejected because the user was modified by someone else, the cached copy is discarded so the caller reloads the current version.
+     *
+     * @param user the User object containing updated information to be saved
+     * @return true if the update operation was successful, false otherwise
+     * @throws VersionConflictException if the user was modified by someone else since it was read
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public boolean updateUser(User user) throws OurException
+    {
+        boolean updated;
+
+        try
+        {
+            updated = dao.updateUser(user);
+        }
+        catch (VersionConflictException ex)
+        {
+            forget(Collections.singleton(user.getId()));
+            throw ex;
+        }
+
+        userUpdated(user);
+        return updated;
+    }
+
+    /**
+     * Deletes a user through the underlying DAO and removes it from the cache.
+     *
+     * @param id the unique identifier of the user to be deleted
+     * @return true if the deletion was successful, false if no user was found with the specified ID
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public boolean deleteUser(ObjectId id) throws OurException
+    {
+        boolean deleted = dao.deleteUser(id);
+        userDeleted(id);
+        return deleted;
+    }
+
+    /**
+     * Authenticates a user through the underlying DAO. Credentials are never served from the cache.
+     *
+     * @param credential the user's username or email address used for identification
+     * @param password the user's password for authentication
+     * @return the authenticated Profile, or null if the credentials are invalid
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public Profile login(String credential, String password) throws OurException
+    {
+        return dao.login(credential, password);
+    }
+
+    /**
+     * Registers a user through the underlying DAO and caches it.
+     *
+     * @param user the User object containing all registration information
+     * @return the registered User object with its generated identifier
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public User register(User user) throws OurException
+    {
+        User registered = dao.register(user);
+        userInserted(registered);
+        return registered;
+    }
+
+    /**
+     * Registers many users through the underlying DAO. The new users are not cached, since an import can be far larger than the cache.
+     *
+     * @param users the users to register, read only once and in order
+     * @param batchSize the maximum number of users sent to the database in a single request
+     * @return a report with the number of registered users and one failure for every rejected user
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public BulkReport registerAll(Iterable<User> users, int batchSize) throws OurException
+    {
+        return dao.registerAll(users, batchSize);
+    }
+
+    /**
+     * Updates many users through the underlying DAO and refreshes the cached copy of every user that was updated. Users that could not be updated are discarded from the cache, since a conflict means the cached copy is out of date.
+     *
+     * @param users the User objects containing the updated information
+     * @return a report with the number of updated users and one failure for every user that was not updated
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public BulkReport updateUsers(Collection<User> users) throws OurException
+    {
+        BulkReport report = dao.updateUsers(users);
+        Set<Integer> failed = new HashSet<>();
+        Set<ObjectId> stale = new HashSet<>();
+
+        for (BulkReport.Failure failure : report.getFailures())
+        {
+            failed.add(failure.getIndex());
+        }
+
+        int index = 0;
+
+        for (User user : users)
+        {
+            if (!failed.contains(index++))
+            {
+                userUpdated(user);
+            }
+            else if (user.getId() != null)
+            {
+                stale.add(user.getId());
+            }
+        }
+
+        forget(stale);
+
+        return report;
+    }
+
+    /**
+     * Deletes many users through the underlying DAO and removes all of them from the cache.
+     *
+     * @param ids the unique identifiers of the users to be deleted
+     * @return a report with the number of deleted users and one failure for every identifier that was not deleted
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public BulkReport deleteUsers(Collection<ObjectId> ids) throws OurException
+    {
+        BulkReport report = dao.deleteUsers(ids);
+        forget(new HashSet<>(ids));
+        return report;
+    }
+
+    /**
+     * Exports every user through the underlying DAO. The export always streams from the storage system and neither reads nor fills the cache, so a full export does not evict the users being worked with.
+     *
+     * @param out the stream the users are written to
+     * @param format the output format
+     * @param progress the receiver of the export progress, or null if progress is not needed
+     * @return the number of users written
+     * @throws OurException if the underlying DAO fails
+     */
+    @Override
+    public long exportUsers(OutputStream out, ExportFormat format, ExportProgress progress) throws OurException
+    {
+        return dao.exportUsers(out, format, progress);
+    }
+
+    /**
+     * Caches a copy of a user that has just been registered.
+     *
+     * @param user the inserted user
+     */
+    @Override
+    public void userInserted(User user)
+    {
+        store(Collections.singleton(user));
+    }
+
+    /**
+     * Replaces the cached copy of a user.
+     *
+     * @param user the user as it is after the change
+     */
+    @Override
+    public void userUpdated(User user)
+    {
+        store(Collections.singleton(user));
+    }
+
+    /**
+     * Removes a user from the cache.
+     *
+     * @param id the identifier of the deleted profile
+     */
+    @Override
+    public void userDeleted(ObjectId id)
+    {
+        forget(Collections.singleton(id));
+    }
+
+    /**
+     * Discards the whole cache, since some changes were not received.
+     */
+    @Override
+    public void changesMissed()
+    {
+        invalidateAll();
+    }
+
+    /**
+     * Discards every cached user and the cached statistics.
+     */
+    public synchronized void invalidateAll()
+    {
+        users.clear();
+        statistics = null;
+    }
+
+    /**
+     * Returns the number of reads served from memory.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of reads that had to be sent to the underlying DAO.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of users dropped because the cache was full or the entry had expired. Discarded statistics, deleted users and entries removed by invalidateAll are not counted.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns a one-line summary of the cache counters, suitable for logging.
+     *
+     * @return the cache statistics as text
+     */
+    @Override
+    public synchronized String toString()
+    {
+        return "UserCache {users: " + users.size() + "/" + maxUsers + ", hits: " + hits.sum()
+                + ", misses: " + misses.sum() + ", evictions: " + evictions.sum() + "}";
+    }
+
+    /**
+     * Returns the cached user with an identifier if it has not expired. An expired entry is removed and counted as an eviction, so it is only counted once however many times it is requested. Must be called while holding the cache lock.
+     */
+    private User cachedUser(ObjectId id)
+    {
+        Cached<User> entry = users.get(id);
+
+        if (entry == null)
+        {
+            return null;
+        }
+
+        if (expired(entry, ttlNanos))
+        {
+            users.remove(id);
+            evictions.increment();
+            return null;
+        }
+
+        return entry.value;
+    }
+
+    private boolean expired(Cached<?> entry, long maxAgeNanos)
+    {
+        return System.nanoTime() - entry.loadedAt > maxAgeNanos;
+    }
+
+    private boolean evictIf(boolean full)
+    {
+        if (full)
+        {
+            evictions.increment();
+        }
+
+        return full;
+    }
+
+    /**
+     * Caches a copy of each user, so the callers keep the users they were given to themselves.
+     */
+    private synchronized void store(Collection<User> loaded)
+    {
+        for (User user : loaded)
+        {
+            users.put(user.getId(), new Cached<>(new User(user)));
+        }
+    }
+
+    /**
+     * Removes a set of users from the cache.
+     */
+    private synchronized void forget(Set<ObjectId> ids)
+    {
+        users.keySet().removeAll(ids);
+    }
+
+    /**
+     * Cached value together with the moment it was loaded.
+     */
+    private static class Cached<T>
+    {
+
+        private final T value;
+        private final long loadedAt;
+
+        private Cached(T value)
+        {
+            this.value = value;
+            this.loadedAt = System.nanoTime();
+        }
+    }
+}
@@ -1,24 +1,65 @@
 package dao;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Facet;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 import config.MongoConnection;
 import exception.OurException;
 import exception.ErrorMessages;
+import exception.VersionConflictException;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.*;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import model.Admin;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import model.BulkReport;
 import model.Gender;
 import model.LoggedProfile;
 import model.Profile;
+import model.ProfileField;
+import model.ProfileType;
 import model.User;
+import model.UserStatistics;
+import model.UserSummary;
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
 /**
@@ -31,38 +72,125 @@ import org.bson.types.ObjectId;
 public class DBImplementation implements ModelDAO
 {
 
+    private static final Logger LOGGER = Logger.getLogger(DBImplementation.class.getName());
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+    private static final CodecRegistry PROFILE_CODECS = CodecRegistries.fromRegistries(
+            CodecRegistries.fromProviders(new ProfileCodecProvider()),
+            MongoClientSettings.getDefaultCodecRegistry());
+
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+    private static final int EXPORT_PROGRESS_INTERVAL = 1000;
+
+    private static final Set<ProfileField> USER_EDITABLE_FIELDS = EnumSet.of(
+            ProfileField.PASSWORD, ProfileField.NAME, ProfileField.LASTNAME, ProfileField.TELEPHONE, ProfileField.GENDER, ProfileField.CARD);
+    private static final Set<ProfileField> SORTABLE_FIELDS = EnumSet.of(
+            ProfileField.USERNAME, ProfileField.EMAIL, ProfileField.NAME, ProfileField.GENDER);
+    private static final Set<ProfileField> UNIQUE_FIELDS = EnumSet.of(ProfileField.USERNAME, ProfileField.EMAIL);
+
+    private static final Bson USER_FILTER = Filters.eq("P_TYPE", ProfileType.USER.name());
+    private static final Bson ADMIN_FILTER = Filters.eq("P_TYPE", ProfileType.ADMIN.name());
+    private static final Bson LEGACY_USER_FILTER = Filters.or(USER_FILTER,
+            Filters.and(Filters.exists("P_TYPE", false), Filters.exists("U_GENDER")));
+    private static final Bson LEGACY_ADMIN_FILTER = Filters.or(ADMIN_FILTER,
+            Filters.and(Filters.exists("P_TYPE", false), Filters.exists("U_GENDER", false), Filters.exists("A_CURRENT_ACCOUNT")));
+
+    private static final Bson LOGIN_PROJECTION = Projections.include(
+            "P_TYPE", "P_EMAIL", "P_USERNAME", "P_PASSWORD", "P_NAME", "P_LASTNAME", "P_TELEPHONE", "U_GENDER", "U_CARD", "A_CURRENT_ACCOUNT", "P_VERSION");
+    private static final Bson SUMMARY_PROJECTION = Projections.include("P_USERNAME", "P_EMAIL", "P_NAME", "U_GENDER");
+
+    private final PasswordHasher hasher;
+
+    private volatile Bson userFilter = LEGACY_USER_FILTER;
+    private volatile Bson adminFilter = LEGACY_ADMIN_FILTER;
+
+    /**
+     * Constructs a new DBImplementation that hashes passwords with the application PasswordHasher.
+     */
+    public DBImplementation()
+    {
+        this(PasswordHasher.getDefault());
+    }
+
+    /**
+     * Constructs a new DBImplementation that hashes passwords with the given hasher. This constructor is mainly intended for benchmarks and tools that need a different work factor than the application.
+     *
+     * @param hasher the hasher used to store and check passwords
+     */
+    public DBImplementation(PasswordHasher hasher)
+    {
+        this.hasher = hasher;
+    }
+
+    /**
+     * Returns the users collection typed as Profile objects. Reads and inserts through this collection go through the ProfileCodec, which maps documents to User or Admin objects without building an intermediate Document.
+     *
+     * @return the users collection decoding to and encoding from Profile objects
+     */
+    private MongoCollection<Profile> getProfilesCollection()
+    {
+        return MongoConnection.getUsersCollection()
+                .withDocumentClass(Profile.class)
+                .withCodecRegistry(PROFILE_CODECS);
+    }
+
+    /**
+     * Creates a watcher that follows the changes made to the users collection by any client. The watcher decodes the changed documents through the ProfileCodec and does not touch the database until it is started.
+     *
+     * @return a new, not yet started UserChangeWatcher for the users collection
+     */
+    public UserChangeWatcher createUserChangeWatcher()
+    {
+        return new UserChangeWatcher(this::getProfilesCollection);
+    }
+
     /**
-     * Inserts a new user into the database with transaction support. This method performs an atomic operation that inserts user data into both the profile and user tables within a single transaction. If any part fails, the entire transaction is rolled back.
+     * Inserts a new user into the database in a single round trip. The password is hashed before it is sent, so it is never stored in plain text. This method relies on the unique indexes on P_EMAIL and P_USERNAME to reject duplicate credentials atomically, so no separate existence check is needed and concurrent registrations cannot both succeed with the same credentials.
      *
      * @param user the User object containing all user data to be inserted
-     * @return the generated user ID if insertion is successful, -1 otherwise
-     * @throws OurException if the insertion fails due to SQL errors, constraint violations, or transaction issues
+     * @return the generated user ID if insertion is successful
+     * @throws OurException if the email or username already exists, or if the insertion fails due to database errors
      */
-    private String insert(User user) throws OurException
+    private ObjectId insert(User user) throws OurException
     {
-        try {
-            MongoCollection<Document> users = MongoConnection.getUsersCollection();
+        hashPassword(user);
 
-            Document doc = new Document()
-                    .append("P_EMAIL", user.getEmail())
-                    .append("P_USERNAME", user.getUsername())
-                    .append("P_PASSWORD", user.getPassword())
-                    .append("P_NAME", user.getName())
-                    .append("P_LASTNAME", user.getLastname())
-                    .append("P_TELEPHONE", user.getTelephone())
-                    .append("U_GENDER", user.getGender().name())
-                    .append("U_CARD", user.getCard());
+        try {
+            MongoCollection<Profile> users = getProfilesCollection();
 
-            users.insertOne(doc);
+            // El codec genera el id antes de enviar el documento
+            users.insertOne(user);
 
-            // MongoDB genera automáticamente el id
-            return doc.getObjectId("_id").toHexString();
+            return user.getId();
 
+        } catch (MongoWriteException ex) {
+            if (ex.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                throw duplicateCredential(ex.getError().getMessage());
+            }
+            throw new OurException(ErrorMessages.REGISTER_USER);
         } catch (Exception ex) {
             throw new OurException(ErrorMessages.REGISTER_USER);
         }
     }
 
+    /**
+     * Translates a duplicate key error into the message shown to the user. The unique indexes on P_EMAIL and P_USERNAME reject a duplicate insert, and the server names the violated index in the error message, which tells which credential is already taken.
+     *
+     * @param message the message of the duplicate key error reported by the server
+     * @return an OurException describing which credential already exists
+     */
+    private OurException duplicateCredential(String message)
+    {
+        if (message != null && message.contains("P_EMAIL")) {
+            return new OurException(ErrorMessages.EMAIL_EXISTS);
+        } else if (message != null && message.contains("P_USERNAME")) {
+            return new OurException(ErrorMessages.USERNAME_EXISTS);
+        }
+        return new OurException(ErrorMessages.REGISTER_USER);
+    }
+
     /**
      * Retrieves all users from the database. This method executes a query to fetch all user records with their complete profile information including personal details and preferences.
      *
@@ -70,65 +198,316 @@ public class DBImplementation implements ModelDAO
      * @return an ArrayList containing all User objects from the database
      * @throws OurException if the query execution fails or data retrieval errors occur
      */
-    private ArrayList<User> selectUsers(MongoCollection<Document> collection) throws OurException
+    private ArrayList<User> selectUsers(MongoCollection<Profile> collection) throws OurException
     {
         ArrayList<User> users = new ArrayList<>();
 
-        for (Document doc : collection.find(Filters.exists("U_GENDER")))
+        for (Profile profile : collection.find(userFilter))
         {
-            String genderValue = doc.getString("U_GENDER");
-            Gender gender = genderValue != null ? Gender.valueOf(genderValue) : Gender.OTHER;
+            users.add((User) profile);
+        }
+
+        return users;
+    }
 
-            User user = new User(
-                    doc.getObjectId("_id").toHexString(),
-                    doc.getString("P_EMAIL"),
-                    doc.getString("P_USERNAME"),
-                    doc.getString("P_PASSWORD"),
-                    doc.getString("P_NAME"),
-                    doc.getString("P_LASTNAME"),
-                    doc.getString("P_TELEPHONE"),
-                    gender,
-                    doc.getString("U_CARD")
-            );
+    /**
+     * Retrieves one page of users ordered by identifier. This method seeks on the compound P_TYPE and _id index to the first user after the given identifier and reads at most limit documents, so its cost does not depend on how many users or administrators come before the page.
+     *
+     * @param collection from database to make the queries on it
+     * @param afterId the identifier of the last user of the previous page, or null to start from the beginning
+     * @param limit the maximum number of users to read
+     * @return an ArrayList containing the users of the requested page
+     * @throws OurException if the query execution fails or data retrieval errors occur
+     */
+    private ArrayList<User> selectUsersPage(MongoCollection<Profile> collection, ObjectId afterId, int limit) throws OurException
+    {
+        ArrayList<User> users = new ArrayList<>(limit);
 
-            users.add(user);
+        Bson filter = afterId == null
+                ? userFilter
+                : Filters.and(userFilter, Filters.gt("_id", afterId));
+
+        for (Profile profile : collection.find(filter).sort(Sorts.ascending("_id")).limit(limit))
+        {
+            users.add((User) profile);
         }
 
         return users;
     }
 
     /**
-     * Updates an existing user's information in the database with transaction support. This method performs an atomic operation that updates user data in both the profile and user tables within a single transaction.
+     * Retrieves the summaries of a range of users ordered by identifier. This method uses a projection so the server only sends the identifier, username, email, name and gender of each user, and seeks on the _id index past the given identifier when one is provided.
+     *
+     * @param collection from database to make the queries on it
+     * @param filter the condition the users must meet
+     * @param afterId the identifier of the last user of the previous page, or null to start from the beginning
+     * @param limit the maximum number of summaries to read, or 0 to read every remaining user
+     * @return an ArrayList containing the summaries of the requested range
+     * @throws OurException if the query execution fails or data retrieval errors occur
+     */
+    private ArrayList<UserSummary> selectUserSummaries(MongoCollection<Document> collection, Bson filter, ObjectId afterId, int limit) throws OurException
+    {
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+
+        Bson range = afterId == null
+                ? filter
+                : Filters.and(filter, Filters.gt("_id", afterId));
+
+        for (Document doc : collection.find(range)
+                .projection(SUMMARY_PROJECTION)
+                .sort(Sorts.ascending("_id"))
+                .limit(limit))
+        {
+            summaries.add(toSummary(doc));
+        }
+
+        return summaries;
+    }
+
+    /**
+     * Builds a user summary from a document read with SUMMARY_PROJECTION.
+     *
+     * @param doc the document holding the summary fields
+     * @return the summary of the user
+     */
+    private UserSummary toSummary(Document doc)
+    {
+        String gender = doc.getString("U_GENDER");
+
+        return new UserSummary(
+                doc.getObjectId("_id"),
+                doc.getString("P_USERNAME"),
+                doc.getString("P_EMAIL"),
+                doc.getString("P_NAME"),
+                gender != null ? Gender.valueOf(gender) : null
+        );
+    }
+
+    /**
+     * Builds the sort of a sorted user search. Usernames and emails are unique, so sorting by one of them gives a total order that its unique index serves on its own; names and genders repeat, so _id is added as a tiebreaker, matching the compound indexes created by createIndexes. Every key is sorted in the same direction, so a descending sort walks the same index backwards.
+     *
+     * @param sortField the attribute to sort by, or null to sort by identifier
+     * @param ascending true to sort from the lowest value, false to sort from the highest
+     * @return the sort specification
+     * @throws IllegalArgumentException if the attribute is not one of the listed ones
+     */
+    private Bson summaryOrder(ProfileField sortField, boolean ascending)
+    {
+        List<String> fields = new ArrayList<>();
+
+        if (sortField != null)
+        {
+            if (!SORTABLE_FIELDS.contains(sortField))
+            {
+                throw new IllegalArgumentException("Users cannot be sorted by " + sortField);
+            }
+
+            fields.add(sortField.getDocumentField());
+        }
+
+        if (!UNIQUE_FIELDS.contains(sortField))
+        {
+            fields.add("_id");
+        }
+
+        return ascending ? Sorts.ascending(fields) : Sorts.descending(fields);
+    }
+
+    /**
+     * Retrieves a single user by identifier. This method reads the user document through the _id index.
+     *
+     * @param collection from database to make the queries on it
+     * @param userId the unique identifier of the user to read
+     * @return the User object, or null if no user exists with the specified ID
+     * @throws OurException if the query execution fails or data retrieval errors occur
+     */
+    private User selectUser(MongoCollection<Profile> collection, ObjectId userId) throws OurException
+    {
+        return (User) collection.find(Filters.and(Filters.eq("_id", userId), userFilter)).first();
+    }
+
+    /**
+     * Updates an existing user's information in the database with an optimistic version check. Only the fields modified through the setters since the user was read are written, and if none was modified the method returns without contacting the server. The updateOne only matches the user if its stored version is still the one the user was read with, and increments it in the same atomic operation, so concurrent saves never overwrite each other and no lock is held. When nothing matches, a second query tells a user that was modified in the meantime from one that no longer exists.
      *
      * @param collection from database to make the queries on it
      * @param user the User object containing updated user data
-     * @return true if the update operation was successful, false otherwise
-     * @throws OurException if the update fails due to SQL errors, constraint violations, or transaction issues
+     * @return true if the update operation was successful, false if there was nothing to update
+     * @throws VersionConflictException if the user was modified by someone else since it was read
+     * @throws OurException if the user no longer exists
      */
     private boolean update(User user, MongoCollection<Document> collection) throws OurException 
     {
+        if (user.getChangedFields().contains(ProfileField.PASSWORD))
+        {
+            hashPassword(user);
+        }
 
-        Document filter = new Document("_id", new ObjectId(user.getId()));
+        Document changes = userChanges(user);
 
-        Document updateFields = new Document()
-                .append("P_PASSWORD", user.getPassword())
-                .append("P_NAME", user.getName())
-                .append("P_LASTNAME", user.getLastname())
-                .append("P_TELEPHONE", user.getTelephone())
-                .append("U_GENDER", user.getGender().name())
-                .append("U_CARD", user.getCard());
+        if (changes == null) {
+            return false;
+        }
 
-        Document update = new Document("$set", updateFields);
+        ObjectId id = user.getId();
+        Bson filter = Filters.and(Filters.eq("_id", id), versionFilter(user.getVersion()));
 
-        UpdateResult result = collection.updateOne(filter, update);
+        UpdateResult result = collection.updateOne(filter, changes);
 
         if (result.getMatchedCount() == 0) {
+            if (collection.countDocuments(Filters.eq("_id", id)) > 0) {
+                throw new VersionConflictException();
+            }
             throw new OurException(ErrorMessages.UPDATE_USER);
         }
 
+        user.setVersion(user.getVersion() + 1);
+        user.clearChanges();
         return result.getModifiedCount() > 0;
     }
 
+    /**
+     * Replaces the password of a profile by its hash. Every password set through the setters is hashed, whatever its format, so a value typed in a window or read from an import file is never written as it is; only the value the profile was read with, or one this class has already hashed, is left untouched.
+     *
+     * @param profile the profile about to be written
+     * @throws OurException if the password cannot be hashed
+     */
+    private void hashPassword(Profile profile) throws OurException
+    {
+        if (profile.getPassword() != null && !profile.isStoredPassword())
+        {
+            profile.setStoredPassword(hasher.hash(profile.getPassword()));
+        }
+    }
+
+    /**
+     * Replaces the plain text passwords of many users by their hashes in a single call to the hasher, so they are computed in parallel.
+     *
+     * @param batch the users about to be inserted
+     * @throws OurException if the passwords cannot be hashed
+     */
+    private void hashPasswords(List<User> batch) throws OurException
+    {
+        List<User> plain = new ArrayList<>();
+        List<String> passwords = new ArrayList<>();
+
+        for (User user : batch)
+        {
+            if (user.getPassword() != null && !user.isStoredPassword())
+            {
+                plain.add(user);
+                passwords.add(user.getPassword());
+            }
+        }
+
+        List<String> hashes = hasher.hashAll(passwords);
+
+        for (int i = 0; i < plain.size(); i++)
+        {
+            plain.get(i).setStoredPassword(hashes.get(i));
+        }
+    }
+
+    /**
+     * Builds the condition that a stored profile still has the given version. Profiles saved before versions were introduced have no P_VERSION field and are treated as version 0.
+     *
+     * @param version the version the profile was read with
+     * @return the filter matching that version
+     */
+    private Bson versionFilter(long version)
+    {
+        return version == 0
+                ? Filters.or(Filters.eq("P_VERSION", 0L), Filters.exists("P_VERSION", false))
+                : Filters.eq("P_VERSION", version);
+    }
+
+
+    /**
+     * Builds the update document that stores the editable fields modified since the user was read and increments its version. Unmodified fields are left out of the $set, which keeps the write and its oplog entry small. Credentials and the identifier are never changed.
+     *
+     * @param user the User object containing updated user data
+     * @return the $set and $inc update for the user, or null if no editable field was modified
+     */
+    private Document userChanges(User user)
+    {
+        Document set = new Document();
+
+        for (ProfileField field : user.getChangedFields())
+        {
+            if (USER_EDITABLE_FIELDS.contains(field))
+            {
+                set.append(field.getDocumentField(), userValue(user, field));
+            }
+        }
+
+        return set.isEmpty() ? null : new Document("$set", set).append("$inc", new Document("P_VERSION", 1L));
+    }
+
+    /**
+     * Returns the value stored for an editable field of a user.
+     *
+     * @param user the user to read
+     * @param field the editable field
+     * @return the value as it is stored in the users collection
+     */
+    private Object userValue(User user, ProfileField field)
+    {
+        switch (field)
+        {
+            case PASSWORD:
+                return user.getPassword();
+            case NAME:
+                return user.getName();
+            case LASTNAME:
+                return user.getLastname();
+            case TELEPHONE:
+                return user.getTelephone();
+            case GENDER:
+                return user.getGender() != null ? user.getGender().name() : null;
+            case CARD:
+                return user.getCard();
+            default:
+                throw new IllegalArgumentException("Not an editable user field: " + field);
+        }
+    }
+
+    /**
+     * Reads the current version of the regular users among the given identifiers. Only the _id and P_VERSION fields are read, and profiles without a version are reported as version 0.
+     *
+     * @param collection from database to make the queries on it
+     * @param ids the identifiers to look for
+     * @return the version of every identifier that belongs to an existing regular user
+     */
+    private Map<ObjectId, Long> selectUserVersions(MongoCollection<Document> collection, Collection<ObjectId> ids)
+    {
+        Map<ObjectId, Long> versions = new HashMap<>();
+
+        for (Document document : collection.find(Filters.and(Filters.in("_id", ids), userFilter)).projection(Projections.include("_id", "P_VERSION")))
+        {
+            Number version = document.get("P_VERSION", Number.class);
+            versions.put(document.getObjectId("_id"), version != null ? version.longValue() : 0L);
+        }
+
+        return versions;
+    }
+
+    /**
+     * Reads which of the given identifiers belong to existing users. The query only touches the _id index and returns nothing but identifiers, so checking thousands of users costs a single light round trip.
+     *
+     * @param collection from database to make the queries on it
+     * @param ids the identifiers to check
+     * @return the identifiers that belong to an existing user
+     */
+    private Set<ObjectId> selectExistingUserIds(MongoCollection<Document> collection, Collection<ObjectId> ids)
+    {
+        Set<ObjectId> existing = new HashSet<>();
+
+        for (Document document : collection.find(Filters.and(Filters.in("_id", ids), userFilter)).projection(Projections.include("_id")))
+        {
+            existing.add(document.getObjectId("_id"));
+        }
+
+        return existing;
+    }
 
     /**
      * Deletes a user from the database by their unique identifier. This method removes a user record from the system based on the provided user ID.
@@ -138,71 +517,44 @@ public class DBImplementation implements ModelDAO
      * @return true if the deletion was successful, false if no user was found with the specified ID
      * @throws OurException if the deletion operation fails due to SQL errors or database constraints
      */
-    private DeleteResult delete(MongoCollection<Document> collection, String userId) throws OurException
+    private DeleteResult delete(MongoCollection<Document> collection, ObjectId userId) throws OurException
     {
-        ObjectId objectId = new ObjectId(userId);
-        
-        return collection.deleteOne(Filters.eq("_id", objectId));
+        return collection.deleteOne(Filters.eq("_id", userId));
     }
 
     /**
-     * Authenticates a user by verifying credentials against the database. This method checks if the provided credential (email or username) and password match an existing user record and returns the appropriate profile type (User or Admin) upon successful authentication.
+     * Authenticates a user by verifying credentials against the database. This method looks up the profile through the unique index that matches the credential format, falling back to the username index only when a credential that looks like an email matches no email, then checks the password once against the stored PBKDF2 hash on the calling DAO worker, and returns the appropriate profile type (User or Admin) upon successful authentication. A legacy plain text password, or a hash made with fewer iterations than the current work factor, is hashed again once the password has been proved correct.
      *
      * @param credential the user's email or username for identification
      * @param password the user's password for authentication
      * @return the authenticated user's Profile object (User or Admin) if credentials are valid, null otherwise
-     * @throws OurException if the authentication process fails due to SQL errors or data retrieval issues
+     * @throws OurException if the authentication process fails due to database errors, or if the stored hash cannot be checked
      */
     private Profile loginProfile(String credential, String password) throws OurException
     {
         try
         {
-            MongoCollection<Document> users =
-                    MongoConnection.getUsersCollection();
-            
-            Document query = new Document("$and", Arrays.asList(
-                    new Document("$or", Arrays.asList(
-                            new Document("P_EMAIL", credential),
-                            new Document("P_USERNAME", credential)
-                    )),
-                    new Document("P_PASSWORD", password)
-            ));
-            
-            Document doc = users.find(query).first();
-            if (doc == null) return null;
+            MongoCollection<Profile> users = getProfilesCollection();
             
-            String gender = doc.getString("U_GENDER");
-            String admin = doc.getString("A_CURRENT_ACCOUNT");
-            
-            String pId = doc.getObjectId("_id").toHexString();
-            
-            if (gender != null) {
-                return new User(
-                    pId,
-                    doc.getString("P_EMAIL"),
-                    doc.getString("P_USERNAME"),
-                    doc.getString("P_PASSWORD"),
-                    doc.getString("P_NAME"),
-                    doc.getString("P_LASTNAME"),
-                    doc.getString("P_TELEPHONE"),
-                    Gender.valueOf(gender),
-                    doc.getString("U_CARD")
-                );
-            } else if (admin != null) {
-                return new Admin(
-                    pId,
-                    doc.getString("P_EMAIL"),
-                    doc.getString("P_USERNAME"),
-                    doc.getString("P_PASSWORD"),
-                    doc.getString("P_NAME"),
-                    doc.getString("P_LASTNAME"),
-                    doc.getString("P_TELEPHONE"),
-                    admin
-                );
+            Profile profile = null;
+
+            if (isEmail(credential))
+            {
+                profile = findLoginProfile(users, "P_EMAIL", credential);
             }
-            
-            return null;
+
+            // A username may also look like an email, so the username index is tried only when no email matched
+            if (profile == null)
+            {
+                profile = findLoginProfile(users, "P_USERNAME", credential);
+            }
+
+            return profile != null ? authenticate(users, profile, password) : null;
         } 
+        catch (OurException ex)
+        {
+            throw ex;
+        }
         catch (Exception ex) 
         {
             throw new OurException(ErrorMessages.LOGIN);
@@ -210,141 +562,724 @@ public class DBImplementation implements ModelDAO
     }
 
     /**
-     * Checks if the provided email or username already exists in the database. This method verifies the uniqueness of user credentials during registration to prevent duplicate accounts.
+     * Builds the filter used to look up a profile through a single unique index. The password is not part of the filter, since it can only be checked against the stored hash once the profile has been read.
      *
-     * @param email the email address to check for existence
-     * @param username the username to check for existence
-     * @return a HashMap indicating which credentials already exist with keys "email" and "username" and boolean values
-     * @throws OurException if the verification process fails due to SQL errors
+     * @param field the indexed field holding the credential, either P_EMAIL or P_USERNAME
+     * @param credential the user's email or username
+     * @return the filter for the login query
      */
-    private HashMap<String, Boolean> checkCredentialsExistence(String email, String username) throws OurException
+    private Bson loginFilter(String field, String credential)
     {
-        HashMap<String, Boolean> exists = new HashMap<>();
-        exists.put("email", false);
-        exists.put("username", false);
-
-        try {
-            MongoCollection<Document> users = MongoConnection.getUsersCollection();
-
-            // email
-            if (users.find(new Document("P_EMAIL", email)).first() != null) {
-                exists.put("email", true);
-            }
-
-            // username
-            if (users.find(new Document("P_USERNAME", username)).first() != null) {
-                exists.put("username", true);
-            }
-
-            return exists;
-
-        } catch (Exception ex) {
-            throw new OurException(ErrorMessages.VERIFY_CREDENTIALS);
-        }
+        return Filters.eq(field, credential);
     }
 
     /**
-     * Authenticates a user with the provided credentials. This method verifies user identity by checking the provided credential and password against stored user data and sets the logged-in profile upon successful authentication.
+     * Looks up the profile matching a credential. This method queries a single unique index and only reads the fields needed to build the profile and check its password.
      *
-     * @param credential the user's username or email address used for identification
-     * @param password the user's password for authentication
-     * @return the authenticated user's Profile object containing user information and access privileges, or null if authentication fails
-     * @throws OurException if authentication fails due to database errors or system issues
+     * @param users the users collection
+     * @param field the indexed field holding the credential, either P_EMAIL or P_USERNAME
+     * @param credential the user's email or username
+     * @return the matching User or Admin, or null if no profile has that credential
      */
-    @Override
-    public Profile login(String credential, String password) throws OurException
+    private Profile findLoginProfile(MongoCollection<Profile> users, String field, String credential)
     {
-        Profile profile = loginProfile(credential, password);
-        
-        if (profile != null)
-        {
-            LoggedProfile.getInstance().setProfile(profile);
-        }
-        
-        return profile;
+        return users.find(loginFilter(field, credential)).projection(LOGIN_PROJECTION).first();
     }
 
     /**
-     * Registers a new user in the system with duplicate credential checking. This method validates credential uniqueness, creates a new user account, and returns the registered user with their identifier.
+     * Checks the password of the profile found for a credential, and hashes it again if its stored hash is outdated.
      *
-     * @param user the User object containing all registration information
-     * @return the registered User object with the generated ID and system-assigned values
-     * @throws OurException if registration fails due to duplicate credentials, database constraints, or system errors
+     * @param users the users collection
+     * @param profile the profile found for the credential
+     * @param password the user's password
+     * @return the profile if the password is correct, or null otherwise
+     * @throws OurException if the stored hash cannot be checked
      */
-    @Override
-    public User register(User user) throws OurException {
-
-        Map<String, Boolean> existing =
-                checkCredentialsExistence(user.getEmail(), user.getUsername());
-
-        if (existing.get("email") && existing.get("username")) {
-            throw new OurException("Both email and username already exist");
-        } else if (existing.get("email")) {
-            throw new OurException("Email already exists");
-        } else if (existing.get("username")) {
-            throw new OurException("Username already exists");
+    private Profile authenticate(MongoCollection<Profile> users, Profile profile, String password) throws OurException
+    {
+        if (!hasher.verify(password, profile.getPassword()))
+        {
+            return null;
         }
 
-        String id = insert(user);
-
-        if (id == null) {
-            throw new OurException(ErrorMessages.REGISTER_USER);
+        if (hasher.needsRehash(profile.getPassword()))
+        {
+            rehash(users, profile, password);
         }
 
-        user.setId(id);
-        return user;
+        return profile;
     }
 
     /**
-     * Retrieves a list of all users from the system. This method provides access to the complete user database, typically used by administrative interfaces for user management operations.
+     * Stores a new hash of a password that has just been verified. The update only applies if the stored password is still the one that was checked, so a password changed at the same time is never overwritten, and it does not increment the version, since the password itself does not change. A failure is only logged: the login succeeds anyway and the password is hashed again on the next one.
      *
-     * @return an ArrayList containing all User objects in the system
-     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     * @param users the users collection
+     * @param profile the authenticated profile, updated with the new hash
+     * @param password the verified plain text password
      */
-    @Override
-    public ArrayList<User> getUsers() throws OurException
+    private void rehash(MongoCollection<Profile> users, Profile profile, String password)
     {
         try
         {
-            MongoCollection<Document> collection = MongoConnection.getUsersCollection();
-            ArrayList<User> users = selectUsers(collection);
+            String stored = profile.getPassword();
+            String hash = hasher.hash(password);
 
-            return users;
+            users.updateOne(Filters.and(Filters.eq("_id", profile.getId()), Filters.eq("P_PASSWORD", stored)),
+                    new Document("$set", new Document("P_PASSWORD", hash)));
+
+            profile.setStoredPassword(hash);
         }
-        catch (OurException ex)
+        catch (OurException | MongoException ex)
         {
-            throw new OurException(ErrorMessages.GET_USERS);
+            LOGGER.log(Level.WARNING, "Password of profile " + profile.getId() + " could not be hashed again", ex);
         }
     }
 
     /**
-     * Updates an existing user's information in the system. This method persists changes made to a user's profile data, ensuring that modifications are saved to the database.
+     * Checks whether a credential is an email address. This method uses the same pattern the registration form uses to validate emails, so it decides which unique index a login query has to use.
      *
-     * @param user the User object containing updated information to be saved
-     * @return true if the update operation was successful, false if no changes were made or the operation did not affect any records
-     * @throws OurException if the update operation fails due to validation errors, database constraints violations, or data access issues
+     * @param credential the credential entered by the user
+     * @return true if the credential has the format of an email address, false otherwise
      */
-    @Override
-    public boolean updateUser(User user) throws OurException 
+    private boolean isEmail(String credential)
     {
-        try {
-            MongoCollection<Document> collection = MongoConnection.getUsersCollection();
-            return update(user, collection);
-        } catch (Exception e) {
-            throw new OurException(ErrorMessages.UPDATE_USER);
-        }
+        return EMAIL_PATTERN.matcher(credential).matches();
     }
 
-
     /**
-     * Deletes a user from the system by their unique identifier. This method permanently removes a user record from the database based on the provided user ID.
+     * Creates the indexes the application queries rely on, if they do not exist yet. Besides the unique credential indexes described in BD_Reto_Crud.js, this method creates an index on P_LASTNAME for the user search, a compound index on U_GENDER and _id, which serves the gender filter in identifier order and the user table sorted by gender, a compound index on P_NAME and _id, which serves the user table sorted by name, and a compound index on P_TYPE and _id, which turns every listing of regular users into a range scan in identifier order. The credential indexes stay unique across both profile types, since a login looks up users and administrators with the same credential. Creating an index that already exists does nothing, so the method is safe to call on every start; an index that cannot be created, such as a unique index over duplicated values, is logged and the rest are still created.
      *
-     * @param id the unique identifier of the user to be deleted
+     * @return true if every index exists, false if any of them could not be created
+     */
+    public boolean createIndexes()
+    {
+        MongoCollection<Document> users = MongoConnection.getUsersCollection();
+        boolean created = true;
+
+        Bson[] keys =
+        {
+            Indexes.ascending("P_EMAIL"), Indexes.ascending("P_USERNAME"), Indexes.ascending("P_LASTNAME"), Indexes.ascending("U_GENDER", "_id"),
+            Indexes.ascending("P_TYPE", "_id"), Indexes.ascending("P_NAME", "_id")
+        };
+        IndexOptions[] options =
+        {
+            new IndexOptions().unique(true), new IndexOptions().unique(true), new IndexOptions(), new IndexOptions(), new IndexOptions(), new IndexOptions()
+        };
+
+        for (int i = 0; i < keys.length; i++)
+        {
+            try
+            {
+                users.createIndex(keys[i], options[i]);
+            }
+            catch (MongoException ex)
+            {
+                LOGGER.log(Level.WARNING, "Index " + keys[i].toBsonDocument() + " could not be created", ex);
+                created = false;
+            }
+        }
+
+        return created;
+    }
+
+    /**
+     * Adds the P_TYPE field to the profiles stored before it existed. This method reads the untyped documents with a single cursor, only fetching the fields that tell a user from an administrator, and sets their type with one updateMany every MIGRATION_BATCH_SIZE documents, so the collection is scanned once and no single write touches more than a batch. Documents that gain the field in the meantime are skipped by the update filter, so the method is safe to run while the application is in use and does nothing once every document has been migrated. Until it has gone through every untyped document, the queries of this class also match users and administrators told apart by their fields, as the ProfileCodec does, so an unmigrated database is never shown as empty while the migration runs; once it finishes they only match on P_TYPE and use the P_TYPE index. A failure is logged and leaves the remaining documents, and the slower filters, for the next run.
+     *
+     * @return the number of documents that were given a type
+     */
+    public long migrateProfileTypes()
+    {
+        MongoCollection<Document> collection = MongoConnection.getUsersCollection();
+        List<ObjectId> users = new ArrayList<>(MIGRATION_BATCH_SIZE);
+        List<ObjectId> admins = new ArrayList<>(MIGRATION_BATCH_SIZE);
+        long migrated = 0;
+
+        try (MongoCursor<Document> cursor = collection.find(Filters.exists("P_TYPE", false))
+                .projection(Projections.include("U_GENDER", "A_CURRENT_ACCOUNT"))
+                .batchSize(MIGRATION_BATCH_SIZE)
+                .iterator())
+        {
+            while (cursor.hasNext())
+            {
+                Document document = cursor.next();
+
+                if (document.containsKey("U_GENDER"))
+                {
+                    users.add(document.getObjectId("_id"));
+                }
+                else if (document.containsKey("A_CURRENT_ACCOUNT"))
+                {
+                    admins.add(document.getObjectId("_id"));
+                }
+
+                if (users.size() == MIGRATION_BATCH_SIZE)
+                {
+                    migrated += setProfileType(collection, users, ProfileType.USER);
+                }
+
+                if (admins.size() == MIGRATION_BATCH_SIZE)
+                {
+                    migrated += setProfileType(collection, admins, ProfileType.ADMIN);
+                }
+            }
+
+            migrated += setProfileType(collection, users, ProfileType.USER);
+            migrated += setProfileType(collection, admins, ProfileType.ADMIN);
+
+            userFilter = USER_FILTER;
+            adminFilter = ADMIN_FILTER;
+        }
+        catch (MongoException ex)
+        {
+            LOGGER.log(Level.WARNING, "Profile type migration stopped after " + migrated + " documents", ex);
+        }
+
+        if (migrated > 0)
+        {
+            LOGGER.log(Level.INFO, "Profile type added to {0} documents", migrated);
+        }
+
+        return migrated;
+    }
+
+    /**
+     * Sets the type of a batch of untyped profiles and empties the batch.
+     *
+     * @param collection the users collection
+     * @param ids the identifiers of the batch
+     * @param type the type of every profile of the batch
+     * @return the number of documents updated
+     */
+    private long setProfileType(MongoCollection<Document> collection, List<ObjectId> ids, ProfileType type)
+    {
+        if (ids.isEmpty())
+        {
+            return 0;
+        }
+
+        long updated = collection.updateMany(Filters.and(Filters.in("_id", ids), Filters.exists("P_TYPE", false)),
+                new Document("$set", new Document("P_TYPE", type.name()))).getModifiedCount();
+        ids.clear();
+        return updated;
+    }
+
+    /**
+     * Verifies that the login queries are served by an index. This method asks the server to explain the email and username login queries, walks the stages of the winning plan reported under queryPlanner and logs a warning for every query whose plan scans the collection or has no index scan stage, which usually means the unique indexes from BD_Reto_Crud.js have not been created. Only the stage names are looked at, so an index or field whose name happens to contain COLLSCAN or IXSCAN does not change the result.
+     *
+     * @return true if both login queries use an index scan, false otherwise
+     * @throws OurException if the query plans cannot be retrieved from the database
+     */
+    public boolean checkLoginQueryPlan() throws OurException
+    {
+        try
+        {
+            MongoCollection<Document> users = MongoConnection.getUsersCollection();
+            boolean indexed = true;
+
+            for (String field : new String[]{"P_EMAIL", "P_USERNAME"})
+            {
+                Document queryPlanner = users.find(loginFilter(field, "")).projection(LOGIN_PROJECTION).explain().get("queryPlanner", Document.class);
+                Set<String> stages = new HashSet<>();
+
+                if (queryPlanner != null)
+                {
+                    collectStages(queryPlanner.get("winningPlan", Document.class), stages);
+                }
+
+                if (stages.contains("COLLSCAN") || stages.stream().noneMatch(stage -> stage.endsWith("IXSCAN")))
+                {
+                    LOGGER.log(Level.WARNING, "Login query on {0} is not using an index (COLLSCAN). Create the unique index described in BD_Reto_Crud.js.", field);
+                    indexed = false;
+                }
+            }
+
+            return indexed;
+        }
+        catch (MongoException ex)
+        {
+            throw new OurException(ErrorMessages.DATABASE);
+        }
+    }
+
+    /**
+     * Adds the stage names of a query plan node and of every node below it. Besides the inputStage and inputStages children of the classic plans, this method follows the queryPlan node of the slot based engine and the winning plans of each shard.
+     *
+     * @param node the plan node, or null if there is none
+     * @param stages the set the stage names are added to
+     */
+    private void collectStages(Document node, Set<String> stages)
+    {
+        if (node == null)
+        {
+            return;
+        }
+
+        String stage = node.getString("stage");
+
+        if (stage != null)
+        {
+            stages.add(stage);
+        }
+
+        collectStages(node.get("inputStage", Document.class), stages);
+        collectStages(node.get("queryPlan", Document.class), stages);
+        collectStages(node.get("winningPlan", Document.class), stages);
+
+        for (String children : new String[]{"inputStages", "shards"})
+        {
+            List<?> list = node.get(children, List.class);
+
+            if (list != null)
+            {
+                for (Object child : list)
+                {
+                    if (child instanceof Document)
+                    {
+                        collectStages((Document) child, stages);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Authenticates a user with the provided credentials. This method verifies user identity by checking the provided credential and password against stored user data and sets the logged-in profile upon successful authentication.
+     *
+     * @param credential the user's username or email address used for identification
+     * @param password the user's password for authentication
+     * @return the authenticated user's Profile object containing user information and access privileges, or null if authentication fails
+     * @throws OurException if authentication fails due to database errors or system issues
+     */
+    @Override
+    public Profile login(String credential, String password) throws OurException
+    {
+        Profile profile = loginProfile(credential, password);
+        
+        if (profile != null)
+        {
+            LoggedProfile.getInstance().setProfile(profile);
+        }
+        
+        return profile;
+    }
+
+    /**
+     * Registers a new user in the system with duplicate credential checking. This method creates a new user account, letting the unique indexes reject duplicate credentials, and returns the registered user with their identifier.
+     *
+     * @param user the User object containing all registration information
+     * @return the registered User object with the generated ID and system-assigned values
+     * @throws OurException if registration fails due to duplicate credentials, database constraints, or system errors
+     */
+    @Override
+    public User register(User user) throws OurException {
+
+        ObjectId id = insert(user);
+
+        if (id == null) {
+            throw new OurException(ErrorMessages.REGISTER_USER);
+        }
+
+        user.setId(id);
+        return user;
+    }
+
+    /**
+     * Registers many users with one insertMany per batch instead of one round trip per user. Batches are sent unordered, so the server keeps inserting the rest of a batch when a user is rejected; each rejected user is reported with its position in the input and the reason, which is translated from the violated unique index for duplicate credentials. Only one batch of users is held in memory at a time.
+     *
+     * @param users the users to register, read only once and in order
+     * @param batchSize the maximum number of users sent in a single insertMany
+     * @return a report with the number of registered users and one failure for every rejected user
+     * @throws OurException if a batch cannot be sent due to database errors
+     */
+    @Override
+    public BulkReport registerAll(Iterable<User> users, int batchSize) throws OurException
+    {
+        BulkReport report = new BulkReport();
+        List<User> batch = new ArrayList<>(batchSize);
+        int batchStart = 0;
+
+        try
+        {
+            MongoCollection<Profile> collection = getProfilesCollection();
+
+            for (User user : users)
+            {
+                batch.add(user);
+
+                if (batch.size() == batchSize)
+                {
+                    insertBatch(collection, batch, batchStart, report);
+                    batchStart += batch.size();
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty())
+            {
+                insertBatch(collection, batch, batchStart, report);
+            }
+
+            return report;
+        }
+        catch (MongoException ex)
+        {
+            LOGGER.log(Level.WARNING, "Bulk registration stopped after " + report, ex);
+            throw new OurException(ErrorMessages.REGISTER_USER);
+        }
+    }
+
+    /**
+     * Sends one batch of a bulk registration as an unordered insertMany and adds its outcome to the report. The plain text passwords of the batch are hashed first, spread over every thread of the hashing pool. Users rejected by the server get their generated identifier cleared, since they were not stored.
+     *
+     * @param collection the users collection
+     * @param batch the users of the batch
+     * @param batchStart the position of the first user of the batch in the whole input
+     * @param report the report to fill
+     * @throws OurException if the passwords cannot be hashed
+     */
+    private void insertBatch(MongoCollection<Profile> collection, List<User> batch, int batchStart, BulkReport report) throws OurException
+    {
+        hashPasswords(batch);
+
+        try
+        {
+            collection.insertMany(batch, new InsertManyOptions().ordered(false));
+            report.addProcessed(batch.size(), batch.size());
+        }
+        catch (MongoBulkWriteException ex)
+        {
+            for (BulkWriteError error : ex.getWriteErrors())
+            {
+                User rejected = batch.get(error.getIndex());
+                String message = error.getCategory() == ErrorCategory.DUPLICATE_KEY
+                        ? duplicateCredential(error.getMessage()).getMessage()
+                        : error.getMessage();
+
+                rejected.setId(null);
+                report.addFailure(batchStart + error.getIndex(), rejected.getUsername(), message);
+            }
+
+            report.addProcessed(batch.size(), ex.getWriteResult().getInsertedCount());
+        }
+    }
+
+    /**
+     * Retrieves a list of all users from the system. This method provides access to the complete user database, typically used by administrative interfaces for user management operations.
+     *
+     * @return an ArrayList containing all User objects in the system
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<User> getUsers() throws OurException
+    {
+        try
+        {
+            MongoCollection<Profile> collection = getProfilesCollection();
+            ArrayList<User> users = selectUsers(collection);
+
+            return users;
+        }
+        catch (OurException ex)
+        {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    /**
+     * Retrieves one page of users from the system using keyset pagination. This method lets administrative interfaces load users incrementally instead of holding the complete user database in memory.
+     *
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing at most limit User objects ordered by identifier
+     * @throws OurException if the identifier is not valid or the retrieval fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<User> getUsersPage(ObjectId afterId, int limit) throws OurException
+    {
+        try
+        {
+            MongoCollection<Profile> collection = getProfilesCollection();
+            return selectUsersPage(collection, afterId, limit);
+        }
+        catch (IllegalArgumentException | MongoException ex)
+        {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    /**
+     * Retrieves the identifying data of all users from the system. This method reads only the identifier, username, email, name and gender of each user, which is enough for administrative listings.
+     *
+     * @return an ArrayList containing a UserSummary for every user in the system
+     * @throws OurException if the retrieval fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<UserSummary> getUserSummaries() throws OurException
+    {
+        return getUserSummariesPage(null, 0);
+    }
+
+    /**
+     * Retrieves one page of user summaries from the system using keyset pagination. This method lets administrative interfaces list users incrementally while reading only their identifying data.
+     *
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of summaries to return, or 0 to return every remaining user
+     * @return an ArrayList containing at most limit UserSummary objects ordered by identifier
+     * @throws OurException if the identifier is not valid or the retrieval fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<UserSummary> getUserSummariesPage(ObjectId afterId, int limit) throws OurException
+    {
+        try
+        {
+            MongoCollection<Document> collection = MongoConnection.getUsersCollection();
+            return selectUserSummaries(collection, userFilter, afterId, limit);
+        }
+        catch (IllegalArgumentException | MongoException ex)
+        {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    /**
+     * Searches users with a single query on the server. The text is matched as an anchored, case-sensitive prefix of P_USERNAME, P_EMAIL and P_LASTNAME, so each branch of the $or becomes a bounded scan of the index on its field instead of a collection scan; regular expression characters in the text are quoted. The gender filter is served by the compound U_GENDER and _id index. Both sets of indexes are created by createIndexes.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of summaries to return
+     * @return an ArrayList containing at most limit matching UserSummary objects ordered by identifier
+     * @throws OurException if the identifier is not valid or the search fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<UserSummary> searchUsers(String query, Gender gender, ObjectId afterId, int limit) throws OurException
+    {
+        try
+        {
+            MongoCollection<Document> collection = MongoConnection.getUsersCollection();
+            return selectUserSummaries(collection, searchFilter(query, gender), afterId, limit);
+        }
+        catch (IllegalArgumentException | MongoException ex)
+        {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    /**
+     * Searches users with a single query on the server and returns one range of the matches in the requested order. The filter is the same as in searchUsers; the sort is served by the index of the sort attribute, so the server walks the index up to the requested range instead of sorting the matches, and only the summary fields of the range are sent. The cost of skipping grows with the offset, but it is an index walk on the server and stays well below the cost of sending the skipped users.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @param sortField the attribute to sort by, one of USERNAME, EMAIL, NAME or GENDER, or null to sort by identifier
+     * @param ascending true to sort from the lowest value, false to sort from the highest
+     * @param offset the position of the first summary to return among every matching user
+     * @param limit the maximum number of summaries to return
+     * @return an ArrayList containing at most limit matching UserSummary objects in the requested order
+     * @throws OurException if the sort attribute is not valid or the search fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<UserSummary> searchUsersSorted(String query, Gender gender, ProfileField sortField, boolean ascending, int offset, int limit) throws OurException
+    {
+        try
+        {
+            ArrayList<UserSummary> summaries = new ArrayList<>();
+
+            for (Document doc : MongoConnection.getUsersCollection().find(searchFilter(query, gender))
+                    .projection(SUMMARY_PROJECTION)
+                    .sort(summaryOrder(sortField, ascending))
+                    .skip(offset)
+                    .limit(limit))
+            {
+                summaries.add(toSummary(doc));
+            }
+
+            return summaries;
+        }
+        catch (IllegalArgumentException | MongoException ex)
+        {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    /**
+     * Counts the users matching a search on the server. The filter is the same as in searchUsers, so the count is served by the same indexes and no user is sent.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @return the number of matching users
+     * @throws OurException if the count fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public long countUsers(String query, Gender gender) throws OurException
+    {
+        try
+        {
+            return MongoConnection.getUsersCollection().countDocuments(searchFilter(query, gender));
+        }
+        catch (IllegalArgumentException | MongoException ex)
+        {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    /**
+     * Computes the dashboard statistics with a single aggregation. After projecting away everything but the P_TYPE, U_GENDER and A_CURRENT_ACCOUNT fields, which tell the profile types apart, one $facet stage counts the users of each gender, the administrators and the users registered in each month since the first day of the oldest requested month. Registration dates are taken from the timestamp every ObjectId carries, so no extra field is needed. The server scans the collection once and returns one small document; months without registrations are added here with a count of zero, and users whose gender is missing or not a known value are counted as OTHER, so a malformed document does not break the dashboard.
+     *
+     * @param months the number of months of registrations to report, including the current one
+     * @return the statistics of the users collection
+     * @throws OurException if the aggregation fails due to database errors
+     */
+    @Override
+    public UserStatistics getUserStatistics(int months) throws OurException
+    {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        YearMonth first = current.minusMonths(Math.max(months, 1) - 1);
+        long firstSecond = first.atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        ObjectId firstId = new ObjectId(String.format("%08x%016x", firstSecond, 0));
+
+        try
+        {
+            Document result = MongoConnection.getUsersCollection().aggregate(Arrays.asList(
+                    Aggregates.project(Projections.include("P_TYPE", "U_GENDER", "A_CURRENT_ACCOUNT")),
+                    Aggregates.facet(
+                            new Facet("genders",
+                                    Aggregates.match(userFilter),
+                                    Aggregates.group("$U_GENDER", Accumulators.sum("count", 1))),
+                            new Facet("admins",
+                                    Aggregates.match(adminFilter),
+                                    Aggregates.count("count")),
+                            new Facet("registrations",
+                                    Aggregates.match(Filters.and(userFilter, Filters.gte("_id", firstId))),
+                                    Aggregates.group(new Document("$dateToString",
+                                            new Document("format", "%Y-%m").append("date", new Document("$toDate", "$_id"))),
+                                            Accumulators.sum("count", 1))))
+            )).first();
+
+            Map<Gender, Long> genders = new EnumMap<>(Gender.class);
+
+            for (Document group : result.getList("genders", Document.class))
+            {
+                genders.merge(genderOf(group.get("_id")), group.get("count", Number.class).longValue(), Long::sum);
+            }
+
+            List<Document> adminCount = result.getList("admins", Document.class);
+            long admins = adminCount.isEmpty() ? 0 : adminCount.get(0).get("count", Number.class).longValue();
+
+            SortedMap<YearMonth, Long> registrations = new TreeMap<>();
+
+            for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1))
+            {
+                registrations.put(month, 0L);
+            }
+
+            for (Document group : result.getList("registrations", Document.class))
+            {
+                registrations.put(YearMonth.parse(group.getString("_id")), group.get("count", Number.class).longValue());
+            }
+
+            return new UserStatistics(admins, genders, registrations);
+        }
+        catch (IllegalArgumentException | MongoException ex)
+        {
+            throw new OurException(ErrorMessages.GET_STATISTICS);
+        }
+    }
+
+    /**
+     * Returns the gender a statistics group was made for. The group of documents without a U_GENDER field has a null identifier, and any value that is not a Gender, such as one written by hand in the database, is also counted as OTHER.
+     *
+     * @param id the identifier of the group
+     * @return the gender of the group
+     */
+    private Gender genderOf(Object id)
+    {
+        for (Gender gender : Gender.values())
+        {
+            if (gender.name().equals(id))
+            {
+                return gender;
+            }
+        }
+
+        return Gender.OTHER;
+    }
+
+    /**
+     * Builds the filter of a user search.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @return the filter matching the users of the search
+     */
+    private Bson searchFilter(String query, Gender gender)
+    {
+        Bson filter = gender != null ? Filters.and(userFilter, Filters.eq("U_GENDER", gender.name())) : userFilter;
+
+        if (query == null || query.isEmpty())
+        {
+            return filter;
+        }
+
+        Pattern prefix = Pattern.compile("^" + Pattern.quote(query));
+
+        return Filters.and(filter, Filters.or(
+                Filters.regex("P_USERNAME", prefix),
+                Filters.regex("P_EMAIL", prefix),
+                Filters.regex("P_LASTNAME", prefix)));
+    }
+
+    /**
+     * Retrieves the complete data of a single user by their unique identifier. This method is used to load a user on demand after it has been chosen from a listing of summaries.
+     *
+     * @param id the unique identifier of the user to retrieve
+     * @return the User object with all its profile information, or null if no user exists with the specified ID
+     * @throws OurException if the retrieval fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public User getUser(ObjectId id) throws OurException
+    {
+        try
+        {
+            MongoCollection<Profile> collection = getProfilesCollection();
+            return selectUser(collection, id);
+        }
+        catch (MongoException ex)
+        {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    /**
+     * Updates an existing user's information in the system. This method persists changes made to a user's profile data, ensuring that modifications are saved to the database.
+     *
+     * @param user the User object containing updated information to be saved
+     * @return true if the update operation was successful, false if no changes were made or the operation did not affect any records
+     * @throws VersionConflictException if the user was modified by someone else since it was read
+     * @throws OurException if the update operation fails due to validation errors, database constraints violations, or data access issues
+     */
+    @Override
+    public boolean updateUser(User user) throws OurException 
+    {
+        try {
+            MongoCollection<Document> collection = MongoConnection.getUsersCollection();
+            return update(user, collection);
+        } catch (VersionConflictException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OurException(ErrorMessages.UPDATE_USER);
+        }
+    }
+
+
+    /**
+     * Deletes a user from the system by their unique identifier. This method permanently removes a user record from the database based on the provided user ID.
+     *
+     * @param id the unique identifier of the user to be deleted
      * @return true if the deletion was successful, false if no user was found with the specified ID or the operation did not affect any records
      * @throws OurException if the deletion operation fails due to database constraints, referential integrity issues, or data access errors
      */
     @Override
-    public boolean deleteUser(String id) throws OurException {
+    public boolean deleteUser(ObjectId id) throws OurException {
         try {
             MongoCollection<Document> collection = MongoConnection.getUsersCollection();
             
@@ -352,12 +1287,266 @@ public class DBImplementation implements ModelDAO
 
             return resultt.getDeletedCount() > 0;
         }
-        catch (IllegalArgumentException ex) {
-            // id no válido (no es ObjectId)
+        catch (MongoException ex) {
             throw new OurException(ErrorMessages.DELETE_USER);
         }
-        catch (MongoException ex) {
+    }
+
+    /**
+     * Updates many users with a single unordered bulkWrite. Missing identifiers, identifiers that do not belong to an existing user, and users whose stored version is no longer the one they were read with, are reported first and left out of the request; the remaining users are updated with one updateOne model each, conditioned on their version and limited to their modified fields like updateUser, and any write error is reported with the position of the user in the input. If a user is modified by someone else between the version check and the write, the condition makes its update match nothing and it is reported as a conflict as well. Users without modified fields are counted as updated without being sent. Updated users get their new version.
+     *
+     * @param users the User objects containing the updated information
+     * @return a report with the number of updated users and one failure for every user that was not updated
+     * @throws OurException if the request fails due to database errors
+     */
+    @Override
+    public BulkReport updateUsers(Collection<User> users) throws OurException
+    {
+        BulkReport report = new BulkReport();
+        Map<ObjectId, Integer> positions = validIds(users.stream().map(User::getId).collect(Collectors.toList()), report);
+
+        try
+        {
+            MongoCollection<Document> collection = MongoConnection.getUsersCollection();
+            Map<ObjectId, Long> versions = selectUserVersions(collection, positions.keySet());
+            List<UpdateOneModel<Document>> updates = new ArrayList<>();
+            List<Integer> updatePositions = new ArrayList<>();
+            List<User> input = new ArrayList<>(users);
+            int unchanged = 0;
+
+            for (Map.Entry<ObjectId, Integer> entry : positions.entrySet())
+            {
+                User user = input.get(entry.getValue());
+                Long version = versions.get(entry.getKey());
+
+                if (version != null && version == user.getVersion() && user.getChangedFields().contains(ProfileField.PASSWORD))
+                {
+                    hashPassword(user);
+                }
+
+                Document changes = userChanges(user);
+
+                if (version == null)
+                {
+                    report.addFailure(entry.getValue(), entry.getKey().toHexString(), ErrorMessages.USER_NOT_FOUND);
+                    continue;
+                }
+
+                if (changes == null)
+                {
+                    unchanged++;
+                    continue;
+                }
+
+                if (version != user.getVersion())
+                {
+                    report.addFailure(entry.getValue(), entry.getKey().toHexString(), ErrorMessages.VERSION_CONFLICT);
+                    continue;
+                }
+
+                updates.add(new UpdateOneModel<>(Filters.and(Filters.eq("_id", entry.getKey()), userFilter, versionFilter(user.getVersion())), changes));
+                updatePositions.add(entry.getValue());
+            }
+
+            if (updates.isEmpty())
+            {
+                report.addProcessed(users.size(), unchanged);
+                return report;
+            }
+
+            int matched;
+            Set<Integer> failed = new HashSet<>();
+
+            try
+            {
+                matched = collection.bulkWrite(updates, new BulkWriteOptions().ordered(false)).getMatchedCount();
+            }
+            catch (MongoBulkWriteException ex)
+            {
+                for (BulkWriteError error : ex.getWriteErrors())
+                {
+                    int position = updatePositions.get(error.getIndex());
+                    report.addFailure(position, input.get(position).getId().toHexString(), error.getMessage());
+                    failed.add(position);
+                }
+
+                matched = ex.getWriteResult().getMatchedCount();
+            }
+
+            if (matched + failed.size() < updates.size())
+            {
+                reportLostUpdates(collection, input, updatePositions, failed, report);
+            }
+
+            for (int position : updatePositions)
+            {
+                if (!failed.contains(position))
+                {
+                    User user = input.get(position);
+                    user.setVersion(user.getVersion() + 1);
+                    user.clearChanges();
+                }
+            }
+
+            report.addProcessed(users.size(), matched + unchanged);
+            return report;
+        }
+        catch (MongoException ex)
+        {
+            throw new OurException(ErrorMessages.UPDATE_USER);
+        }
+    }
+
+    /**
+     * Deletes many users with a single deleteMany on their identifiers. Missing identifiers and identifiers that do not belong to an existing user are reported with their position in the input; administrators can never be deleted through this method.
+     *
+     * @param ids the unique identifiers of the users to be deleted
+     * @return a report with the number of deleted users and one failure for every identifier that was not deleted
+     * @throws OurException if the request fails due to database errors
+     */
+    @Override
+    public BulkReport deleteUsers(Collection<ObjectId> ids) throws OurException
+    {
+        BulkReport report = new BulkReport();
+        Map<ObjectId, Integer> positions = validIds(ids, report);
+
+        try
+        {
+            MongoCollection<Document> collection = MongoConnection.getUsersCollection();
+            Set<ObjectId> existing = selectExistingUserIds(collection, positions.keySet());
+
+            for (Map.Entry<ObjectId, Integer> entry : positions.entrySet())
+            {
+                if (!existing.contains(entry.getKey()))
+                {
+                    report.addFailure(entry.getValue(), entry.getKey().toHexString(), ErrorMessages.USER_NOT_FOUND);
+                }
+            }
+
+            long deleted = existing.isEmpty()
+                    ? 0
+                    : collection.deleteMany(Filters.and(Filters.in("_id", existing), userFilter)).getDeletedCount();
+
+            report.addProcessed(ids.size(), (int) deleted);
+            return report;
+        }
+        catch (MongoException ex)
+        {
             throw new OurException(ErrorMessages.DELETE_USER);
         }
     }
+
+    /**
+     * Exports every user by iterating a cursor that fetches EXPORT_BATCH_SIZE documents per round trip, without the password, and writing each user through a UserExportWriter as soon as it is decoded. Only one batch is held in memory at a time, whatever the size of the collection. The total given to the progress receiver is the estimated document count of the collection, which is read from its metadata instead of counting the users.
+     *
+     * @param out the stream the users are written to
+     * @param format the output format
+     * @param progress the receiver of the export progress, or null if progress is not needed
+     * @return the number of users written
+     * @throws OurException if the export fails due to database errors or the stream cannot be written
+     */
+    @Override
+    public long exportUsers(OutputStream out, ExportFormat format, ExportProgress progress) throws OurException
+    {
+        try
+        {
+            MongoCollection<Profile> collection = getProfilesCollection();
+            long total = collection.estimatedDocumentCount();
+            long exported = 0;
+            UserExportWriter writer = new UserExportWriter(out, format);
+
+            try (MongoCursor<Profile> cursor = collection.find(userFilter)
+                    .projection(Projections.exclude("P_PASSWORD"))
+                    .batchSize(EXPORT_BATCH_SIZE)
+                    .iterator())
+            {
+                while (cursor.hasNext())
+                {
+                    writer.write((User) cursor.next());
+                    exported++;
+
+                    if (progress != null && exported % EXPORT_PROGRESS_INTERVAL == 0)
+                    {
+                        progress.update(exported, Math.max(total, exported));
+                    }
+                }
+            }
+
+            writer.flush();
+
+            if (progress != null)
+            {
+                progress.update(exported, exported);
+            }
+
+            return exported;
+        }
+        catch (IOException | MongoException ex)
+        {
+            LOGGER.log(Level.WARNING, "User export failed", ex);
+            throw new OurException(ErrorMessages.EXPORT_USERS);
+        }
+    }
+
+    /**
+     * Finds the users of a bulk update whose version condition matched nothing, because someone else modified them after the version check, and reports them as conflicts. A user that was written by this update has exactly one more version than it was read with; any other stored version, or a user that is gone, means the update was not applied.
+     *
+     * @param collection from database to make the queries on it
+     * @param input the users of the bulk update, in input order
+     * @param updatePositions the positions of the users that were sent to the server
+     * @param failed the positions already reported, to which the lost updates are added
+     * @param report the report where the lost updates are recorded
+     */
+    private void reportLostUpdates(MongoCollection<Document> collection, List<User> input, List<Integer> updatePositions, Set<Integer> failed, BulkReport report)
+    {
+        List<ObjectId> ids = new ArrayList<>();
+
+        for (int position : updatePositions)
+        {
+            ids.add(input.get(position).getId());
+        }
+
+        Map<ObjectId, Long> versions = selectUserVersions(collection, ids);
+
+        for (int position : updatePositions)
+        {
+            User user = input.get(position);
+            Long version = versions.get(user.getId());
+
+            if (!failed.contains(position) && (version == null || version != user.getVersion() + 1))
+            {
+                report.addFailure(position, user.getId().toHexString(), version == null ? ErrorMessages.USER_NOT_FOUND : ErrorMessages.VERSION_CONFLICT);
+                failed.add(position);
+            }
+        }
+    }
+
+    /**
+     * Maps the identifiers of a bulk operation to their position in the input, reporting the missing ones, such as those of users that were never stored. A repeated identifier is only applied at its first position and every later occurrence is reported as a failure, so the processed count of the report always equals the succeeded users plus the failures.
+     *
+     * @param ids the identifiers received, in input order
+     * @param report the report where missing and repeated identifiers are recorded
+     * @return the present identifiers in input order, with their position in the input
+     */
+    private Map<ObjectId, Integer> validIds(Collection<ObjectId> ids, BulkReport report)
+    {
+        Map<ObjectId, Integer> positions = new LinkedHashMap<>();
+        int index = 0;
+
+        for (ObjectId id : ids)
+        {
+            if (id == null)
+            {
+                report.addFailure(index, null, ErrorMessages.INVALID_ID);
+            }
+            else if (positions.putIfAbsent(id, index) != null)
+            {
+                report.addFailure(index, id.toHexString(), ErrorMessages.DUPLICATE_ID);
+            }
+
+            index++;
+        }
+
+        return positions;
+    }
 }
@@ -0,0 +1,18 @@
+package dao;
+
+/**
+ * File formats supported by the user export.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public enum ExportFormat
+{
+    /**
+     * One JSON document per line, with the same field names as the users collection.
+     */
+    NDJSON,
+    /**
+     * Comma separated values with a header row of field names, readable by the UserImporter.
+     */
+    CSV
+}
@@ -0,0 +1,19 @@
+package dao;
+
+/**
+ * Receiver of the progress of a user export. The export calls it from the thread that runs the export every few thousand users and once more when it finishes, so implementations that touch the interface must move the work to the JavaFX Application Thread themselves.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+@FunctionalInterface
+public interface ExportProgress
+{
+
+    /**
+     * Reports how many users have been written so far.
+     *
+     * @param exported the number of users written
+     * @param total the estimated number of users to write; it may be lower than exported if users were added during the export
+     */
+    public void update(long exported, long total);
+}
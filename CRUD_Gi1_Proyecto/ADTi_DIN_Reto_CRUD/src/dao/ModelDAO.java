@@ -1,9 +1,17 @@
 package dao;
 
 import exception.OurException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import model.BulkReport;
+import model.Gender;
 import model.Profile;
+import model.ProfileField;
 import model.User;
+import model.UserStatistics;
+import model.UserSummary;
+import org.bson.types.ObjectId;
 
 /**
  * Data Access Object interface defining the contract for all data operations in the application. This interface specifies the methods required for user management, authentication, and profile operations that must be implemented by any data access implementation.
@@ -25,7 +33,89 @@ public interface ModelDAO
     public ArrayList<User> getUsers() throws OurException;
 
     /**
-     * Updates an existing user's information in the data store. This method should persist changes made to a user's profile data, ensuring that all modifications are saved and reflected in the storage.
+     * Retrieves one page of users from the data store using keyset pagination. This method should return users ordered by their identifier, starting right after the given identifier, so that the cost of each call depends only on the page size and not on the total number of users.
+     *
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing at most limit User objects ordered by identifier, empty when there are no more users
+     * @throws OurException if the user retrieval operation fails due to data access errors, connectivity issues, or system failures
+     */
+    public ArrayList<User> getUsersPage(ObjectId afterId, int limit) throws OurException;
+
+    /**
+     * Retrieves the identifying data of all users from the data store. This method should only read the identifier, username, email, name and gender of each user, so listings can be displayed without transferring the rest of the profile data.
+     *
+     * @return an ArrayList containing a UserSummary for every user in the system
+     * @throws OurException if the user retrieval operation fails due to data access errors, connectivity issues, or system failures
+     */
+    public ArrayList<UserSummary> getUserSummaries() throws OurException;
+
+    /**
+     * Retrieves one page of user summaries from the data store using keyset pagination. This method should return summaries ordered by identifier, starting right after the given identifier.
+     *
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of summaries to return
+     * @return an ArrayList containing at most limit UserSummary objects ordered by identifier, empty when there are no more users
+     * @throws OurException if the user retrieval operation fails due to data access errors, connectivity issues, or system failures
+     */
+    public ArrayList<UserSummary> getUserSummariesPage(ObjectId afterId, int limit) throws OurException;
+
+    /**
+     * Searches users by the beginning of their username, email or last name, optionally restricted to one gender, and returns one page of the matching summaries using keyset pagination. This method should run the search in the data store, so finding a user never requires loading the complete user list.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @param afterId the identifier of the last user of the previous page, or null to retrieve the first page
+     * @param limit the maximum number of summaries to return
+     * @return an ArrayList containing at most limit matching UserSummary objects ordered by identifier, empty when there are no more matches
+     * @throws OurException if the search fails due to data access errors, connectivity issues, or system failures
+     */
+    public ArrayList<UserSummary> searchUsers(String query, Gender gender, ObjectId afterId, int limit) throws OurException;
+
+    /**
+     * Searches users like searchUsers, but returns the matching summaries sorted by one of their listed attributes and addresses them by position, so a table can read any range of rows without reading the rows before it. Users with the same value of the sort attribute must always come in the same order, so consecutive ranges neither repeat nor skip users while the collection does not change.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @param sortField the attribute to sort by, one of USERNAME, EMAIL, NAME or GENDER, or null to sort by identifier
+     * @param ascending true to sort from the lowest value, false to sort from the highest
+     * @param offset the position of the first summary to return among every matching user
+     * @param limit the maximum number of summaries to return
+     * @return an ArrayList containing at most limit matching UserSummary objects, empty when the offset is past the last match
+     * @throws OurException if the search fails due to data access errors, connectivity issues, or system failures
+     */
+    public ArrayList<UserSummary> searchUsersSorted(String query, Gender gender, ProfileField sortField, boolean ascending, int offset, int limit) throws OurException;
+
+    /**
+     * Counts the users matching a search, with the same conditions as searchUsers. This method should count in the data store without reading the users.
+     *
+     * @param query the text the username, email or last name must start with, or an empty string to match every user
+     * @param gender the gender the users must have, or null to match any gender
+     * @return the number of matching users
+     * @throws OurException if the count fails due to data access errors, connectivity issues, or system failures
+     */
+    public long countUsers(String query, Gender gender) throws OurException;
+
+    /**
+     * Computes the statistics shown on the administrator dashboard: the number of users and administrators, the users of each gender and the users registered in each of the last months. This method should compute them in the data store and return only the totals, never the users themselves.
+     *
+     * @param months the number of months of registrations to report, including the current one
+     * @return the statistics of the users collection
+     * @throws OurException if the statistics cannot be computed due to data access errors, connectivity issues, or system failures
+     */
+    public UserStatistics getUserStatistics(int months) throws OurException;
+
+    /**
+     * Retrieves the complete data of a single user by their unique identifier. This method is used to load a user on demand after it has been chosen from a listing of summaries.
+     *
+     * @param id the unique identifier of the user to retrieve
+     * @return the User object with all its profile information, or null if no user exists with the specified ID
+     * @throws OurException if the user retrieval operation fails due to data access errors, connectivity issues, or system failures
+     */
+    public User getUser(ObjectId id) throws OurException;
+
+    /**
+     * Updates an existing user's information in the data store. This method should persist changes made to a user's profile data, ensuring that all modifications are saved and reflected in the storage. Only the attributes reported by getChangedFields need to be written, and a user without modified attributes should not reach the storage at all.
      *
      * @param user the User object containing updated information to be saved
      * @return true if the update operation was successful and affected at least one record, false if no changes were made or no user was found
@@ -40,7 +130,7 @@ public interface ModelDAO
      * @return true if the deletion was successful and affected at least one record, false if no user was found with the specified ID
      * @throws OurException if the deletion operation fails due to data integrity constraints, referential integrity issues, data access errors, or system failures
      */
-    public boolean deleteUser(String id) throws OurException;
+    public boolean deleteUser(ObjectId id) throws OurException;
 
     /**
      * Authenticates a user using provided credentials. This method should verify user identity by checking the provided credential (which can be username or email) and password against stored user data.
@@ -60,4 +150,43 @@ public interface ModelDAO
      * @throws OurException if the registration process fails due to duplicate credentials, validation errors, data integrity constraints, data access issues, or system failures
      */
     public User register(User user) throws OurException;
+
+    /**
+     * Registers many users in batches. This method should consume the users as it goes, so the input can be streamed from a large file, and send them to the storage system in groups of batchSize. A user rejected because of duplicate credentials or any other per-user problem must be recorded in the returned report instead of stopping the rest of the import.
+     *
+     * @param users the users to register, read only once and in order
+     * @param batchSize the maximum number of users sent to the storage system in a single request
+     * @return a report with the number of registered users and one failure for every rejected user
+     * @throws OurException if the registration cannot continue due to data access issues or system failures
+     */
+    public BulkReport registerAll(Iterable<User> users, int batchSize) throws OurException;
+
+    /**
+     * Updates many users in a single request to the storage system. This method should apply the same changes as updateUser to every user of the collection and report, for each user that could not be updated, its position and the reason, such as a user that was never stored or no longer exists.
+     *
+     * @param users the User objects containing the updated information
+     * @return a report with the number of updated users and one failure for every user that was not updated
+     * @throws OurException if the update cannot be performed due to data access issues or system failures
+     */
+    public BulkReport updateUsers(Collection<User> users) throws OurException;
+
+    /**
+     * Deletes many users in a single request to the storage system. This method should report, for each identifier that could not be deleted, its position and the reason, such as a missing identifier or a user that no longer exists.
+     *
+     * @param ids the unique identifiers of the users to be deleted
+     * @return a report with the number of deleted users and one failure for every identifier that was not deleted
+     * @throws OurException if the deletion cannot be performed due to data access issues or system failures
+     */
+    public BulkReport deleteUsers(Collection<ObjectId> ids) throws OurException;
+
+    /**
+     * Exports every user to a stream as NDJSON or CSV. This method should read the users in batches and write each one as soon as it is read, so memory stays flat whatever the number of users. Passwords must never be written and the payment card must be masked. The stream is flushed but not closed.
+     *
+     * @param out the stream the users are written to
+     * @param format the output format
+     * @param progress the receiver of the export progress, or null if progress is not needed
+     * @return the number of users written
+     * @throws OurException if the export fails due to data access issues, write errors or system failures
+     */
+    public long exportUsers(OutputStream out, ExportFormat format, ExportProgress progress) throws OurException;
 }
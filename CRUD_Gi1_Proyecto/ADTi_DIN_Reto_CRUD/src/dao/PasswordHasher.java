@@ -0,0 +1,377 @@
+package dao;
+
+import exception.ErrorMessages;
+import exception.OurException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hashes and verifies passwords with PBKDF2-HMAC-SHA256 and a random salt per password. A hash is stored as a single string holding the algorithm, the iteration count, the salt and the derived key, so every document keeps the parameters it was hashed with and the work factor can be raised without invalidating the stored passwords.
+ *
+ * Deriving a key is deliberately expensive. The blocking hash and verify methods derive it on the calling thread, which is already a DAO worker for logins and registrations: the AsyncDBImplementation pool bounds how many run at once, and handing the work to a second pool would only leave the DAO worker waiting while adding a second, smaller limit. The asynchronous methods, used from the JavaFX Application Thread, and hashAll, which spreads an import over several threads, run on a small bounded pool of daemon threads owned by this class instead. That pool never grows beyond a fixed number of threads and queued operations; when its queue is full the operation fails with an OurException instead of blocking.
+ *
+ * Passwords stored before hashing was introduced are still accepted: a stored value without the hash prefix is compared as plain text, and needsRehash tells the caller when it has to be replaced by a hash. The prefix is only trusted on values read from the database; a password about to be written is always hashed, whatever it looks like. A stored hash whose iteration count or key length is outside the range this class produces never matches, so a tampered document cannot make a login derive an arbitrarily expensive key.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class PasswordHasher
+{
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2_sha256$";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    private static final int MAX_ITERATIONS = 5000000;
+    private static final int MIN_KEY_BYTES = 16;
+    private static final int MAX_KEY_BYTES = 64;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructs a new PasswordHasher with its own worker pool.
+     *
+     * @param iterations the PBKDF2 iteration count used for new hashes
+     * @param threads the maximum number of passwords hashed at the same time
+     * @param queueCapacity the maximum number of operations waiting for a thread
+     */
+    public PasswordHasher(int iterations, int threads, int queueCapacity)
+    {
+        this.iterations = iterations;
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HasherThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Constructs a new PasswordHasher with the work factor and pool size of the given settings.
+     *
+     * @param settings the security settings holding the password hashing parameters
+     */
+    public PasswordHasher(SecuritySettings settings)
+    {
+        this(settings.getHashIterations(), settings.getHashThreads(), settings.getHashQueueSize());
+    }
+
+    /**
+     * Returns the hasher shared by the whole application, configured with the password.pbkdf2.iterations, password.pool.threads and password.pool.queueSize settings of SecuritySettings. Sharing one instance means the limit on concurrent asynchronous hashes applies to every window at once.
+     *
+     * @return the application password hasher
+     */
+    public static PasswordHasher getDefault()
+    {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the iteration count used for new hashes.
+     *
+     * @return the PBKDF2 iteration count
+     */
+    public int getIterations()
+    {
+        return iterations;
+    }
+
+    /**
+     * Hashes a password with a new random salt on the calling thread.
+     *
+     * @param password the plain text password
+     * @return the encoded hash, ready to be stored in P_PASSWORD
+     * @throws OurException if the hash cannot be computed
+     */
+    public String hash(String password) throws OurException
+    {
+        try
+        {
+            return encode(password);
+        }
+        catch (IllegalStateException ex)
+        {
+            throw new OurException(ErrorMessages.HASH_PASSWORD);
+        }
+    }
+
+    /**
+     * Hashes a password with a new random salt on the hashing pool.
+     *
+     * @param password the plain text password
+     * @return a future completed with the encoded hash, or exceptionally with an OurException if the pool is busy
+     */
+    public CompletableFuture<String> hashAsync(String password)
+    {
+        return submit(() -> encode(password));
+    }
+
+    /**
+     * Hashes many passwords at once. The passwords are split into one task per pool thread, so a large batch uses every hashing thread without filling the queue.
+     *
+     * @param passwords the plain text passwords
+     * @return the encoded hashes, in the same order as the passwords
+     * @throws OurException if the pool is busy or a hash cannot be computed
+     */
+    public List<String> hashAll(List<String> passwords) throws OurException
+    {
+        int tasks = Math.max(1, Math.min(executor.getMaximumPoolSize(), passwords.size()));
+        int chunk = (passwords.size() + tasks - 1) / tasks;
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>(tasks);
+
+        for (int start = 0; start < passwords.size(); start += chunk)
+        {
+            List<String> part = passwords.subList(start, Math.min(start + chunk, passwords.size()));
+
+            futures.add(submit(() ->
+            {
+                List<String> hashes = new ArrayList<>(part.size());
+
+                for (String password : part)
+                {
+                    hashes.add(encode(password));
+                }
+
+                return hashes;
+            }));
+        }
+
+        List<String> hashes = new ArrayList<>(passwords.size());
+
+        for (CompletableFuture<List<String>> future : futures)
+        {
+            hashes.addAll(await(future));
+        }
+
+        return hashes;
+    }
+
+    /**
+     * Checks a password against a stored value on the calling thread.
+     *
+     * @param password the plain text password entered by the user
+     * @param stored the value stored in P_PASSWORD, either a hash or a legacy plain text password
+     * @return true if the password matches, false otherwise
+     * @throws OurException if the stored hash cannot be checked
+     */
+    public boolean verify(String password, String stored) throws OurException
+    {
+        try
+        {
+            return check(password, stored);
+        }
+        catch (IllegalStateException ex)
+        {
+            throw new OurException(ErrorMessages.HASH_PASSWORD);
+        }
+    }
+
+    /**
+     * Checks a password against a stored value on the hashing pool. Legacy plain text values are compared in constant time without using the pool, since they cost nothing to check.
+     *
+     * @param password the plain text password entered by the user
+     * @param stored the value stored in P_PASSWORD, either a hash or a legacy plain text password
+     * @return a future completed with true if the password matches, or exceptionally with an OurException if the pool is busy
+     */
+    public CompletableFuture<Boolean> verifyAsync(String password, String stored)
+    {
+        if (password == null || stored == null || !isHashed(stored))
+        {
+            return CompletableFuture.completedFuture(check(password, stored));
+        }
+
+        return submit(() -> matches(password, stored));
+    }
+
+    /**
+     * Checks whether a value read from P_PASSWORD is a hash produced by this class rather than a legacy plain text password. This only looks at the format of the value, so it must not be used to decide whether a password about to be written has to be hashed.
+     *
+     * @param stored the value stored in P_PASSWORD
+     * @return true if the value is a PBKDF2 hash
+     */
+    public boolean isHashed(String stored)
+    {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    /**
+     * Checks whether a stored value should be replaced after a successful login, either because it is a legacy plain text password, because it was hashed with fewer iterations than the current work factor, or because its iteration count is malformed or out of range.
+     *
+     * @param stored the value stored in P_PASSWORD
+     * @return true if the password should be hashed again
+     */
+    public boolean needsRehash(String stored)
+    {
+        if (!isHashed(stored))
+        {
+            return true;
+        }
+
+        return rounds(stored.split("\\$")) < iterations;
+    }
+
+    private String encode(String password)
+    {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(derive(password, salt, iterations, KEY_BITS));
+    }
+
+    private boolean check(String password, String stored)
+    {
+        if (password == null || stored == null)
+        {
+            return false;
+        }
+
+        if (!isHashed(stored))
+        {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return matches(password, stored);
+    }
+
+    private boolean matches(String password, String stored)
+    {
+        String[] parts = stored.split("\\$");
+        int rounds = rounds(parts);
+
+        if (rounds < 0)
+        {
+            return false;
+        }
+
+        try
+        {
+            Base64.Decoder base64 = Base64.getDecoder();
+            byte[] expected = base64.decode(parts[3]);
+
+            if (expected.length < MIN_KEY_BYTES || expected.length > MAX_KEY_BYTES)
+            {
+                return false;
+            }
+
+            return MessageDigest.isEqual(expected, derive(password, base64.decode(parts[2]), rounds, expected.length * 8));
+        }
+        catch (IllegalArgumentException ex)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the iteration count of an encoded hash split on its separators.
+     *
+     * @param parts the algorithm, iteration count, salt and key of the hash
+     * @return the iteration count, or -1 if the hash is malformed or its count is outside 1 to MAX_ITERATIONS
+     */
+    private static int rounds(String[] parts)
+    {
+        if (parts.length != 4)
+        {
+            return -1;
+        }
+
+        try
+        {
+            int rounds = Integer.parseInt(parts[1]);
+            return rounds >= 1 && rounds <= MAX_ITERATIONS ? rounds : -1;
+        }
+        catch (NumberFormatException ex)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * Derives the PBKDF2 key of a password. The password characters are cleared from the key specification as soon as the key is derived.
+     *
+     * @param password the plain text password
+     * @param salt the salt
+     * @param rounds the iteration count
+     * @param bits the length of the derived key in bits
+     * @return the derived key
+     */
+    private static byte[] derive(String password, byte[] salt, int rounds, int bits)
+    {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, bits);
+
+        try
+        {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        }
+        catch (GeneralSecurityException ex)
+        {
+            throw new IllegalStateException(ALGORITHM + " is not available", ex);
+        }
+        finally
+        {
+            spec.clearPassword();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task)
+    {
+        try
+        {
+            return CompletableFuture.supplyAsync(task, executor);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new OurException(ErrorMessages.BUSY));
+            return future;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws OurException
+    {
+        try
+        {
+            return future.join();
+        }
+        catch (CompletionException ex)
+        {
+            throw OurException.unwrap(ex, ErrorMessages.HASH_PASSWORD);
+        }
+    }
+
+    private static class DefaultHolder
+    {
+
+        static final PasswordHasher INSTANCE = new PasswordHasher(SecuritySettings.getDefault());
+    }
+
+    private static class HasherThreadFactory implements ThreadFactory
+    {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task)
+        {
+            Thread thread = new Thread(task, "password-hasher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
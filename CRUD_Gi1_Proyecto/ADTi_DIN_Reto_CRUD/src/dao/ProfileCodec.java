@@ -0,0 +1,260 @@
+package dao;
+
+import model.Admin;
+import model.Gender;
+import model.Profile;
+import model.ProfileType;
+import model.User;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+/**
+ * Codec that maps documents of the users collection directly to Profile objects. Fields are read straight from the BSON stream into local variables and the matching subtype is built at the end, so no intermediate Document map is allocated for each profile read from the database.
+ *
+ * The P_TYPE field tells which subtype a document is, and is written on every encoded profile. Documents stored before that field existed are still told apart by their fields: those holding a U_GENDER field are decoded as User objects and those holding an A_CURRENT_ACCOUNT field as Admin objects. Any other document decodes to null.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class ProfileCodec implements CollectibleCodec<Profile>
+{
+
+    /**
+     * Decodes a profile document into a User or an Admin. Unknown fields are skipped and null values are treated as missing fields. A user without a gender, or with a gender that is not a Gender constant, is decoded with Gender.OTHER, and the version is accepted in any numeric type, so documents edited by hand or by other tools can still be read.
+     *
+     * @param reader the BSON reader positioned at the start of the document
+     * @param decoderContext the decoder context
+     * @return the decoded User or Admin, or null if the document is neither
+     */
+    @Override
+    public Profile decode(BsonReader reader, DecoderContext decoderContext)
+    {
+        ObjectId id = null;
+        String email = null;
+        String username = null;
+        String password = null;
+        String name = null;
+        String lastname = null;
+        String telephone = null;
+        String gender = null;
+        String card = null;
+        String currentAccount = null;
+        String type = null;
+        long version = 0;
+
+        reader.readStartDocument();
+
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT)
+        {
+            String field = reader.readName();
+
+            if (reader.getCurrentBsonType() == BsonType.NULL)
+            {
+                reader.readNull();
+                continue;
+            }
+
+            switch (field)
+            {
+                case "_id":
+                    id = reader.readObjectId();
+                    break;
+                case "P_EMAIL":
+                    email = reader.readString();
+                    break;
+                case "P_USERNAME":
+                    username = reader.readString();
+                    break;
+                case "P_PASSWORD":
+                    password = reader.readString();
+                    break;
+                case "P_NAME":
+                    name = reader.readString();
+                    break;
+                case "P_LASTNAME":
+                    lastname = reader.readString();
+                    break;
+                case "P_TELEPHONE":
+                    telephone = reader.readString();
+                    break;
+                case "U_GENDER":
+                    gender = reader.readString();
+                    break;
+                case "U_CARD":
+                    card = reader.readString();
+                    break;
+                case "A_CURRENT_ACCOUNT":
+                    currentAccount = reader.readString();
+                    break;
+                case "P_TYPE":
+                    type = reader.readString();
+                    break;
+                case "P_VERSION":
+                    version = readVersion(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.readEndDocument();
+
+        Profile profile = null;
+
+        if (type == null)
+        {
+            type = gender != null ? ProfileType.USER.name() : currentAccount != null ? ProfileType.ADMIN.name() : null;
+        }
+
+        if (ProfileType.USER.name().equals(type))
+        {
+            profile = new User(id, email, username, password, name, lastname, telephone, genderOf(gender), card);
+        }
+        else if (ProfileType.ADMIN.name().equals(type))
+        {
+            profile = new Admin(id, email, username, password, name, lastname, telephone, currentAccount);
+        }
+
+        if (profile != null)
+        {
+            profile.setStoredPassword(password);
+            profile.setVersion(version);
+        }
+
+        return profile;
+    }
+
+    /**
+     * Encodes a User or an Admin as a profile document. Null attributes are not written.
+     *
+     * @param writer the BSON writer
+     * @param profile the profile to encode
+     * @param encoderContext the encoder context
+     */
+    @Override
+    public void encode(BsonWriter writer, Profile profile, EncoderContext encoderContext)
+    {
+        writer.writeStartDocument();
+
+        if (documentHasId(profile))
+        {
+            writer.writeObjectId("_id", profile.getId());
+        }
+
+        writer.writeString("P_TYPE", ProfileType.of(profile).name());
+        writeString(writer, "P_EMAIL", profile.getEmail());
+        writeString(writer, "P_USERNAME", profile.getUsername());
+        writeString(writer, "P_PASSWORD", profile.getPassword());
+        writeString(writer, "P_NAME", profile.getName());
+        writeString(writer, "P_LASTNAME", profile.getLastname());
+        writeString(writer, "P_TELEPHONE", profile.getTelephone());
+        writer.writeInt64("P_VERSION", profile.getVersion());
+
+        if (profile instanceof User)
+        {
+            User user = (User) profile;
+            writeString(writer, "U_GENDER", user.getGender() != null ? user.getGender().name() : null);
+            writeString(writer, "U_CARD", user.getCard());
+        }
+        else if (profile instanceof Admin)
+        {
+            writeString(writer, "A_CURRENT_ACCOUNT", ((Admin) profile).getCurrent_account());
+        }
+
+        writer.writeEndDocument();
+    }
+
+    /**
+     * Returns the Gender of a U_GENDER value, or Gender.OTHER if the value is missing or is not the name of a Gender constant.
+     *
+     * @param name the stored gender name
+     * @return the gender of the user
+     */
+    private static Gender genderOf(String name)
+    {
+        for (Gender gender : Gender.values())
+        {
+            if (gender.name().equals(name))
+            {
+                return gender;
+            }
+        }
+
+        return Gender.OTHER;
+    }
+
+    /**
+     * Reads a P_VERSION value. The codec writes it as a 64-bit integer, but a document updated from the shell may hold it as a 32-bit integer, a double or a decimal; any other type is skipped and read as version 0.
+     *
+     * @param reader the BSON reader positioned at the value
+     * @return the version of the profile
+     */
+    private static long readVersion(BsonReader reader)
+    {
+        switch (reader.getCurrentBsonType())
+        {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            case DECIMAL128:
+                Decimal128 decimal = reader.readDecimal128();
+                return decimal.isNaN() || decimal.isInfinite() ? 0 : decimal.bigDecimalValue().longValue();
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+
+    private void writeString(BsonWriter writer, String field, String value)
+    {
+        if (value != null)
+        {
+            writer.writeString(field, value);
+        }
+    }
+
+    @Override
+    public Class<Profile> getEncoderClass()
+    {
+        return Profile.class;
+    }
+
+    /**
+     * Assigns a new ObjectId to a profile that has not been persisted yet, so the identifier is known before the insert is sent.
+     *
+     * @param profile the profile about to be inserted
+     * @return the same profile, with its identifier assigned
+     */
+    @Override
+    public Profile generateIdIfAbsentFromDocument(Profile profile)
+    {
+        if (!documentHasId(profile))
+        {
+            profile.setId(new ObjectId());
+        }
+
+        return profile;
+    }
+
+    @Override
+    public boolean documentHasId(Profile profile)
+    {
+        return profile.getId() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(Profile profile)
+    {
+        return new BsonObjectId(profile.getId());
+    }
+}
@@ -0,0 +1,27 @@
+package dao;
+
+import model.Profile;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Codec provider that supplies the ProfileCodec for Profile and all its subclasses. The driver looks codecs up by the runtime class of the object being written, so a provider is needed for inserts of User or Admin objects to find the codec registered for Profile.
+ */
+public class ProfileCodecProvider implements CodecProvider
+{
+
+    private final ProfileCodec codec = new ProfileCodec();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry)
+    {
+        if (Profile.class.isAssignableFrom(clazz))
+        {
+            return (Codec<T>) codec;
+        }
+
+        return null;
+    }
+}
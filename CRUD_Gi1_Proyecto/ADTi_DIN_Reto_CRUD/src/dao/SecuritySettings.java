@@ -0,0 +1,172 @@
+package dao;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Settings of the security features of the data access layer: the password hashing work factor and the login throttle limits. They are kept apart from the database connection settings, since they tune this layer and not the MongoDB client, and are read once and then passed to the constructors of the classes that use them.
+ *
+ * The defaults bundled in security.properties are replaced by the file named in the security.config system property, if any, and finally by individual system properties with the same keys, the same way MongoConnection reads mongo.properties.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class SecuritySettings
+{
+
+    private static final Logger LOGGER = Logger.getLogger(SecuritySettings.class.getName());
+
+    private static final String DEFAULTS_RESOURCE = "/dao/security.properties";
+    private static final String CONFIG_FILE_PROPERTY = "security.config";
+
+    private final Properties properties;
+
+    private SecuritySettings(Properties properties)
+    {
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the settings of the application, loaded the first time this method is called.
+     *
+     * @return the application security settings
+     */
+    public static SecuritySettings getDefault()
+    {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the PBKDF2 iteration count used for new password hashes.
+     *
+     * @return the password.pbkdf2.iterations setting
+     */
+    public int getHashIterations()
+    {
+        return intSetting("password.pbkdf2.iterations");
+    }
+
+    /**
+     * Returns the number of threads of the password hashing pool.
+     *
+     * @return the password.pool.threads setting
+     */
+    public int getHashThreads()
+    {
+        return intSetting("password.pool.threads");
+    }
+
+    /**
+     * Returns the number of operations that may wait for a thread of the password hashing pool.
+     *
+     * @return the password.pool.queueSize setting
+     */
+    public int getHashQueueSize()
+    {
+        return intSetting("password.pool.queueSize");
+    }
+
+    /**
+     * Returns the number of failed logins allowed for one credential within its window.
+     *
+     * @return the login.throttle.credential.maxFailures setting
+     */
+    public int getMaxFailuresPerCredential()
+    {
+        return intSetting("login.throttle.credential.maxFailures");
+    }
+
+    /**
+     * Returns the length of the window over which the failed logins of a credential are counted.
+     *
+     * @return the login.throttle.credential.windowSeconds setting, in seconds
+     */
+    public int getCredentialWindowSeconds()
+    {
+        return intSetting("login.throttle.credential.windowSeconds");
+    }
+
+    /**
+     * Returns the number of logins allowed from one source within its window.
+     *
+     * @return the login.throttle.source.maxAttempts setting
+     */
+    public int getMaxAttemptsPerSource()
+    {
+        return intSetting("login.throttle.source.maxAttempts");
+    }
+
+    /**
+     * Returns the length of the window over which the logins of a source are counted.
+     *
+     * @return the login.throttle.source.windowSeconds setting, in seconds
+     */
+    public int getSourceWindowSeconds()
+    {
+        return intSetting("login.throttle.source.windowSeconds");
+    }
+
+    private int intSetting(String key)
+    {
+        String value = properties.getProperty(key);
+
+        if (value == null)
+        {
+            throw new IllegalStateException("Missing security setting " + key);
+        }
+
+        return Integer.parseInt(value.trim());
+    }
+
+    private static Properties load()
+    {
+        Properties properties = new Properties();
+
+        try (InputStream in = SecuritySettings.class.getResourceAsStream(DEFAULTS_RESOURCE))
+        {
+            if (in != null)
+            {
+                properties.load(in);
+            }
+        }
+        catch (IOException ex)
+        {
+            LOGGER.log(Level.WARNING, "Could not read " + DEFAULTS_RESOURCE, ex);
+        }
+
+        String externalFile = System.getProperty(CONFIG_FILE_PROPERTY);
+
+        if (externalFile != null)
+        {
+            try (InputStream in = new FileInputStream(externalFile))
+            {
+                properties.load(in);
+            }
+            catch (IOException ex)
+            {
+                LOGGER.log(Level.WARNING, "Could not read " + externalFile, ex);
+            }
+        }
+
+        for (String key : properties.stringPropertyNames())
+        {
+            String override = System.getProperty(key);
+
+            if (override != null)
+            {
+                properties.setProperty(key, override);
+            }
+        }
+
+        return properties;
+    }
+
+    private static class DefaultHolder
+    {
+
+        static final SecuritySettings INSTANCE = new SecuritySettings(load());
+    }
+}
@@ -0,0 +1,176 @@
+package dao;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts events per key over a sliding time window in a fixed amount of memory. The counter is a count-min sketch: every key is hashed into one cell of each row, and the count of a key is the smallest count among its cells. Different keys may share a cell, so a count can be overestimated but never underestimated, and the memory used does not depend on how many keys are seen.
+ *
+ * Each cell keeps the count of the current and of the previous fixed window, tagged with the window they belong to, so counts expire on their own once their window is over and no cleanup thread is needed. The count over the last window length is estimated by weighting the previous window by the part of it that still overlaps the sliding window.
+ *
+ * Cells are updated with compare-and-set on an AtomicLongArray, so the counter is thread safe without locks. Limits are enforced with incrementAndCount, which records the event before reading the count, so concurrent callers cannot all pass a check made before any of them was counted. The row hash seeds are random, so an attacker cannot choose keys that collide with a given key.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class SlidingWindowCounter
+{
+
+    private static final int ROWS = 4;
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final long windowNanos;
+    private final int width;
+    private final int[] seeds = new int[ROWS];
+    private final long origin = System.nanoTime();
+
+    /**
+     * Two cells per row and slot, one for even and one for odd windows. Each cell packs the window number in the high 32 bits and the count in the low 32 bits.
+     */
+    private final AtomicLongArray cells;
+
+    /**
+     * Constructs a new SlidingWindowCounter.
+     *
+     * @param window the length of the sliding window
+     * @param unit the time unit of the window argument
+     * @param width the number of slots of each row, rounded up to a power of two; more slots mean fewer collisions between keys
+     */
+    public SlidingWindowCounter(long window, TimeUnit unit, int width)
+    {
+        this.windowNanos = unit.toNanos(window);
+        this.width = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.cells = new AtomicLongArray(ROWS * this.width * 2);
+
+        for (int i = 0; i < ROWS; i++)
+        {
+            seeds[i] = RANDOM.nextInt();
+        }
+    }
+
+    /**
+     * Returns the number of the current fixed window, to be passed to incrementAndCount and decrement.
+     *
+     * @return the current window number
+     */
+    public long currentWindow()
+    {
+        return (System.nanoTime() - origin) / windowNanos;
+    }
+
+    /**
+     * Returns the number of events recorded for a key during the last window.
+     *
+     * @param key the key
+     * @return the estimated number of events, never lower than the real number
+     */
+    public long count(String key)
+    {
+        long now = System.nanoTime() - origin;
+        long window = now / windowNanos;
+        double previousWeight = 1.0 - (double) (now % windowNanos) / windowNanos;
+        long estimate = Long.MAX_VALUE;
+
+        for (int row = 0; row < ROWS; row++)
+        {
+            int slot = slot(key, row);
+            long current = countIn(slot, window);
+            long previous = countIn(slot, window - 1);
+
+            estimate = Math.min(estimate, current + (long) Math.ceil(previous * previousWeight));
+        }
+
+        return estimate;
+    }
+
+    /**
+     * Records one event for a key and returns the number of events of the key, including this one.
+     *
+     * @param key the key
+     * @param window the window the event belongs to, as returned by currentWindow
+     * @return the estimated number of events during the last window, never lower than the real number
+     */
+    public long incrementAndCount(String key, long window)
+    {
+        add(key, window, 1);
+        return count(key);
+    }
+
+    /**
+     * Removes one event recorded for a key, such as an attempt that turned out not to count. Nothing is removed once the cells of the window have been reused by a later one, since the event has expired by then.
+     *
+     * @param key the key
+     * @param window the window the event was recorded in, as passed to incrementAndCount
+     */
+    public void decrement(String key, long window)
+    {
+        add(key, window, -1);
+    }
+
+    private void add(String key, long window, int delta)
+    {
+        for (int row = 0; row < ROWS; row++)
+        {
+            int cell = cell(slot(key, row), window);
+
+            while (true)
+            {
+                long packed = cells.get(cell);
+                boolean sameWindow = (packed >>> 32) == (window & COUNT_MASK);
+
+                // A decrement only applies to the window it was counted in
+                if (delta < 0 && (!sameWindow || (packed & COUNT_MASK) == 0))
+                {
+                    break;
+                }
+
+                long count = sameWindow ? packed & COUNT_MASK : 0;
+                long updated = ((window & COUNT_MASK) << 32) | Math.min(count + delta, COUNT_MASK);
+
+                if (cells.compareAndSet(cell, packed, updated))
+                {
+                    break;
+                }
+            }
+        }
+    }
+
+    private long countIn(int slot, long window)
+    {
+        if (window < 0)
+        {
+            return 0;
+        }
+
+        long packed = cells.get(cell(slot, window));
+        return (packed >>> 32) == (window & COUNT_MASK) ? packed & COUNT_MASK : 0;
+    }
+
+    private int cell(int slot, long window)
+    {
+        return slot * 2 + (int) (window & 1);
+    }
+
+    private int slot(String key, int row)
+    {
+        int hash = seeds[row];
+
+        // Mixing the seed into every character, instead of into String.hashCode, keeps keys with equal hash codes apart
+        for (int i = 0; i < key.length(); i++)
+        {
+            hash = (hash ^ key.charAt(i)) * 0x9e3779b1;
+            hash ^= hash >>> 15;
+        }
+
+        // Finalizer of MurmurHash3, so similar keys spread over the whole row
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+
+        return row * width + (hash & (width - 1));
+    }
+}
@@ -0,0 +1,261 @@
+package dao;
+
+import exception.ErrorMessages;
+import exception.OurException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.BulkReport;
+import model.Gender;
+import model.Profile;
+import model.ProfileField;
+import model.User;
+import model.UserStatistics;
+import model.UserSummary;
+import org.bson.types.ObjectId;
+
+/**
+ * Login throttle placed in front of another ModelDAO. This class limits how often logins can be attempted, so a client retrying passwords cannot send an unlimited number of queries and password checks to the database.
+ *
+ * <p>
+ * Two limits are kept over sliding windows. Failed logins are counted per credential, which stops guessing the password of one account without affecting logins to the others; every attempt is counted per source, which stops a single client from trying many credentials. An attempt over either limit is rejected with an OurException before reaching the underlying DAO. Every attempt is counted before it is checked, so a burst of parallel attempts cannot all pass the limit before any of them is counted; the credential attempt is then refunded if the login succeeds, so the owner of an account can keep logging in while it is not under attack.</p>
+ *
+ * <p>
+ * The counters are SlidingWindowCounter sketches, so they are lock free, use a fixed amount of memory whatever the number of credentials tried, and forget old attempts on their own. Every other operation is passed to the underlying DAO untouched.</p>
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class ThrottledModelDAO implements ModelDAO
+{
+
+    private static final Logger LOGGER = Logger.getLogger(ThrottledModelDAO.class.getName());
+
+    private static final int COUNTER_WIDTH = 4096;
+
+    private final ModelDAO dao;
+    private final Supplier<String> source;
+    private final int maxFailuresPerCredential;
+    private final int maxAttemptsPerSource;
+    private final SlidingWindowCounter failuresByCredential;
+    private final SlidingWindowCounter attemptsBySource;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructs a new ThrottledModelDAO with the limits of the login.throttle settings. Every attempt is attributed to the local host, since all the logins of a desktop client come from the same machine.
+     *
+     * @param dao the ModelDAO implementation whose logins are throttled
+     * @param settings the security settings holding the login limits
+     */
+    public ThrottledModelDAO(ModelDAO dao, SecuritySettings settings)
+    {
+        this(dao, ThrottledModelDAO::localHost,
+                settings.getMaxFailuresPerCredential(),
+                settings.getCredentialWindowSeconds(),
+                settings.getMaxAttemptsPerSource(),
+                settings.getSourceWindowSeconds());
+    }
+
+    /**
+     * Constructs a new ThrottledModelDAO with custom limits.
+     *
+     * @param dao the ModelDAO implementation whose logins are throttled
+     * @param source supplies the source of the current attempt, such as a host name or address
+     * @param maxFailuresPerCredential the failed logins allowed for one credential within its window
+     * @param credentialWindowSeconds the length of the credential window, in seconds
+     * @param maxAttemptsPerSource the logins allowed from one source within its window
+     * @param sourceWindowSeconds the length of the source window, in seconds
+     */
+    public ThrottledModelDAO(ModelDAO dao, Supplier<String> source, int maxFailuresPerCredential, int credentialWindowSeconds,
+            int maxAttemptsPerSource, int sourceWindowSeconds)
+    {
+        this.dao = dao;
+        this.source = source;
+        this.maxFailuresPerCredential = maxFailuresPerCredential;
+        this.maxAttemptsPerSource = maxAttemptsPerSource;
+        this.failuresByCredential = new SlidingWindowCounter(credentialWindowSeconds, TimeUnit.SECONDS, COUNTER_WIDTH);
+        this.attemptsBySource = new SlidingWindowCounter(sourceWindowSeconds, TimeUnit.SECONDS, COUNTER_WIDTH);
+    }
+
+    /**
+     * Authenticates a user through the underlying DAO unless the credential or the source has gone over its limit. The attempt is counted against the source and the credential before the limits are checked, and the credential attempt is refunded unless the login fails.
+     *
+     * @param credential the user's username or email address used for identification
+     * @param password the user's password for authentication
+     * @return the authenticated Profile, or null if the credentials are invalid
+     * @throws OurException if the attempt is over a limit, or if the underlying DAO fails
+     */
+    @Override
+    public Profile login(String credential, String password) throws OurException
+    {
+        String credentialKey = credential.trim().toLowerCase(Locale.ROOT);
+        String sourceKey = source.get();
+
+        long window = failuresByCredential.currentWindow();
+
+        if (attemptsBySource.incrementAndCount(sourceKey, attemptsBySource.currentWindow()) > maxAttemptsPerSource
+                || failuresByCredential.incrementAndCount(credentialKey, window) > maxFailuresPerCredential)
+        {
+            rejected.increment();
+            LOGGER.log(Level.WARNING, "Login attempt from {0} rejected by the throttle", sourceKey);
+            throw new OurException(ErrorMessages.TOO_MANY_ATTEMPTS);
+        }
+
+        boolean failed = false;
+
+        try
+        {
+            Profile profile = dao.login(credential, password);
+            failed = profile == null;
+            return profile;
+        }
+        finally
+        {
+            // Only wrong passwords count against the credential, not successes or database errors
+            if (!failed)
+            {
+                failuresByCredential.decrement(credentialKey, window);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of login attempts rejected since this DAO was created.
+     *
+     * @return the number of rejected attempts
+     */
+    public long getRejectedCount()
+    {
+        return rejected.sum();
+    }
+
+    private static String localHost()
+    {
+        return LocalHostHolder.NAME;
+    }
+
+    @Override
+    public ArrayList<User> getUsers() throws OurException
+    {
+        return dao.getUsers();
+    }
+
+    @Override
+    public ArrayList<User> getUsersPage(ObjectId afterId, int limit) throws OurException
+    {
+        return dao.getUsersPage(afterId, limit);
+    }
+
+    @Override
+    public ArrayList<UserSummary> getUserSummaries() throws OurException
+    {
+        return dao.getUserSummaries();
+    }
+
+    @Override
+    public ArrayList<UserSummary> getUserSummariesPage(ObjectId afterId, int limit) throws OurException
+    {
+        return dao.getUserSummariesPage(afterId, limit);
+    }
+
+    @Override
+    public ArrayList<UserSummary> searchUsers(String query, Gender gender, ObjectId afterId, int limit) throws OurException
+    {
+        return dao.searchUsers(query, gender, afterId, limit);
+    }
+
+    @Override
+    public ArrayList<UserSummary> searchUsersSorted(String query, Gender gender, ProfileField sortField, boolean ascending, int offset, int limit) throws OurException
+    {
+        return dao.searchUsersSorted(query, gender, sortField, ascending, offset, limit);
+    }
+
+    @Override
+    public long countUsers(String query, Gender gender) throws OurException
+    {
+        return dao.countUsers(query, gender);
+    }
+
+    @Override
+    public UserStatistics getUserStatistics(int months) throws OurException
+    {
+        return dao.getUserStatistics(months);
+    }
+
+    @Override
+    public User getUser(ObjectId id) throws OurException
+    {
+        return dao.getUser(id);
+    }
+
+    @Override
+    public boolean updateUser(User user) throws OurException
+    {
+        return dao.updateUser(user);
+    }
+
+    @Override
+    public boolean deleteUser(ObjectId id) throws OurException
+    {
+        return dao.deleteUser(id);
+    }
+
+    @Override
+    public User register(User user) throws OurException
+    {
+        return dao.register(user);
+    }
+
+    @Override
+    public BulkReport registerAll(Iterable<User> users, int batchSize) throws OurException
+    {
+        return dao.registerAll(users, batchSize);
+    }
+
+    @Override
+    public BulkReport updateUsers(Collection<User> users) throws OurException
+    {
+        return dao.updateUsers(users);
+    }
+
+    @Override
+    public BulkReport deleteUsers(Collection<ObjectId> ids) throws OurException
+    {
+        return dao.deleteUsers(ids);
+    }
+
+    @Override
+    public long exportUsers(OutputStream out, ExportFormat format, ExportProgress progress) throws OurException
+    {
+        return dao.exportUsers(out, format, progress);
+    }
+
+    /**
+     * Resolves the local host name on the first login instead of at startup, since the lookup may have to wait for the name service.
+     */
+    private static class LocalHostHolder
+    {
+
+        static final String NAME = resolve();
+
+        private static String resolve()
+        {
+            try
+            {
+                return InetAddress.getLocalHost().getHostName();
+            }
+            catch (UnknownHostException ex)
+            {
+                return "localhost";
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package dao;
+
+import model.User;
+import org.bson.types.ObjectId;
+
+/**
+ * Receiver of the changes made to the users collection, whoever made them. Implementations apply each change incrementally to the data they hold, such as a cache or the list shown in an administrative window, instead of reloading everything.
+ *
+ * <p>
+ * Methods are called on the thread that produces the changes, normally the UserChangeWatcher thread, so implementations that touch the interface must move the work to the JavaFX Application Thread themselves. Any other source, such as an in-memory fake, can drive a listener by calling these methods directly.</p>
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public interface UserChangeListener
+{
+
+    /**
+     * Called when a new user has been registered.
+     *
+     * @param user the complete inserted user
+     */
+    public void userInserted(User user);
+
+    /**
+     * Called when an existing user has been modified.
+     *
+     * @param user the complete user as it is after the change
+     */
+    public void userUpdated(User user);
+
+    /**
+     * Called when a profile has been deleted. The identifier may belong to a profile the listener does not hold, since deletions do not tell users and administrators apart.
+     *
+     * @param id the identifier of the deleted profile
+     */
+    public void userDeleted(ObjectId id);
+
+    /**
+     * Called when some changes could not be delivered, for example because the change history needed to resume after a disconnection is no longer available. Listeners must discard or reload everything they hold.
+     */
+    public void changesMissed();
+}
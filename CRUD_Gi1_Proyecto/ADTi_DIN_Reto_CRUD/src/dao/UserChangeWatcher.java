@@ -0,0 +1,292 @@
+package dao;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.Profile;
+import model.User;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.types.ObjectId;
+
+/**
+ * Background watcher that follows the change stream of the users collection and forwards every insert, update and delete to the registered UserChangeListener objects. Each change is delivered once, as it happens, so listeners stay in sync with the changes made by other administrators without rescanning the collection.
+ *
+ * <p>
+ * The watcher remembers the resume token of the last change it received. When the connection is lost it reopens the stream from that token, so no change is skipped; if the server no longer holds the history needed to resume, the listeners are told to reload through changesMissed. Change streams require a replica set: on a standalone server the watcher logs the situation and stops, and the application keeps working with manual refreshes. A single-node replica set is enough for local development.</p>
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class UserChangeWatcher implements Runnable
+{
+
+    private static final Logger LOGGER = Logger.getLogger(UserChangeWatcher.class.getName());
+
+    private static final int NOT_A_REPLICA_SET = 40573;
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private static final long MAX_AWAIT_MILLIS = 1000;
+    private static final long MIN_RETRY_MILLIS = 500;
+    private static final long MAX_RETRY_MILLIS = 30000;
+
+    private final Supplier<MongoCollection<Profile>> collection;
+    private final List<UserChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread thread;
+    private BsonDocument resumeToken;
+
+    /**
+     * Constructs a new UserChangeWatcher. The collection is requested from the watcher thread once it starts, so creating the watcher never waits for the database client.
+     *
+     * @param collection supplier of the users collection, configured to decode Profile objects
+     */
+    public UserChangeWatcher(Supplier<MongoCollection<Profile>> collection)
+    {
+        this.collection = collection;
+    }
+
+    /**
+     * Registers a listener that will receive the following changes.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(UserChangeListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener so it no longer receives changes.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(UserChangeListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts following the change stream on a daemon thread. Calling this method on a watcher that is already running has no effect.
+     */
+    public synchronized void start()
+    {
+        if (running)
+        {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this, "users-change-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops following the change stream. The watcher thread finishes within the maximum await time of the stream.
+     */
+    public synchronized void stop()
+    {
+        running = false;
+
+        if (thread != null)
+        {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * Main loop of the watcher thread. This method opens the change stream, resuming after the last received change if there is one, and delivers every change to the listeners until the watcher is stopped. Connection errors are retried with an increasing delay. Any other failure, such as a change whose document cannot be decoded, is retried the same way instead of ending the thread, but from the current end of the stream, since resuming before the failed change would only fail again; the listeners are told to reload, so the changes skipped that way are not lost.
+     */
+    @Override
+    public void run()
+    {
+        long retryMillis = MIN_RETRY_MILLIS;
+
+        while (running)
+        {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Profile>> cursor = open())
+            {
+                retryMillis = MIN_RETRY_MILLIS;
+
+                while (running)
+                {
+                    ChangeStreamDocument<Profile> change = cursor.tryNext();
+
+                    if (change != null && !dispatch(change))
+                    {
+                        break;
+                    }
+
+                    if (cursor.getResumeToken() != null)
+                    {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                }
+            }
+            catch (MongoCommandException ex)
+            {
+                if (ex.getErrorCode() == NOT_A_REPLICA_SET)
+                {
+                    LOGGER.log(Level.INFO, "MongoDB is not running as a replica set; live user list updates are disabled");
+                    running = false;
+                    return;
+                }
+
+                if (ex.getErrorCode() == CHANGE_STREAM_HISTORY_LOST || ex.getErrorCode() == CHANGE_STREAM_FATAL_ERROR)
+                {
+                    LOGGER.log(Level.WARNING, "User changes could not be resumed; listeners will reload", ex);
+                    resumeToken = null;
+                    deliver(UserChangeListener::changesMissed);
+                    continue;
+                }
+
+                LOGGER.log(Level.WARNING, "User change stream failed, retrying in " + retryMillis + " ms", ex);
+            }
+            catch (MongoException ex)
+            {
+                LOGGER.log(Level.WARNING, "User change stream failed, retrying in " + retryMillis + " ms", ex);
+            }
+            catch (RuntimeException ex)
+            {
+                LOGGER.log(Level.WARNING, "User change could not be read, reopening the stream in " + retryMillis + " ms; listeners will reload", ex);
+                resumeToken = null;
+                deliver(UserChangeListener::changesMissed);
+            }
+
+            if (!sleep(retryMillis))
+            {
+                return;
+            }
+
+            retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+        }
+    }
+
+    /**
+     * Opens the change stream of the users collection. Updates are delivered with the complete document as it is after the change, and the stream resumes after the last received change if there is one.
+     *
+     * @return the change stream cursor
+     */
+    private MongoChangeStreamCursor<ChangeStreamDocument<Profile>> open()
+    {
+        ChangeStreamIterable<Profile> stream = collection.get().watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+
+        if (resumeToken != null)
+        {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        return stream.cursor();
+    }
+
+    /**
+     * Delivers a single change to the listeners. Dropping or renaming the collection closes the stream and makes the listeners reload. Changes to administrator profiles are only delivered for deletions, whose documents are no longer available to tell them apart. An update whose document has been deleted before it could be looked up is delivered as a deletion.
+     *
+     * @param change the change received from the stream
+     * @return false if the change closed the stream, true otherwise
+     */
+    private boolean dispatch(ChangeStreamDocument<Profile> change)
+    {
+        Profile profile = change.getFullDocument();
+        ObjectId id = documentId(change);
+
+        switch (change.getOperationType())
+        {
+            case INSERT:
+                if (profile instanceof User)
+                {
+                    deliver(listener -> listener.userInserted((User) profile));
+                }
+                break;
+            case UPDATE:
+            case REPLACE:
+                if (profile instanceof User)
+                {
+                    deliver(listener -> listener.userUpdated((User) profile));
+                }
+                else if (profile == null && id != null)
+                {
+                    deliver(listener -> listener.userDeleted(id));
+                }
+                break;
+            case DELETE:
+                if (id != null)
+                {
+                    deliver(listener -> listener.userDeleted(id));
+                }
+                break;
+            case DROP:
+            case RENAME:
+            case DROP_DATABASE:
+            case INVALIDATE:
+                resumeToken = null;
+                deliver(UserChangeListener::changesMissed);
+                return false;
+            default:
+                break;
+        }
+
+        return true;
+    }
+
+    private ObjectId documentId(ChangeStreamDocument<Profile> change)
+    {
+        if (change.getDocumentKey() == null)
+        {
+            return null;
+        }
+
+        BsonValue id = change.getDocumentKey().get("_id");
+        return id != null && id.isObjectId() ? id.asObjectId().getValue() : null;
+    }
+
+    /**
+     * Runs a callback on every listener, logging any failure so one faulty listener does not stop the others or the watcher.
+     *
+     * @param callback the notification to deliver
+     */
+    private void deliver(Consumer<UserChangeListener> callback)
+    {
+        for (UserChangeListener listener : listeners)
+        {
+            try
+            {
+                callback.accept(listener);
+            }
+            catch (RuntimeException ex)
+            {
+                LOGGER.log(Level.WARNING, "User change listener " + listener + " failed", ex);
+            }
+        }
+    }
+
+    private boolean sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+            return running;
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package dao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import model.User;
+
+/**
+ * Writes users to an output stream as NDJSON or CSV, one user at a time. Each user is formatted straight into a buffered writer, so an export never holds more than the current user and the buffer in memory.
+ *
+ * Passwords are never written and the payment card is written masked, as returned by User.getMaskedCard. The stream is flushed but not closed by this class.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class UserExportWriter
+{
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] FIELDS =
+    {
+        "_id", "P_EMAIL", "P_USERNAME", "P_NAME", "P_LASTNAME", "P_TELEPHONE", "U_GENDER", "U_CARD"
+    };
+
+    private final Writer writer;
+    private final ExportFormat format;
+
+    /**
+     * Constructs a new UserExportWriter. For CSV the header row is written immediately.
+     *
+     * @param out the stream to write to
+     * @param format the output format
+     * @throws IOException if the header cannot be written
+     */
+    public UserExportWriter(OutputStream out, ExportFormat format) throws IOException
+    {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.format = format;
+
+        if (format == ExportFormat.CSV)
+        {
+            writer.write(String.join(",", FIELDS));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Writes a single user.
+     *
+     * @param user the user to write
+     * @throws IOException if the user cannot be written
+     */
+    public void write(User user) throws IOException
+    {
+        String[] values =
+        {
+            user.getId() != null ? user.getId().toHexString() : null, user.getEmail(), user.getUsername(), user.getName(), user.getLastname(), user.getTelephone(),
+            user.getGender() != null ? user.getGender().name() : null, user.getMaskedCard()
+        };
+
+        if (format == ExportFormat.CSV)
+        {
+            writeCsv(values);
+        }
+        else
+        {
+            writeJson(values);
+        }
+    }
+
+    /**
+     * Flushes every buffered user to the underlying stream.
+     *
+     * @throws IOException if the buffered data cannot be written
+     */
+    public void flush() throws IOException
+    {
+        writer.flush();
+    }
+
+    private void writeCsv(String[] values) throws IOException
+    {
+        for (int i = 0; i < values.length; i++)
+        {
+            if (i > 0)
+            {
+                writer.write(',');
+            }
+
+            String value = values[i];
+
+            if (value == null)
+            {
+                continue;
+            }
+
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0)
+            {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+            else
+            {
+                writer.write(value);
+            }
+        }
+
+        writer.write('\n');
+    }
+
+    private void writeJson(String[] values) throws IOException
+    {
+        boolean first = true;
+        writer.write('{');
+
+        for (int i = 0; i < values.length; i++)
+        {
+            if (values[i] == null)
+            {
+                continue;
+            }
+
+            if (!first)
+            {
+                writer.write(',');
+            }
+
+            first = false;
+            writeJsonString(FIELDS[i]);
+            writer.write(':');
+            writeJsonString(values[i]);
+        }
+
+        writer.write("}\n");
+    }
+
+    private void writeJsonString(String value) throws IOException
+    {
+        writer.write('"');
+
+        for (int i = 0; i < value.length(); i++)
+        {
+            char ch = value.charAt(i);
+
+            switch (ch)
+            {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (ch < 0x20)
+                    {
+                        writer.write(String.format("\\u%04x", (int) ch));
+                    }
+                    else
+                    {
+                        writer.write(ch);
+                    }
+            }
+        }
+
+        writer.write('"');
+    }
+}
@@ -0,0 +1,431 @@
+package dao;
+
+import exception.OurException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.Admin;
+import model.BulkReport;
+import model.Gender;
+import model.Profile;
+import model.User;
+import org.bson.BSONException;
+import org.bson.codecs.DecoderContext;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonReader;
+import org.bson.types.ObjectId;
+
+/**
+ * Imports users from a file into the database in batches. JSON files in the format of users_manager.users.json, either a single array or one document per line, and CSV files whose header row names the document fields (P_EMAIL, P_USERNAME, U_GENDER...) are supported.
+ *
+ * The file is read incrementally: JSON documents are cut out of the input one at a time and decoded with the ProfileCodec, and CSV files are read line by line, so memory use does not depend on the size of the file. Administrator records are skipped and records that cannot be decoded are logged and skipped, without stopping the import.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class UserImporter
+{
+
+    private static final Logger LOGGER = Logger.getLogger(UserImporter.class.getName());
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final Path file;
+    private int skippedAdmins;
+    private int skippedInvalid;
+
+    /**
+     * Constructs a new UserImporter for the given file. The format is chosen from the file extension: .csv files are read as CSV and any other file as JSON.
+     *
+     * @param file the file to import
+     */
+    public UserImporter(Path file)
+    {
+        this.file = file;
+    }
+
+    /**
+     * Reads every user of the file and registers them through the given DAO.
+     *
+     * @param dao the DAO that stores the users
+     * @param batchSize the maximum number of users sent to the database in a single request
+     * @return the report of the registration
+     * @throws IOException if the file cannot be read
+     * @throws OurException if the registration cannot continue due to database errors
+     */
+    public BulkReport importInto(ModelDAO dao, int batchSize) throws IOException, OurException
+    {
+        skippedAdmins = 0;
+        skippedInvalid = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            RecordReader records = file.getFileName().toString().toLowerCase().endsWith(".csv")
+                    ? new CsvRecordReader(reader)
+                    : new JsonRecordReader(reader);
+
+            return dao.registerAll(() -> new UserIterator(records), batchSize);
+        }
+        catch (UncheckedIOException ex)
+        {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Returns the number of administrator records skipped by the last import.
+     *
+     * @return the number of skipped administrators
+     */
+    public int getSkippedAdmins()
+    {
+        return skippedAdmins;
+    }
+
+    /**
+     * Returns the number of records skipped by the last import because they could not be decoded.
+     *
+     * @return the number of invalid records
+     */
+    public int getSkippedInvalid()
+    {
+        return skippedInvalid;
+    }
+
+    /**
+     * Command line entry point. Imports the file given as first argument into the database configured in mongo.properties, optionally with the batch size given as second argument, and prints the report.
+     *
+     * @param args the file to import and, optionally, the batch size
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 1 || args.length > 2)
+        {
+            System.err.println("Usage: UserImporter <users.json | users.ndjson | users.csv> [batchSize]");
+            System.exit(2);
+        }
+
+        UserImporter importer = new UserImporter(Paths.get(args[0]));
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BATCH_SIZE;
+
+        try
+        {
+            BulkReport report = importer.importInto(new DBImplementation(), batchSize);
+
+            System.out.println("Imported users: " + report);
+            System.out.println("Skipped administrators: " + importer.getSkippedAdmins() + ", invalid records: " + importer.getSkippedInvalid());
+
+            for (BulkReport.Failure failure : report.getFailures())
+            {
+                System.out.println("  " + failure);
+            }
+        }
+        catch (IOException | OurException ex)
+        {
+            System.err.println("Import failed: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Source of decoded records. Returns null at the end of the input.
+     */
+    private interface RecordReader
+    {
+
+        Profile next() throws IOException;
+    }
+
+    /**
+     * Iterator over the users of a RecordReader that skips administrators and invalid records. Read errors are thrown as UncheckedIOException, because the iterator is consumed by the DAO.
+     */
+    private class UserIterator implements Iterator<User>
+    {
+
+        private final RecordReader records;
+        private User next;
+        private int position;
+
+        private UserIterator(RecordReader records)
+        {
+            this.records = records;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            try
+            {
+                while (next == null)
+                {
+                    Profile profile;
+
+                    try
+                    {
+                        profile = records.next();
+                    }
+                    catch (BSONException | JsonParseException | IllegalArgumentException ex)
+                    {
+                        skippedInvalid++;
+                        LOGGER.log(Level.WARNING, "Skipping invalid record #{0}: {1}", new Object[]{position, ex.getMessage()});
+                        position++;
+                        continue;
+                    }
+
+                    if (profile == null)
+                    {
+                        return false;
+                    }
+
+                    position++;
+
+                    if (profile instanceof User)
+                    {
+                        next = (User) profile;
+                    }
+                    else
+                    {
+                        skippedAdmins++;
+                    }
+                }
+
+                return true;
+            }
+            catch (IOException ex)
+            {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public User next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            User user = next;
+            next = null;
+            return user;
+        }
+    }
+
+    /**
+     * Reads JSON documents one at a time, whether they are elements of an array or written one after another. Each top level object is cut out of the input by tracking the brace depth outside string literals and is then decoded with the ProfileCodec, which understands the extended JSON written by mongoexport.
+     */
+    private static class JsonRecordReader implements RecordReader
+    {
+
+        private final BufferedReader reader;
+        private final ProfileCodec codec = new ProfileCodec();
+        private final StringBuilder document = new StringBuilder();
+
+        private JsonRecordReader(BufferedReader reader)
+        {
+            this.reader = reader;
+        }
+
+        @Override
+        public Profile next() throws IOException
+        {
+            int depth = 0;
+            boolean inString = false;
+            boolean escaped = false;
+            int c;
+
+            document.setLength(0);
+
+            while ((c = reader.read()) != -1)
+            {
+                char ch = (char) c;
+
+                if (depth == 0 && ch != '{')
+                {
+                    continue;
+                }
+
+                document.append(ch);
+
+                if (inString)
+                {
+                    if (escaped)
+                    {
+                        escaped = false;
+                    }
+                    else if (ch == '\\')
+                    {
+                        escaped = true;
+                    }
+                    else if (ch == '"')
+                    {
+                        inString = false;
+                    }
+                }
+                else if (ch == '"')
+                {
+                    inString = true;
+                }
+                else if (ch == '{')
+                {
+                    depth++;
+                }
+                else if (ch == '}' && --depth == 0)
+                {
+                    return decode(document.toString());
+                }
+            }
+
+            if (depth > 0)
+            {
+                throw new JsonParseException("Unexpected end of file inside a document");
+            }
+
+            return null;
+        }
+
+        private Profile decode(String json)
+        {
+            Profile profile = codec.decode(new JsonReader(json), DecoderContext.builder().build());
+
+            if (profile == null)
+            {
+                throw new IllegalArgumentException("Neither a user nor an administrator");
+            }
+
+            return profile;
+        }
+    }
+
+    /**
+     * Reads CSV records line by line. The first line names the field of each column; quoted values may contain commas and doubled quotes, but not line breaks.
+     */
+    private static class CsvRecordReader implements RecordReader
+    {
+
+        private final BufferedReader reader;
+        private List<String> header;
+
+        private CsvRecordReader(BufferedReader reader)
+        {
+            this.reader = reader;
+        }
+
+        @Override
+        public Profile next() throws IOException
+        {
+            if (header == null)
+            {
+                String line = reader.readLine();
+
+                if (line == null)
+                {
+                    return null;
+                }
+
+                header = split(line.startsWith("\uFEFF") ? line.substring(1) : line);
+            }
+
+            String line;
+
+            do
+            {
+                line = reader.readLine();
+
+                if (line == null)
+                {
+                    return null;
+                }
+            }
+            while (line.trim().isEmpty());
+
+            List<String> values = split(line);
+            Map<String, String> row = new HashMap<>();
+
+            for (int i = 0; i < header.size() && i < values.size(); i++)
+            {
+                if (!values.get(i).isEmpty())
+                {
+                    row.put(header.get(i).trim(), values.get(i));
+                }
+            }
+
+            if (!row.containsKey("U_GENDER"))
+            {
+                if (row.containsKey("A_CURRENT_ACCOUNT"))
+                {
+                    return new Admin(row.get("P_EMAIL"), row.get("P_USERNAME"), row.get("P_PASSWORD"),
+                            row.get("P_NAME"), row.get("P_LASTNAME"), row.get("P_TELEPHONE"), row.get("A_CURRENT_ACCOUNT"));
+                }
+
+                throw new IllegalArgumentException("Neither a user nor an administrator");
+            }
+
+            String id = row.get("_id");
+
+            if (id != null && !ObjectId.isValid(id))
+            {
+                throw new IllegalArgumentException("Invalid _id " + id);
+            }
+
+            return new User(id != null ? new ObjectId(id) : null, row.get("P_EMAIL"), row.get("P_USERNAME"), row.get("P_PASSWORD"),
+                    row.get("P_NAME"), row.get("P_LASTNAME"), row.get("P_TELEPHONE"), Gender.valueOf(row.get("U_GENDER")), row.get("U_CARD"));
+        }
+
+        private List<String> split(String line)
+        {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length(); i++)
+            {
+                char ch = line.charAt(i);
+
+                if (quoted)
+                {
+                    if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                    {
+                        value.append('"');
+                        i++;
+                    }
+                    else if (ch == '"')
+                    {
+                        quoted = false;
+                    }
+                    else
+                    {
+                        value.append(ch);
+                    }
+                }
+                else if (ch == '"')
+                {
+                    quoted = true;
+                }
+                else if (ch == ',')
+                {
+                    values.add(value.toString());
+                    value.setLength(0);
+                }
+                else
+                {
+                    value.append(ch);
+                }
+            }
+
+            values.add(value.toString());
+            return values;
+        }
+    }
+}
@@ -20,21 +20,66 @@ public class ErrorMessages
      */
     public static final String GET_USERS = "Failed to retrieve users.";
 
+    /**
+     * Error message displayed when the user statistics cannot be computed. This typically occurs due to database connection issues or when the server does not support the aggregation operators used.
+     */
+    public static final String GET_STATISTICS = "Failed to retrieve user statistics.";
+
     /**
      * Error message displayed when user profile update fails. This typically occurs due to database constraints, validation errors, or system errors during the update process.
      */
     public static final String UPDATE_USER = "User could not be updated.";
 
+    /**
+     * Error message displayed when an update is rejected because the user was modified by someone else after it was loaded. This typically occurs when two administrators edit the same user at the same time.
+     */
+    public static final String VERSION_CONFLICT = "The user was modified by someone else since it was loaded.";
+
     /**
      * Error message displayed when user deletion fails. This typically occurs due to database constraints, foreign key violations, or system errors during the deletion process.
      */
     public static final String DELETE_USER = "User could not be deleted.";
 
+    /**
+     * Error message reported when an operation targets a user that does not exist. This typically occurs when the user was deleted by another administrator after the list was loaded.
+     */
+    public static final String USER_NOT_FOUND = "User not found.";
+
+    /**
+     * Error message reported when an operation receives a malformed user identifier.
+     */
+    public static final String INVALID_ID = "Invalid user identifier.";
+
+    /**
+     * Error message reported when a bulk operation receives the same user identifier more than once. Only the first occurrence is applied.
+     */
+    public static final String DUPLICATE_ID = "User identifier repeated in the request.";
+
+    /**
+     * Error message displayed when a password cannot be hashed or checked. This typically occurs when the stored hash is corrupted or the hashing algorithm is not available in the Java runtime.
+     */
+    public static final String HASH_PASSWORD = "The password could not be processed.";
+
     /**
      * Error message displayed when user authentication fails. This typically occurs due to invalid credentials, user not found, or system errors during the login process.
      */
     public static final String LOGIN = "Login failed. Please check your credentials.";
 
+    /**
+     * Error message displayed when a login attempt is rejected without checking the credentials. This occurs when too many logins failed for the same account, or too many were attempted from the same computer, within a short time.
+     */
+    public static final String TOO_MANY_ATTEMPTS = "Too many login attempts. Please wait a few minutes and try again.";
+
+    /**
+     * Error message displayed when registration fails because the email is already used by another account. This is detected through the unique index on the email field.
+     */
+    public static final String EMAIL_EXISTS = "Email already exists";
+
+    /**
+     * Error message displayed when registration fails because the username is already used by another account. This is detected through the unique index on the username field.
+     */
+    public static final String USERNAME_EXISTS = "Username already exists";
+
     /**
      * Error message displayed when credential verification fails. This typically occurs during registration when checking for duplicate emails or usernames, and the verification process encounters errors.
      */
@@ -59,4 +104,14 @@ public class ErrorMessages
      * Error message displayed when database initialization fails. This typically occurs during application startup when the system cannot establish initial connection to the database or initialize the data source.
      */
     public static final String DATABASE = "Error initializing database connection.";
+
+    /**
+     * Error message displayed when a background database operation cannot be queued. This typically occurs when too many operations are already pending because the database is slow or unreachable.
+     */
+    public static final String BUSY = "The system is busy. Please try again in a moment.";
+
+    /**
+     * Error message displayed when exporting the users fails. This typically occurs when the export file cannot be written or the connection to the database is lost during the export.
+     */
+    public static final String EXPORT_USERS = "Failed to export users.";
 }
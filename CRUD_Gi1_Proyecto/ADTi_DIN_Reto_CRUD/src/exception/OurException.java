@@ -1,5 +1,7 @@
 package exception;
 
+import java.util.concurrent.CompletionException;
+
 /**
  * Custom exception class for handling application-specific errors. This exception is used throughout the application to represent business logic errors, data access issues, and other application-specific failure conditions.
  *
@@ -19,4 +21,28 @@ public class OurException extends Exception
     {
         super(mensaje);
     }
+
+    /**
+     * Extracts the OurException carried by a failed asynchronous operation. Futures that are chained with further stages wrap the original failure in a CompletionException, so this method unwraps it; any other unexpected failure is converted into a new OurException with the given fallback message.
+     *
+     * @param error the failure reported by the asynchronous operation
+     * @param fallbackMessage the message to use when the failure is not an OurException
+     * @return the original OurException, or a new one carrying the fallback message
+     */
+    public static OurException unwrap(Throwable error, String fallbackMessage)
+    {
+        Throwable cause = error;
+
+        while (cause instanceof CompletionException && cause.getCause() != null)
+        {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof OurException)
+        {
+            return (OurException) cause;
+        }
+
+        return new OurException(fallbackMessage);
+    }
 }
@@ -0,0 +1,20 @@
+package exception;
+
+/**
+ * Exception thrown when an update is rejected because the stored profile no longer has the version it was read with. This means another client saved the same profile in the meantime; the caller should reload the profile, reapply its changes and save again instead of treating the update as a failure.
+ *
+ * Extends OurException so it travels through the same asynchronous paths and can be told apart with instanceof.
+ */
+public class VersionConflictException extends OurException
+{
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new VersionConflictException with the standard conflict message.
+     */
+    public VersionConflictException()
+    {
+        super(ErrorMessages.VERSION_CONFLICT);
+    }
+}
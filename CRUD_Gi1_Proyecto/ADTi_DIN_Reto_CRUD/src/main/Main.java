@@ -1,6 +1,11 @@
 package main;
 
+import config.MongoConnection;
 import controller.Controller;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
@@ -14,8 +19,22 @@ import javafx.stage.Stage;
 public class Main extends Application
 {
 
+    private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
+
+    private long initStart;
+
     /**
-     * The main entry point for all JavaFX applications. This method is called after the init method has returned, and after the system is ready for the application to begin running. It creates the main controller instance and displays the login window.
+     * Initializes the application before the user interface is created. This method is called on the launcher thread and starts creating the database client in the background, so server discovery overlaps with the loading of the login window instead of delaying it.
+     */
+    @Override
+    public void init()
+    {
+        initStart = System.nanoTime();
+        MongoConnection.connectAsync();
+    }
+
+    /**
+     * The main entry point for all JavaFX applications. This method is called after the init method has returned, and after the system is ready for the application to begin running. It creates the main controller instance, displays the login window and logs how long the application took to show it.
      *
      * @param stage the primary stage for this application, onto which the application scene can be set
      * @throws Exception if the application initialization fails, including controller creation errors or window display issues
@@ -25,6 +44,12 @@ public class Main extends Application
     {
         Controller controller = new Controller();
         controller.showWindow(stage);
+
+        LOGGER.log(Level.INFO, "Login window shown {0} ms after init and {1} ms after JVM start", new Object[]
+        {
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - initStart),
+            System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()
+        });
     }
 
     /**
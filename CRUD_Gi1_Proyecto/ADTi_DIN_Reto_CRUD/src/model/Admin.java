@@ -1,5 +1,7 @@
 package model;
 
+import org.bson.types.ObjectId;
+
 /**
  * Represents an administrator user in the system, extending the base Profile class. This class contains administrator-specific attributes and functionality, including access to administrative accounts and privileged operations.
  *
@@ -22,7 +24,7 @@ public class Admin extends Profile
      * @param p_telephone the telephone number of the administrator
      * @param a_current_account the current administrative account number or identifier
      */
-    public Admin(String p_id, String p_email, String p_username, String p_password, String p_name, String p_lastname, String p_telephone, String a_current_account)
+    public Admin(ObjectId p_id, String p_email, String p_username, String p_password, String p_name, String p_lastname, String p_telephone, String a_current_account)
     {
         super(p_id, p_email, p_username, p_password, p_name, p_lastname, p_telephone);
         this.a_current_account = a_current_account;
@@ -62,6 +64,7 @@ public class Admin extends Profile
      */
     public void setCurrent_account(String a_current_account)
     {
+        markChanged(ProfileField.CURRENT_ACCOUNT, this.a_current_account, a_current_account);
         this.a_current_account = a_current_account;
     }
 
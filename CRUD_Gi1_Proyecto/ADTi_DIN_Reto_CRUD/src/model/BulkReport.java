@@ -0,0 +1,137 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an operation applied to many users at once, such as a bulk registration. This class counts the items that were processed and the ones that succeeded, and keeps one Failure for every item that was rejected, so a single bad row never hides the result of the rest.
+ *
+ * Reports are filled by the data access layer and only read by callers.
+ */
+public class BulkReport
+{
+
+    private int processed;
+    private int succeeded;
+    private final List<Failure> failures = new ArrayList<>();
+
+    /**
+     * Records that a number of items were sent and how many of them succeeded.
+     *
+     * @param count the number of items processed
+     * @param ok the number of those items that succeeded
+     */
+    public void addProcessed(int count, int ok)
+    {
+        processed += count;
+        succeeded += ok;
+    }
+
+    /**
+     * Records a rejected item.
+     *
+     * @param index the position of the item in the input, starting at zero
+     * @param key a value identifying the item, such as a username or an identifier
+     * @param message the reason why the item was rejected
+     */
+    public void addFailure(int index, String key, String message)
+    {
+        failures.add(new Failure(index, key, message));
+    }
+
+    /**
+     * Returns the number of items processed.
+     *
+     * @return the number of processed items
+     */
+    public int getProcessed()
+    {
+        return processed;
+    }
+
+    /**
+     * Returns the number of items that succeeded.
+     *
+     * @return the number of successful items
+     */
+    public int getSucceeded()
+    {
+        return succeeded;
+    }
+
+    /**
+     * Returns the rejected items in the order they were reported.
+     *
+     * @return an unmodifiable list of failures
+     */
+    public List<Failure> getFailures()
+    {
+        return Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Returns a one-line summary of the report, suitable for logging.
+     *
+     * @return the report counters as text
+     */
+    @Override
+    public String toString()
+    {
+        return "processed: " + processed + ", succeeded: " + succeeded + ", failed: " + failures.size();
+    }
+
+    /**
+     * A single item rejected by a bulk operation.
+     */
+    public static class Failure
+    {
+
+        private final int index;
+        private final String key;
+        private final String message;
+
+        private Failure(int index, String key, String message)
+        {
+            this.index = index;
+            this.key = key;
+            this.message = message;
+        }
+
+        /**
+         * Returns the position of the item in the input, starting at zero.
+         *
+         * @return the item index
+         */
+        public int getIndex()
+        {
+            return index;
+        }
+
+        /**
+         * Returns the value identifying the item, such as a username or an identifier.
+         *
+         * @return the item key
+         */
+        public String getKey()
+        {
+            return key;
+        }
+
+        /**
+         * Returns the reason why the item was rejected.
+         *
+         * @return the failure message
+         */
+        public String getMessage()
+        {
+            return message;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "#" + index + " " + key + ": " + message;
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package model;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import org.bson.types.ObjectId;
+
 /**
  * Abstract base class representing a user profile in the system. This class defines the common attributes and behavior shared by all types of user profiles, including both regular users and administrators.
  *
@@ -10,20 +16,24 @@ package model;
 public abstract class Profile
 {
 
-    protected String p_id;
+    protected ObjectId p_id;
     protected String p_email;
     protected String p_username;
     protected String p_password;
     protected String p_name;
     protected String p_lastname;
     protected String p_telephone;
+    protected long p_version;
+
+    private boolean storedPassword;
+    private final EnumSet<ProfileField> changedFields = EnumSet.noneOf(ProfileField.class);
 
     /**
-     * Default constructor that initializes all profile attributes to empty values. The ID is set to -1 to indicate an unpersisted profile that hasn't been assigned a database identifier yet.
+     * Default constructor that initializes all profile attributes to empty values. The ID is left null to indicate an unpersisted profile that hasn't been assigned a database identifier yet.
      */
     public Profile()
     {
-        this.p_id = "";
+        this.p_id = null;
         this.p_email = "";
         this.p_username = "";
         this.p_password = "";
@@ -43,7 +53,7 @@ public abstract class Profile
      * @param p_lastname the last name of the profile owner
      * @param p_telephone the telephone number of the profile owner
      */
-    public Profile(String p_id, String p_email, String p_username, String p_password, String p_name, String p_lastname, String p_telephone)
+    public Profile(ObjectId p_id, String p_email, String p_username, String p_password, String p_name, String p_lastname, String p_telephone)
     {
         this.p_id = p_id;
         this.p_email = p_email;
@@ -66,7 +76,7 @@ public abstract class Profile
      */
     public Profile(String p_email, String p_username, String p_password, String p_name, String p_lastname, String p_telephone)
     {
-        this.p_id = "";
+        this.p_id = null;
         this.p_email = p_email;
         this.p_username = p_username;
         this.p_password = p_password;
@@ -76,11 +86,11 @@ public abstract class Profile
     }
 
     /**
-     * Returns the unique identifier of the profile.
+     * Returns the unique identifier of the profile. The identifier is kept as the 12-byte ObjectId stored in the database; it is only turned into its hexadecimal text where it has to be shown or written as text.
      *
-     * @return the profile ID, or -1 if the profile hasn't been persisted
+     * @return the profile ID, or null if the profile hasn't been persisted
      */
-    public String getId()
+    public ObjectId getId()
     {
         return p_id;
     }
@@ -90,7 +100,7 @@ public abstract class Profile
      *
      * @param p_id the new ID to assign to the profile
      */
-    public void setId(String p_id)
+    public void setId(ObjectId p_id)
     {
         this.p_id = p_id;
     }
@@ -112,6 +122,7 @@ public abstract class Profile
      */
     public void setEmail(String p_email)
     {
+        markChanged(ProfileField.EMAIL, this.p_email, p_email);
         this.p_email = p_email;
     }
 
@@ -132,6 +143,7 @@ public abstract class Profile
      */
     public void setUsername(String p_username)
     {
+        markChanged(ProfileField.USERNAME, this.p_username, p_username);
         this.p_username = p_username;
     }
 
@@ -152,7 +164,30 @@ public abstract class Profile
      */
     public void setPassword(String p_password)
     {
+        markChanged(ProfileField.PASSWORD, this.p_password, p_password);
         this.p_password = p_password;
+        this.storedPassword = false;
+    }
+
+    /**
+     * Tells whether the password is the value kept in persistent storage, either because it was read from it or because the data access layer has just hashed it to be written, rather than a password typed by the user or imported. Any other password is hashed before it is written, whatever its format.
+     *
+     * @return true if the password is the stored value, false if it still has to be hashed
+     */
+    public boolean isStoredPassword()
+    {
+        return storedPassword;
+    }
+
+    /**
+     * Sets the password to the value kept in persistent storage. This method is called by the data access layer when the profile is read and when a password has been hashed, and does not mark the password as modified.
+     *
+     * @param p_password the stored password value
+     */
+    public void setStoredPassword(String p_password)
+    {
+        this.p_password = p_password;
+        this.storedPassword = true;
     }
 
     /**
@@ -172,6 +207,7 @@ public abstract class Profile
      */
     public void setName(String p_name)
     {
+        markChanged(ProfileField.NAME, this.p_name, p_name);
         this.p_name = p_name;
     }
 
@@ -192,6 +228,7 @@ public abstract class Profile
      */
     public void setLastname(String p_lastname)
     {
+        markChanged(ProfileField.LASTNAME, this.p_lastname, p_lastname);
         this.p_lastname = p_lastname;
     }
 
@@ -212,9 +249,73 @@ public abstract class Profile
      */
     public void setTelephone(String p_telephone)
     {
+        markChanged(ProfileField.TELEPHONE, this.p_telephone, p_telephone);
         this.p_telephone = p_telephone;
     }
 
+    /**
+     * Returns the version of the profile as it was read from persistent storage. The version grows by one on every update, and an update is only applied if the stored profile still has the version the profile was read with.
+     *
+     * @return the profile version, 0 for a profile that has never been updated
+     */
+    public long getVersion()
+    {
+        return p_version;
+    }
+
+    /**
+     * Sets the version of the profile. This method is called by the data access layer when the profile is read and after each successful update.
+     *
+     * @param p_version the new version to assign to the profile
+     */
+    public void setVersion(long p_version)
+    {
+        this.p_version = p_version;
+    }
+
+    /**
+     * Returns the attributes modified through the setters since the profile was created or since the last call to clearChanges. Setting an attribute to the value it already has does not mark it as modified.
+     *
+     * @return an unmodifiable set of the modified attributes
+     */
+    public Set<ProfileField> getChangedFields()
+    {
+        return Collections.unmodifiableSet(EnumSet.copyOf(changedFields));
+    }
+
+    /**
+     * Tells whether any attribute has been modified through the setters since the profile was created or since the last call to clearChanges.
+     *
+     * @return true if there are modified attributes, false otherwise
+     */
+    public boolean hasChanges()
+    {
+        return !changedFields.isEmpty();
+    }
+
+    /**
+     * Forgets the modified attributes. This method is called by the data access layer once the changes have been saved.
+     */
+    public void clearChanges()
+    {
+        changedFields.clear();
+    }
+
+    /**
+     * Records that an attribute is being set, if the new value differs from the current one.
+     *
+     * @param field the attribute being set
+     * @param oldValue the current value of the attribute
+     * @param newValue the value being assigned
+     */
+    protected void markChanged(ProfileField field, Object oldValue, Object newValue)
+    {
+        if (!Objects.equals(oldValue, newValue))
+        {
+            changedFields.add(field);
+        }
+    }
+
     /**
      * Returns a string representation of the profile containing all attributes. This method provides a comprehensive textual representation of the profile including all personal information and credentials.
      *
@@ -0,0 +1,34 @@
+package model;
+
+/**
+ * Enumeration of the profile attributes that can be modified through the setters of Profile, User and Admin. Each constant knows the name of the field that stores it in the users collection, so the data access layer can turn the set of modified attributes into an update that only writes those fields.
+ */
+public enum ProfileField
+{
+    EMAIL("P_EMAIL"),
+    USERNAME("P_USERNAME"),
+    PASSWORD("P_PASSWORD"),
+    NAME("P_NAME"),
+    LASTNAME("P_LASTNAME"),
+    TELEPHONE("P_TELEPHONE"),
+    GENDER("U_GENDER"),
+    CARD("U_CARD"),
+    CURRENT_ACCOUNT("A_CURRENT_ACCOUNT");
+
+    private final String documentField;
+
+    private ProfileField(String documentField)
+    {
+        this.documentField = documentField;
+    }
+
+    /**
+     * Returns the name of the field that stores this attribute in the users collection.
+     *
+     * @return the document field name
+     */
+    public String getDocumentField()
+    {
+        return documentField;
+    }
+}
@@ -0,0 +1,21 @@
+package model;
+
+/**
+ * Enumeration of the kinds of profile stored in the users collection. The name of each constant is the value of the P_TYPE field of its documents, so the data access layer can select one kind of profile through an index instead of checking which type-specific fields a document holds.
+ */
+public enum ProfileType
+{
+    USER,
+    ADMIN;
+
+    /**
+     * Returns the type of a profile object.
+     *
+     * @param profile the profile
+     * @return USER for a User and ADMIN for an Admin
+     */
+    public static ProfileType of(Profile profile)
+    {
+        return profile instanceof Admin ? ADMIN : USER;
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import org.bson.types.ObjectId;
+
 /**
  * Represents a regular user in the system, extending the base Profile class. This class contains user-specific attributes including gender information and payment card details, providing the complete data model for standard user accounts in the application.
  *
@@ -24,7 +26,7 @@ public class User extends Profile
      * @param u_gender the gender identity of the user
      * @param u_card the payment card number associated with the user account
      */
-    public User(String u_id, String p_email, String p_username, String p_password, String p_name, String p_lastname, String p_telephone, Gender u_gender, String u_card)
+    public User(ObjectId u_id, String p_email, String p_username, String p_password, String p_name, String p_lastname, String p_telephone, Gender u_gender, String u_card)
     {
         super(u_id, p_email, p_username, p_password, p_name, p_lastname, p_telephone);
         this.u_gender = u_gender;
@@ -50,6 +52,22 @@ public class User extends Profile
         this.u_card = u_card;
     }
 
+    /**
+     * Constructs a copy of another user, including its identifier and version. The copy starts with no modified attributes, so the changes made to it through the setters can be saved without touching the original.
+     *
+     * @param user the user to copy
+     */
+    public User(User user)
+    {
+        this(user.getId(), user.getEmail(), user.getUsername(), user.getPassword(), user.getName(), user.getLastname(), user.getTelephone(), user.getGender(), user.getCard());
+        setVersion(user.getVersion());
+
+        if (user.isStoredPassword())
+        {
+            setStoredPassword(user.getPassword());
+        }
+    }
+
     /**
      * Retrieves the gender identity of the user.
      *
@@ -67,6 +85,7 @@ public class User extends Profile
      */
     public void setGender(Gender u_gender)
     {
+        markChanged(ProfileField.GENDER, this.u_gender, u_gender);
         this.u_gender = u_gender;
     }
 
@@ -87,6 +106,7 @@ public class User extends Profile
      */
     public void setCard(String u_card)
     {
+        markChanged(ProfileField.CARD, this.u_card, u_card);
         this.u_card = u_card;
     }
 
@@ -109,6 +129,21 @@ public class User extends Profile
     @Override
     public String show()
     {
-        return "User {" + super.toString() + ", Gender: " + u_gender + (u_card != null ? ", Card: **** **** **** " + u_card.substring(12, 16) : "") + "}";
+        return "User {" + super.toString() + ", Gender: " + u_gender + (u_card != null ? ", Card: " + getMaskedCard() : "") + "}";
+    }
+
+    /**
+     * Returns the payment card with every digit hidden except the last four, in the form used wherever a card is shown or exported, such as **** **** **** 1234.
+     *
+     * @return the masked payment card, or null if the user has no card
+     */
+    public String getMaskedCard()
+    {
+        if (u_card == null)
+        {
+            return null;
+        }
+
+        return "**** **** **** " + (u_card.length() > 4 ? u_card.substring(u_card.length() - 4) : u_card);
     }
 }
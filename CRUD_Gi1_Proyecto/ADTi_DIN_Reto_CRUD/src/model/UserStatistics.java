@@ -0,0 +1,108 @@
+package model;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Read-only summary of the users collection shown on the administrator dashboard. This class carries the number of regular users and administrators, the number of users of each gender and the number of users registered in each of the last months.
+ *
+ * Statistics are computed by the data access layer and only read by callers.
+ */
+public class UserStatistics
+{
+
+    private final long users;
+    private final long admins;
+    private final Map<Gender, Long> usersByGender;
+    private final SortedMap<YearMonth, Long> registrationsByMonth;
+
+    /**
+     * Constructs a new UserStatistics. Genders missing from the given map are counted as zero.
+     *
+     * @param admins the number of administrators
+     * @param usersByGender the number of regular users of each gender
+     * @param registrationsByMonth the number of regular users registered in each month, including the months without registrations
+     */
+    public UserStatistics(long admins, Map<Gender, Long> usersByGender, SortedMap<YearMonth, Long> registrationsByMonth)
+    {
+        EnumMap<Gender, Long> genders = new EnumMap<>(Gender.class);
+        long total = 0;
+
+        for (Gender gender : Gender.values())
+        {
+            long count = usersByGender.getOrDefault(gender, 0L);
+            genders.put(gender, count);
+            total += count;
+        }
+
+        this.users = total;
+        this.admins = admins;
+        this.usersByGender = Collections.unmodifiableMap(genders);
+        this.registrationsByMonth = Collections.unmodifiableSortedMap(new TreeMap<>(registrationsByMonth));
+    }
+
+    /**
+     * Returns the number of regular users.
+     *
+     * @return the number of users
+     */
+    public long getUserCount()
+    {
+        return users;
+    }
+
+    /**
+     * Returns the number of administrators.
+     *
+     * @return the number of administrators
+     */
+    public long getAdminCount()
+    {
+        return admins;
+    }
+
+    /**
+     * Returns the number of regular users for every administrator.
+     *
+     * @return the users per administrator, or the number of users if there are no administrators
+     */
+    public double getUsersPerAdmin()
+    {
+        return admins == 0 ? users : (double) users / admins;
+    }
+
+    /**
+     * Returns the number of regular users of each gender, with an entry for every gender.
+     *
+     * @return an unmodifiable map from gender to number of users
+     */
+    public Map<Gender, Long> getUsersByGender()
+    {
+        return usersByGender;
+    }
+
+    /**
+     * Returns the number of regular users registered in each month, oldest month first.
+     *
+     * @return an unmodifiable map from month to number of registrations
+     */
+    public SortedMap<YearMonth, Long> getRegistrationsByMonth()
+    {
+        return registrationsByMonth;
+    }
+
+    /**
+     * Returns a one-line summary of the statistics, suitable for logging.
+     *
+     * @return the statistics as text
+     */
+    @Override
+    public String toString()
+    {
+        return "users: " + users + ", admins: " + admins + ", by gender: " + usersByGender + ", by month: " + registrationsByMonth;
+    }
+}
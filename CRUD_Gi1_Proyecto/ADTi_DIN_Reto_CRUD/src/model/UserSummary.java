@@ -0,0 +1,107 @@
+package model;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Lightweight, read-only view of a regular user used by listings. This class only carries the identifier, username, email, name and gender of a user, which is everything administrative lists need to display, sort and load the complete User on demand.
+ *
+ * Keeping listings on summaries avoids transferring and holding passwords, payment cards and other personal details for users that are never opened.
+ */
+public class UserSummary
+{
+
+    private final ObjectId p_id;
+    private final String p_username;
+    private final String p_email;
+    private final String p_name;
+    private final Gender u_gender;
+
+    /**
+     * Constructs a new UserSummary with the identifying data of a user.
+     *
+     * @param p_id the unique identifier of the user profile
+     * @param p_username the username of the user
+     * @param p_email the email address of the user
+     * @param p_name the first name of the user
+     * @param u_gender the gender of the user
+     */
+    public UserSummary(ObjectId p_id, String p_username, String p_email, String p_name, Gender u_gender)
+    {
+        this.p_id = p_id;
+        this.p_username = p_username;
+        this.p_email = p_email;
+        this.p_name = p_name;
+        this.u_gender = u_gender;
+    }
+
+    /**
+     * Constructs a new UserSummary with the listed data of a complete user, such as one received from a change notification.
+     *
+     * @param user the user to summarize
+     */
+    public UserSummary(User user)
+    {
+        this(user.getId(), user.getUsername(), user.getEmail(), user.getName(), user.getGender());
+    }
+
+    /**
+     * Returns the unique identifier of the user profile.
+     *
+     * @return the profile ID
+     */
+    public ObjectId getId()
+    {
+        return p_id;
+    }
+
+    /**
+     * Returns the username of the user.
+     *
+     * @return the username
+     */
+    public String getUsername()
+    {
+        return p_username;
+    }
+
+    /**
+     * Returns the email address of the user.
+     *
+     * @return the email address
+     */
+    public String getEmail()
+    {
+        return p_email;
+    }
+
+    /**
+     * Returns the first name of the user.
+     *
+     * @return the name
+     */
+    public String getName()
+    {
+        return p_name;
+    }
+
+    /**
+     * Returns the gender of the user.
+     *
+     * @return the gender
+     */
+    public Gender getGender()
+    {
+        return u_gender;
+    }
+
+    /**
+     * Returns a simplified string representation of the user. This method provides only the username, which is useful for display purposes in UI components like lists.
+     *
+     * @return the username of the user as the string representation
+     */
+    @Override
+    public String toString()
+    {
+        return p_username;
+    }
+}
@@ -0,0 +1,178 @@
+package dao;
+
+import exception.OurException;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.Gender;
+import model.User;
+import model.UserStatistics;
+import org.bson.types.ObjectId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the user cache of CachingModelDAO, run against a stub DAO that serves users from a map and counts how many reads reach it.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class CachingModelDAOTest
+{
+
+    private final Map<ObjectId, User> stored = new HashMap<>();
+    private final AtomicInteger reads = new AtomicInteger();
+    private final AtomicInteger statisticsReads = new AtomicInteger();
+    private ModelDAO stub;
+
+    @Before
+    public void setUp()
+    {
+        stub = (ModelDAO) Proxy.newProxyInstance(ModelDAO.class.getClassLoader(), new Class<?>[]{ModelDAO.class}, (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "getUser":
+                    reads.incrementAndGet();
+                    User user = stored.get((ObjectId) args[0]);
+                    return user != null ? new User(user) : null;
+                case "getUserStatistics":
+                    statisticsReads.incrementAndGet();
+                    return new UserStatistics(1, new HashMap<>(), new TreeMap<>());
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private ObjectId store(String username)
+    {
+        ObjectId id = new ObjectId();
+        stored.put(id, new User(id, username + "@mail.com", username, "Secret123", "Name", "Last", "600000000", Gender.OTHER, null));
+        return id;
+    }
+
+    @Test
+    public void servesRepeatedReadsFromMemory() throws OurException
+    {
+        CachingModelDAO cache = new CachingModelDAO(stub);
+        ObjectId id = store("alice");
+
+        assertEquals("alice", cache.getUser(id).getUsername());
+        assertEquals("alice", cache.getUser(id).getUsername());
+
+        assertEquals(1, reads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void returnsCopiesOfTheCachedUser() throws OurException
+    {
+        CachingModelDAO cache = new CachingModelDAO(stub);
+        ObjectId id = store("alice");
+
+        User first = cache.getUser(id);
+        first.setName("Changed");
+        User second = cache.getUser(id);
+
+        assertNotSame(first, second);
+        assertEquals("Name", second.getName());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedUserWhenFull() throws OurException
+    {
+        CachingModelDAO cache = new CachingModelDAO(stub, 2, 1, TimeUnit.HOURS);
+        ObjectId alice = store("alice");
+        ObjectId bob = store("bob");
+        ObjectId carol = store("carol");
+
+        cache.getUser(alice);
+        cache.getUser(bob);
+        cache.getUser(alice);
+        cache.getUser(carol);
+
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3, reads.get());
+
+        cache.getUser(alice);
+        assertEquals(3, reads.get());
+
+        cache.getUser(bob);
+        assertEquals(4, reads.get());
+    }
+
+    @Test
+    public void removesAnExpiredUserAndCountsItOnce() throws OurException, InterruptedException
+    {
+        CachingModelDAO cache = new CachingModelDAO(stub, 10, 20, TimeUnit.MILLISECONDS);
+        ObjectId id = store("alice");
+
+        assertNotNull(cache.getUser(id));
+        stored.remove(id);
+        Thread.sleep(40);
+
+        assertNull(cache.getUser(id));
+        assertNull(cache.getUser(id));
+        assertNull(cache.getUser(id));
+
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(4, reads.get());
+    }
+
+    @Test
+    public void reloadsAnExpiredUser() throws OurException, InterruptedException
+    {
+        CachingModelDAO cache = new CachingModelDAO(stub, 10, 20, TimeUnit.MILLISECONDS);
+        ObjectId id = store("alice");
+
+        cache.getUser(id);
+        stored.get(id).setName("Changed");
+        Thread.sleep(40);
+
+        assertEquals("Changed", cache.getUser(id).getName());
+        assertEquals(2, reads.get());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void forgetsDeletedUsersWithoutCountingEvictions() throws OurException
+    {
+        CachingModelDAO cache = new CachingModelDAO(stub);
+        ObjectId id = store("alice");
+
+        cache.getUser(id);
+        cache.userDeleted(id);
+        cache.getUser(id);
+
+        assertEquals(2, reads.get());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void cachesStatisticsWithoutCountingEvictions() throws OurException
+    {
+        CachingModelDAO cache = new CachingModelDAO(stub);
+
+        cache.getUserStatistics(6);
+        cache.getUserStatistics(6);
+        assertEquals(1, statisticsReads.get());
+
+        cache.getUserStatistics(12);
+        assertEquals(2, statisticsReads.get());
+
+        cache.changesMissed();
+        cache.getUserStatistics(12);
+        assertEquals(3, statisticsReads.get());
+
+        assertEquals(0, cache.getEvictionCount());
+    }
+}
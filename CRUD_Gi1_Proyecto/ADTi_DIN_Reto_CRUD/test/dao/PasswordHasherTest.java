@@ -0,0 +1,120 @@
+package dao;
+
+import exception.OurException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests of PasswordHasher. A low iteration count keeps each hash fast; the format and checks do not depend on it.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class PasswordHasherTest
+{
+
+    private static final int ITERATIONS = 1000;
+
+    private final PasswordHasher hasher = new PasswordHasher(ITERATIONS, 2, 8);
+
+    @Test
+    public void verifiesTheHashedPassword() throws OurException
+    {
+        String hash = hasher.hash("Secret123");
+
+        assertTrue(hasher.isHashed(hash));
+        assertTrue(hash.startsWith("pbkdf2_sha256$" + ITERATIONS + "$"));
+        assertTrue(hasher.verify("Secret123", hash));
+        assertFalse(hasher.verify("secret123", hash));
+        assertFalse(hasher.verify("", hash));
+        assertFalse(hasher.verify(null, hash));
+    }
+
+    @Test
+    public void usesANewSaltForEveryHash() throws OurException
+    {
+        String first = hasher.hash("Secret123");
+        String second = hasher.hash("Secret123");
+
+        assertNotEquals(first, second);
+        assertTrue(hasher.verify("Secret123", first));
+        assertTrue(hasher.verify("Secret123", second));
+    }
+
+    @Test
+    public void acceptsLegacyPlainTextPasswords() throws OurException
+    {
+        assertFalse(hasher.isHashed("Secret123"));
+        assertTrue(hasher.verify("Secret123", "Secret123"));
+        assertFalse(hasher.verify("Secret12", "Secret123"));
+        assertFalse(hasher.verify("Secret123", null));
+        assertTrue(hasher.needsRehash("Secret123"));
+    }
+
+    @Test
+    public void needsRehashOnlyBelowTheCurrentWorkFactor() throws OurException
+    {
+        PasswordHasher weaker = new PasswordHasher(ITERATIONS / 2, 1, 1);
+        PasswordHasher stronger = new PasswordHasher(ITERATIONS * 2, 1, 1);
+
+        assertFalse(hasher.needsRehash(hasher.hash("Secret123")));
+        assertTrue(hasher.needsRehash(weaker.hash("Secret123")));
+        assertFalse(hasher.needsRehash(stronger.hash("Secret123")));
+        assertTrue(hasher.verify("Secret123", weaker.hash("Secret123")));
+    }
+
+    @Test
+    public void rejectsOutOfRangeIterationCounts() throws OurException
+    {
+        String[] parts = hasher.hash("Secret123").split("\\$");
+
+        for (String rounds : new String[]{"0", "-1", "5000001", "2147483647", "99999999999", "abc"})
+        {
+            String tampered = parts[0] + "$" + rounds + "$" + parts[2] + "$" + parts[3];
+
+            assertFalse(rounds, hasher.verify("Secret123", tampered));
+            assertTrue(rounds, hasher.needsRehash(tampered));
+        }
+    }
+
+    @Test
+    public void rejectsMalformedHashes() throws OurException
+    {
+        String[] parts = hasher.hash("Secret123").split("\\$");
+        String shortKey = Base64.getEncoder().withoutPadding().encodeToString(new byte[4]);
+
+        assertFalse(hasher.verify("Secret123", "pbkdf2_sha256$" + ITERATIONS));
+        assertFalse(hasher.verify("Secret123", parts[0] + "$" + parts[1] + "$" + parts[2] + "$" + shortKey));
+        assertFalse(hasher.verify("Secret123", parts[0] + "$" + parts[1] + "$" + parts[2] + "$not base64!"));
+        assertTrue(hasher.needsRehash("pbkdf2_sha256$" + ITERATIONS));
+    }
+
+    @Test
+    public void verifiesOnThePool()
+    {
+        String hash = hasher.hashAsync("Secret123").join();
+
+        assertTrue(hasher.verifyAsync("Secret123", hash).join());
+        assertFalse(hasher.verifyAsync("wrong", hash).join());
+        assertTrue(hasher.verifyAsync("Secret123", "Secret123").join());
+    }
+
+    @Test
+    public void hashesManyPasswordsInOrder() throws OurException
+    {
+        List<String> passwords = Arrays.asList("a1", "b2", "c3", "d4", "e5");
+        List<String> hashes = hasher.hashAll(passwords);
+
+        assertEquals(passwords.size(), hashes.size());
+
+        for (int i = 0; i < passwords.size(); i++)
+        {
+            assertTrue(hasher.verify(passwords.get(i), hashes.get(i)));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package dao;
+
+import model.Admin;
+import model.Gender;
+import model.Profile;
+import model.User;
+import org.bson.BsonDecimal128;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests of ProfileCodec, encoding profiles into in-memory BSON documents and decoding them back, including documents written before P_TYPE and P_VERSION existed or edited by hand.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class ProfileCodecTest
+{
+
+    private final ProfileCodec codec = new ProfileCodec();
+
+    private BsonDocument encode(Profile profile)
+    {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), profile, EncoderContext.builder().build());
+        return document;
+    }
+
+    private Profile decode(BsonDocument document)
+    {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    private BsonDocument legacyUser()
+    {
+        return new BsonDocument("_id", new BsonObjectId(new ObjectId()))
+                .append("P_EMAIL", new BsonString("alice@mail.com"))
+                .append("P_USERNAME", new BsonString("alice"))
+                .append("P_PASSWORD", new BsonString("Secret123"))
+                .append("U_GENDER", new BsonString("FEMALE"));
+    }
+
+    @Test
+    public void roundTripsAUser()
+    {
+        User user = new User(new ObjectId(), "alice@mail.com", "alice", "hash", "Alice", "Smith", "600000000", Gender.FEMALE, "4000000000000000");
+        user.setVersion(7);
+
+        BsonDocument document = encode(user);
+        User decoded = (User) decode(document);
+
+        assertEquals("USER", document.getString("P_TYPE").getValue());
+        assertEquals(user.getId(), decoded.getId());
+        assertEquals(user.getEmail(), decoded.getEmail());
+        assertEquals(user.getUsername(), decoded.getUsername());
+        assertEquals(user.getPassword(), decoded.getPassword());
+        assertEquals(user.getName(), decoded.getName());
+        assertEquals(user.getLastname(), decoded.getLastname());
+        assertEquals(user.getTelephone(), decoded.getTelephone());
+        assertEquals(Gender.FEMALE, decoded.getGender());
+        assertEquals(user.getCard(), decoded.getCard());
+        assertEquals(7, decoded.getVersion());
+        assertFalse(decoded.hasChanges());
+        assertTrue(decoded.isStoredPassword());
+    }
+
+    @Test
+    public void roundTripsAnAdmin()
+    {
+        Admin admin = new Admin(new ObjectId(), "root@mail.com", "root", "hash", "Root", "Admin", "600000000", "ES0000");
+
+        Admin decoded = (Admin) decode(encode(admin));
+
+        assertEquals(admin.getId(), decoded.getId());
+        assertEquals(admin.getUsername(), decoded.getUsername());
+        assertEquals("ES0000", decoded.getCurrent_account());
+        assertEquals(0, decoded.getVersion());
+    }
+
+    @Test
+    public void skipsNullAttributes()
+    {
+        User user = new User(new ObjectId(), "alice@mail.com", "alice", "hash", "Alice", "Smith", null, Gender.MALE, null);
+
+        BsonDocument document = encode(user);
+        User decoded = (User) decode(document.append("P_NAME", BsonNull.VALUE));
+
+        assertFalse(document.containsKey("P_TELEPHONE"));
+        assertFalse(document.containsKey("U_CARD"));
+        assertNull(decoded.getTelephone());
+        assertNull(decoded.getCard());
+        assertNull(decoded.getName());
+    }
+
+    @Test
+    public void tellsUntypedDocumentsApartByTheirFields()
+    {
+        BsonDocument admin = new BsonDocument("_id", new BsonObjectId(new ObjectId()))
+                .append("P_USERNAME", new BsonString("root"))
+                .append("A_CURRENT_ACCOUNT", new BsonString("ES0000"));
+        BsonDocument neither = new BsonDocument("_id", new BsonObjectId(new ObjectId()))
+                .append("P_USERNAME", new BsonString("nobody"));
+
+        assertTrue(decode(legacyUser()) instanceof User);
+        assertTrue(decode(admin) instanceof Admin);
+        assertNull(decode(neither));
+    }
+
+    @Test
+    public void decodesMissingOrUnknownGendersAsOther()
+    {
+        BsonDocument unknown = legacyUser().append("U_GENDER", new BsonString("UNKNOWN"));
+        BsonDocument missing = legacyUser().append("P_TYPE", new BsonString("USER"));
+        missing.remove("U_GENDER");
+
+        assertEquals(Gender.FEMALE, ((User) decode(legacyUser())).getGender());
+        assertEquals(Gender.OTHER, ((User) decode(unknown)).getGender());
+        assertEquals(Gender.OTHER, ((User) decode(missing)).getGender());
+    }
+
+    @Test
+    public void readsTheVersionInAnyNumericType()
+    {
+        assertEquals(0, decode(legacyUser()).getVersion());
+        assertEquals(3, decode(legacyUser().append("P_VERSION", new BsonInt32(3))).getVersion());
+        assertEquals(4, decode(legacyUser().append("P_VERSION", new BsonInt64(4))).getVersion());
+        assertEquals(5, decode(legacyUser().append("P_VERSION", new BsonDouble(5))).getVersion());
+        assertEquals(6, decode(legacyUser().append("P_VERSION", new BsonDecimal128(Decimal128.parse("6")))).getVersion());
+        assertEquals(0, decode(legacyUser().append("P_VERSION", new BsonDecimal128(Decimal128.NaN))).getVersion());
+        assertEquals(0, decode(legacyUser().append("P_VERSION", new BsonString("7"))).getVersion());
+    }
+
+    @Test
+    public void skipsUnknownFields()
+    {
+        BsonDocument document = legacyUser()
+                .append("EXTRA", new BsonDocument("nested", new BsonInt32(1)))
+                .append("P_NAME", new BsonString("Alice"));
+
+        assertEquals("Alice", decode(document).getName());
+    }
+}
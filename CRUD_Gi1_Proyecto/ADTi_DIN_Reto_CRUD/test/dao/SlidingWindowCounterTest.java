@@ -0,0 +1,161 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests of SlidingWindowCounter. Windows of one hour are used wherever the result must not depend on a window ending during the test; the expiry tests use windows of a few milliseconds and wait for them to pass.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class SlidingWindowCounterTest
+{
+
+    private static final int WIDTH = 1024;
+
+    @Test
+    public void countsEventsPerKey()
+    {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1, TimeUnit.HOURS, WIDTH);
+        long window = counter.currentWindow();
+
+        assertEquals(1, counter.incrementAndCount("alice", window));
+        assertEquals(2, counter.incrementAndCount("alice", window));
+        assertEquals(3, counter.incrementAndCount("alice", window));
+        assertEquals(1, counter.incrementAndCount("bob", window));
+
+        assertEquals(3, counter.count("alice"));
+        assertEquals(1, counter.count("bob"));
+        assertEquals(0, counter.count("carol"));
+    }
+
+    @Test
+    public void neverUnderestimatesWithManyKeys()
+    {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1, TimeUnit.HOURS, 16);
+        long window = counter.currentWindow();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            counter.incrementAndCount("user" + i, window);
+        }
+
+        counter.incrementAndCount("user7", window);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            assertTrue(counter.count("user" + i) >= (i == 7 ? 2 : 1));
+        }
+    }
+
+    @Test
+    public void forgetsEventsOnceTheirWindowHasPassed() throws InterruptedException
+    {
+        SlidingWindowCounter counter = new SlidingWindowCounter(20, TimeUnit.MILLISECONDS, WIDTH);
+
+        for (int i = 0; i < 5; i++)
+        {
+            counter.incrementAndCount("alice", counter.currentWindow());
+        }
+
+        assertTrue(counter.count("alice") >= 5);
+
+        // Two whole windows later neither the current nor the previous window holds the events
+        Thread.sleep(60);
+
+        assertEquals(0, counter.count("alice"));
+        assertEquals(1, counter.incrementAndCount("alice", counter.currentWindow()));
+    }
+
+    @Test
+    public void decrementRefundsAnEventOfTheSameWindow()
+    {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1, TimeUnit.HOURS, WIDTH);
+        long window = counter.currentWindow();
+
+        counter.incrementAndCount("alice", window);
+        counter.incrementAndCount("alice", window);
+        counter.decrement("alice", window);
+
+        assertEquals(1, counter.count("alice"));
+
+        counter.decrement("alice", window);
+        counter.decrement("alice", window);
+
+        assertEquals(0, counter.count("alice"));
+        assertEquals(1, counter.incrementAndCount("alice", window));
+    }
+
+    @Test
+    public void decrementIgnoresAnExpiredWindow() throws InterruptedException
+    {
+        SlidingWindowCounter counter = new SlidingWindowCounter(20, TimeUnit.MILLISECONDS, WIDTH);
+        long old = counter.currentWindow();
+
+        counter.incrementAndCount("alice", old);
+        Thread.sleep(60);
+
+        long window = counter.currentWindow();
+        counter.incrementAndCount("alice", window);
+        counter.decrement("alice", old);
+
+        assertEquals(1, counter.count("alice"));
+    }
+
+    @Test
+    public void concurrentIncrementsAreAllCounted() throws Exception
+    {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1, TimeUnit.HOURS, WIDTH);
+        long window = counter.currentWindow();
+        int threads = 8;
+        int perThread = 2000;
+        int limit = 100;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++)
+        {
+            tasks.add(() ->
+            {
+                int allowed = 0;
+
+                for (int i = 0; i < perThread; i++)
+                {
+                    if (counter.incrementAndCount("alice", window) <= limit)
+                    {
+                        allowed++;
+                    }
+                }
+
+                return allowed;
+            });
+        }
+
+        int allowed = 0;
+
+        try
+        {
+            for (Future<Integer> result : pool.invokeAll(tasks))
+            {
+                allowed += result.get();
+            }
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, counter.count("alice"));
+        // Every event is counted before it is checked, so no more than the limit can pass
+        assertTrue(allowed <= limit);
+    }
+}
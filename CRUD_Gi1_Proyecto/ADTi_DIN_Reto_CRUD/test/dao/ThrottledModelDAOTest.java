@@ -0,0 +1,170 @@
+package dao;
+
+import exception.ErrorMessages;
+import exception.OurException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.Gender;
+import model.Profile;
+import model.User;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the login limits of ThrottledModelDAO, run against a stub DAO that accepts a single password and can be told to fail as if the database were unreachable.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class ThrottledModelDAOTest
+{
+
+    private static final String PASSWORD = "Secret123";
+    private static final int MAX_FAILURES = 3;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final int WINDOW_SECONDS = 3600;
+
+    private final AtomicInteger logins = new AtomicInteger();
+    private volatile boolean databaseDown;
+    private ModelDAO stub;
+
+    @Before
+    public void setUp()
+    {
+        stub = (ModelDAO) Proxy.newProxyInstance(ModelDAO.class.getClassLoader(), new Class<?>[]{ModelDAO.class}, (proxy, method, args) ->
+        {
+            if (!method.getName().equals("login"))
+            {
+                throw new UnsupportedOperationException(method.getName());
+            }
+
+            logins.incrementAndGet();
+
+            if (databaseDown)
+            {
+                throw new OurException(ErrorMessages.DATABASE);
+            }
+
+            return PASSWORD.equals(args[1]) ? new User((String) args[0] + "@mail.com", (String) args[0], PASSWORD, "Name", "Last", "600000000", Gender.OTHER, null) : null;
+        });
+    }
+
+    private ThrottledModelDAO throttle(int maxFailures, int maxAttempts)
+    {
+        return new ThrottledModelDAO(stub, () -> "test-host", maxFailures, WINDOW_SECONDS, maxAttempts, WINDOW_SECONDS);
+    }
+
+    @Test
+    public void allowsFailuresUpToTheCredentialLimit() throws OurException
+    {
+        ThrottledModelDAO dao = throttle(MAX_FAILURES, MAX_ATTEMPTS);
+
+        for (int i = 0; i < MAX_FAILURES; i++)
+        {
+            assertNull(dao.login("alice", "wrong"));
+        }
+
+        assertRejected(dao, "alice", PASSWORD);
+        assertEquals(MAX_FAILURES, logins.get());
+        assertEquals(1, dao.getRejectedCount());
+    }
+
+    @Test
+    public void credentialLimitIsPerCredentialAndIgnoresCaseAndSpaces() throws OurException
+    {
+        ThrottledModelDAO dao = throttle(MAX_FAILURES, MAX_ATTEMPTS);
+
+        dao.login("Alice", "wrong");
+        dao.login(" alice ", "wrong");
+        dao.login("ALICE", "wrong");
+
+        assertRejected(dao, "alice", PASSWORD);
+        assertNotNull(dao.login("bob", PASSWORD));
+    }
+
+    @Test
+    public void successfulLoginsDoNotCountAgainstTheCredential() throws OurException
+    {
+        ThrottledModelDAO dao = throttle(MAX_FAILURES, 100);
+
+        for (int i = 0; i < MAX_FAILURES * 5; i++)
+        {
+            assertNotNull(dao.login("alice", PASSWORD));
+        }
+
+        for (int i = 0; i < MAX_FAILURES; i++)
+        {
+            assertNull(dao.login("alice", "wrong"));
+        }
+
+        assertRejected(dao, "alice", PASSWORD);
+    }
+
+    @Test
+    public void databaseErrorsDoNotCountAgainstTheCredential() throws OurException
+    {
+        ThrottledModelDAO dao = throttle(MAX_FAILURES, 100);
+        databaseDown = true;
+
+        for (int i = 0; i < MAX_FAILURES * 2; i++)
+        {
+            try
+            {
+                dao.login("alice", PASSWORD);
+                fail("The database error was not propagated");
+            }
+            catch (OurException ex)
+            {
+                assertEquals(ErrorMessages.DATABASE, ex.getMessage());
+            }
+        }
+
+        databaseDown = false;
+        assertNotNull(dao.login("alice", PASSWORD));
+    }
+
+    @Test
+    public void allowsAttemptsUpToTheSourceLimit() throws OurException
+    {
+        ThrottledModelDAO dao = throttle(100, MAX_ATTEMPTS);
+
+        for (int i = 0; i < MAX_ATTEMPTS; i++)
+        {
+            assertNotNull(dao.login("user" + i, PASSWORD));
+        }
+
+        assertRejected(dao, "someone", PASSWORD);
+        assertEquals(MAX_ATTEMPTS, logins.get());
+    }
+
+    @Test
+    public void rejectedAttemptsStillCountAgainstTheSource() throws OurException
+    {
+        ThrottledModelDAO dao = throttle(100, MAX_ATTEMPTS);
+
+        for (int i = 0; i < MAX_ATTEMPTS; i++)
+        {
+            dao.login("user" + i, PASSWORD);
+        }
+
+        assertRejected(dao, "someone", PASSWORD);
+        assertRejected(dao, "another", PASSWORD);
+        assertEquals(2, dao.getRejectedCount());
+    }
+
+    private static void assertRejected(ThrottledModelDAO dao, String credential, String password)
+    {
+        try
+        {
+            Profile profile = dao.login(credential, password);
+            fail("The attempt was not rejected: " + profile);
+        }
+        catch (OurException ex)
+        {
+            assertEquals(ErrorMessages.TOO_MANY_ATTEMPTS, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package benchmark;
+
+import dao.ExportFormat;
+import exception.OurException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import model.BulkReport;
+import model.Gender;
+import model.Profile;
+import model.ProfileField;
+import model.User;
+import model.UserStatistics;
+import model.UserSummary;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the ModelDAO operations used by the application windows. Every operation is measured both as throughput and as sampled latency, which reports the p50, p90, p99 and p99.9 percentiles, for each backend and seeding size of the Dataset state.
+ *
+ * Comparing the memory backend with the mongo backend for the same operation and size separates the cost of mapping documents to objects from the time spent in the server and the network.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DAOBenchmark
+{
+
+    private static final int PAGE_SIZE = 50;
+    private static final int TABLE_PAGE_SIZE = 100;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int BULK_DELETE_SIZE = 1000;
+    private static final int STATISTICS_MONTHS = 12;
+
+    /**
+     * Per thread state that registers a fresh user before each invocation of the delete benchmark, so every call deletes an existing user and the seeded users are left untouched.
+     */
+    @State(Scope.Thread)
+    public static class DeleteTarget
+    {
+
+        ObjectId id;
+
+        @Setup(Level.Invocation)
+        public void setUp(Dataset dataset) throws OurException
+        {
+            id = dataset.dao.register(dataset.newUser()).getId();
+        }
+    }
+
+    @Benchmark
+    public Profile login(Dataset dataset) throws OurException
+    {
+        return dataset.dao.login(dataset.randomUsername(), Dataset.PASSWORD);
+    }
+
+    @Benchmark
+    public User register(Dataset dataset) throws OurException
+    {
+        return dataset.dao.register(dataset.newUser());
+    }
+
+    /**
+     * Registers a batch of new users with a single registerAll call. The score is given per user, so it compares directly with the register benchmark.
+     */
+    @Benchmark
+    @OperationsPerInvocation(IMPORT_BATCH_SIZE)
+    public BulkReport registerAll(Dataset dataset) throws OurException
+    {
+        List<User> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+
+        for (int i = 0; i < IMPORT_BATCH_SIZE; i++)
+        {
+            batch.add(dataset.newUser());
+        }
+
+        return dataset.dao.registerAll(batch, IMPORT_BATCH_SIZE);
+    }
+
+    @Benchmark
+    public ArrayList<User> getUsers(Dataset dataset) throws OurException
+    {
+        return dataset.dao.getUsers();
+    }
+
+    @Benchmark
+    public ArrayList<User> getUsersPage(Dataset dataset) throws OurException
+    {
+        return dataset.dao.getUsersPage(dataset.randomId(), PAGE_SIZE);
+    }
+
+    /**
+     * Searches one page of users by the username of a random seeded user, which is also the prefix of every username that continues it with more digits, so the number of matches varies as it does when an administrator types.
+     */
+    @Benchmark
+    public ArrayList<UserSummary> searchUsers(Dataset dataset) throws OurException
+    {
+        return dataset.dao.searchUsers(dataset.randomUsername(), null, null, PAGE_SIZE);
+    }
+
+    /**
+     * Reads one page of the admin users table sorted by name, at a random scroll position, together with the count the table is sized with. The mongo backend walks the P_NAME index up to the offset, so the score shows how the cost of a deep page grows with the number of users.
+     */
+    @Benchmark
+    public ArrayList<UserSummary> searchUsersSorted(Dataset dataset) throws OurException
+    {
+        long count = dataset.dao.countUsers("", null);
+        int offset = (int) ThreadLocalRandom.current().nextLong(Math.max(count - TABLE_PAGE_SIZE, 1));
+
+        return dataset.dao.searchUsersSorted("", null, ProfileField.NAME, true, offset, TABLE_PAGE_SIZE);
+    }
+
+    /**
+     * Computes the dashboard statistics over every seeded user. The score of the mongo backend is the cost of the aggregation on the server, since the result is a single small document whatever the number of users.
+     */
+    @Benchmark
+    public UserStatistics getUserStatistics(Dataset dataset) throws OurException
+    {
+        return dataset.dao.getUserStatistics(STATISTICS_MONTHS);
+    }
+
+    /**
+     * Per thread state that loads a random seeded user before each invocation of the update benchmark, so every call saves a user with its current version, as the windows do after loading it.
+     */
+    @State(Scope.Thread)
+    public static class UpdateTarget
+    {
+
+        User user;
+
+        @Setup(Level.Invocation)
+        public void setUp(Dataset dataset) throws OurException
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            user = dataset.dao.getUser(dataset.randomId());
+            user.setName("Updated");
+            user.setTelephone(Integer.toString(600000000 + random.nextInt(100000000)));
+            user.setGender(Gender.values()[random.nextInt(Gender.values().length)]);
+        }
+    }
+
+    @Benchmark
+    public boolean updateUser(Dataset dataset, UpdateTarget target) throws OurException
+    {
+        return dataset.dao.updateUser(target.user);
+    }
+
+    /**
+     * Per thread state that registers a batch of fresh users before each invocation of the bulk delete benchmark.
+     */
+    @State(Scope.Thread)
+    public static class DeleteBatch
+    {
+
+        List<ObjectId> ids;
+
+        @Setup(Level.Invocation)
+        public void setUp(Dataset dataset) throws OurException
+        {
+            List<User> batch = new ArrayList<>(BULK_DELETE_SIZE);
+
+            for (int i = 0; i < BULK_DELETE_SIZE; i++)
+            {
+                batch.add(dataset.newUser());
+            }
+
+            dataset.dao.registerAll(batch, BULK_DELETE_SIZE);
+            ids = new ArrayList<>(BULK_DELETE_SIZE);
+
+            for (User user : batch)
+            {
+                ids.add(user.getId());
+            }
+        }
+    }
+
+    /**
+     * Deletes a batch of users with a single deleteUsers call. The score is given per user, so it compares directly with the deleteUser benchmark.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BULK_DELETE_SIZE)
+    public BulkReport deleteUsers(Dataset dataset, DeleteBatch batch) throws OurException
+    {
+        return dataset.dao.deleteUsers(batch.ids);
+    }
+
+    /**
+     * Exports every seeded user as NDJSON into a stream that hands each written byte to the blackhole, so the score measures reading and formatting without any disk time. Run it with -prof gc to check that the allocation rate per user stays the same for every seeding size.
+     */
+    @Benchmark
+    public long exportUsers(Dataset dataset, Blackhole blackhole) throws OurException
+    {
+        OutputStream sink = new OutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len)
+            {
+                blackhole.consume(len);
+            }
+        };
+
+        return dataset.dao.exportUsers(sink, ExportFormat.NDJSON, null);
+    }
+
+    @Benchmark
+    public boolean deleteUser(Dataset dataset, DeleteTarget target) throws OurException
+    {
+        return dataset.dao.deleteUser(target.id);
+    }
+}
@@ -0,0 +1,213 @@
+package benchmark;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import config.MongoConnection;
+import dao.DBImplementation;
+import dao.ModelDAO;
+import dao.PasswordHasher;
+import dao.ProfileCodecProvider;
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Gender;
+import model.Profile;
+import model.User;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark state holding the DAO under test and the users it was seeded with. The backend parameter selects the in-memory DAO or DBImplementation against a local mongod, and the users parameter the number of users in the collection.
+ *
+ * Each seeding size uses its own database, named crud_bench_ followed by the number of users, and an already seeded database is reused, so the slow seeding of the larger sizes only happens on the first run. Users created by the register and delete benchmarks are removed when the trial ends, which keeps the database at its seeded size.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+@State(Scope.Benchmark)
+public class Dataset
+{
+
+    public static final String PASSWORD = "Ab123456";
+
+    private static final int SEED_BATCH_SIZE = 10000;
+    private static final int HASH_QUEUE_CAPACITY = 1000;
+    private static final String CREATED_PREFIX = "bench-";
+
+    @Param({"memory", "mongo"})
+    public String backend;
+
+    @Param({"1000", "100000", "1000000"})
+    public int users;
+
+    /**
+     * PBKDF2 iteration count of the passwords hashed by the DAO. It is kept low by default so these benchmarks measure the data access cost; the cost of hashing itself is measured by PasswordHashBenchmark, and running the login benchmark with the production count shows both together.
+     */
+    @Param({"1000"})
+    public int hashIterations;
+
+    ModelDAO dao;
+    ObjectId[] ids;
+
+    private PasswordHasher hasher;
+    private String seedPassword;
+
+    private final AtomicLong created = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Creates the DAO of the selected backend and makes sure it holds the requested number of users.
+     *
+     * @throws OurException if the seeded users cannot be read back
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws OurException
+    {
+        hasher = new PasswordHasher(hashIterations, Runtime.getRuntime().availableProcessors(), HASH_QUEUE_CAPACITY);
+        seedPassword = hasher.hash(PASSWORD);
+
+        if ("memory".equals(backend))
+        {
+            InMemoryModelDAO memory = new InMemoryModelDAO(hasher);
+
+            for (int i = 0; i < users; i++)
+            {
+                memory.register(seedUser(i, seedPassword));
+            }
+
+            dao = memory;
+            ids = memory.getIds().toArray(new ObjectId[0]);
+        }
+        else
+        {
+            // Must be set before MongoConnection loads its settings
+            System.setProperty("mongo.database", "crud_bench_" + users);
+
+            MongoCollection<Document> collection = MongoConnection.getUsersCollection();
+            seedMongo(collection);
+
+            // Databases seeded before profile types existed are migrated like a production one
+            DBImplementation db = new DBImplementation(hasher);
+            db.migrateProfileTypes();
+            db.createIndexes();
+
+            dao = db;
+            ids = readIds(collection);
+        }
+    }
+
+    /**
+     * Removes the users created during the trial from the database.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        if ("mongo".equals(backend))
+        {
+            MongoConnection.getUsersCollection().deleteMany(Filters.regex("P_USERNAME", "^" + CREATED_PREFIX));
+        }
+    }
+
+    /**
+     * Returns the identifier of a random seeded user.
+     *
+     * @return a seeded user identifier
+     */
+    ObjectId randomId()
+    {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    /**
+     * Returns the username of a random seeded user.
+     *
+     * @return a seeded username
+     */
+    String randomUsername()
+    {
+        return "user" + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    /**
+     * Builds a user that does not exist yet, with credentials that are unique across runs.
+     *
+     * @return a new user ready to be registered
+     */
+    User newUser()
+    {
+        String name = CREATED_PREFIX + runId + "-" + created.incrementAndGet();
+        return new User(null, name + "@bench.local", name, PASSWORD, "Bench", "Created", "600000000", Gender.OTHER, "4000000000000000");
+    }
+
+    /**
+     * Builds the i-th seeded user. Seeded users are deterministic, so any run can log in with userN and the shared password. Every seeded user stores the same hash of that password, which saves hashing it once per user; it is marked as the stored password so the DAO does not hash it again.
+     */
+    static User seedUser(int i, String passwordHash)
+    {
+        Gender gender = Gender.values()[i % Gender.values().length];
+        User user = new User(null, "user" + i + "@bench.local", "user" + i, null, "User " + i, "Bench", "600000000", gender, "4000000000000000");
+        user.setStoredPassword(passwordHash);
+        return user;
+    }
+
+    /**
+     * Fills the benchmark database with the requested number of users, unless it already holds exactly that many. The indexes of BD_Reto_Crud.js are created before seeding; the profile type index, and every index of a database seeded by an older version, are created afterwards by DBImplementation.createIndexes, so the queries use the same plans as in production.
+     */
+    private void seedMongo(MongoCollection<Document> collection)
+    {
+        collection.deleteMany(Filters.regex("P_USERNAME", "^" + CREATED_PREFIX));
+
+        if (collection.countDocuments() == users)
+        {
+            return;
+        }
+
+        collection.drop();
+        collection.createIndex(Indexes.ascending("P_EMAIL"), new IndexOptions().unique(true));
+        collection.createIndex(Indexes.ascending("P_USERNAME"), new IndexOptions().unique(true));
+        collection.createIndex(Indexes.ascending("P_LASTNAME"));
+        collection.createIndex(Indexes.ascending("U_GENDER", "_id"));
+
+        MongoCollection<Profile> profiles = collection.withDocumentClass(Profile.class).withCodecRegistry(
+                CodecRegistries.fromRegistries(
+                        CodecRegistries.fromProviders(new ProfileCodecProvider()),
+                        MongoClientSettings.getDefaultCodecRegistry()));
+
+        List<Profile> batch = new ArrayList<>(SEED_BATCH_SIZE);
+
+        for (int i = 0; i < users; i++)
+        {
+            batch.add(seedUser(i, seedPassword));
+
+            if (batch.size() == SEED_BATCH_SIZE || i == users - 1)
+            {
+                profiles.insertMany(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private ObjectId[] readIds(MongoCollection<Document> collection)
+    {
+        List<ObjectId> found = new ArrayList<>(users);
+
+        for (Document document : collection.find().projection(Projections.include("_id")))
+        {
+            found.add(document.getObjectId("_id"));
+        }
+
+        return found.toArray(new ObjectId[0]);
+    }
+}
@@ -0,0 +1,117 @@
+package benchmark;
+
+import dao.PasswordHasher;
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import model.User;
+import model.UserSummary;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how much heap the loaded users take. Each benchmark loads every seeded user of an in-memory DAO at once, as the administrator listings do, and reports the heap retained by the loaded objects divided by their number in the bytesPerProfile counter, next to the time the load took.
+ *
+ * The retained heap is the difference between the used heap after a full collection with and without the loaded list, so only the User or UserSummary objects and everything they reference are counted. JMH adds up event counters over the measurement iterations, so a single one is run. Running it before and after a change to the model classes shows the change in bytes per user directly.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class HeapFootprintBenchmark
+{
+
+    private static final int GC_ROUNDS = 3;
+    private static final int HASH_ITERATIONS = 1000;
+    private static final int HASH_QUEUE_CAPACITY = 10;
+
+    /**
+     * In-memory DAO seeded once per trial with the same users as the Dataset state.
+     */
+    @State(Scope.Benchmark)
+    public static class Loaded
+    {
+
+        @Param({"1000000"})
+        public int users;
+
+        InMemoryModelDAO dao;
+
+        @Setup(Level.Trial)
+        public void setUp() throws OurException
+        {
+            PasswordHasher hasher = new PasswordHasher(HASH_ITERATIONS, 1, HASH_QUEUE_CAPACITY);
+            String password = hasher.hash(Dataset.PASSWORD);
+
+            dao = new InMemoryModelDAO(hasher);
+
+            for (int i = 0; i < users; i++)
+            {
+                dao.register(Dataset.seedUser(i, password));
+            }
+        }
+    }
+
+    /**
+     * Secondary result of each benchmark, reported by JMH next to the score.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint
+    {
+
+        public long bytesPerProfile;
+    }
+
+    /**
+     * Loads every user with all its profile data.
+     */
+    @Benchmark
+    public ArrayList<User> getUsers(Loaded loaded, Footprint footprint) throws OurException
+    {
+        long before = usedHeap();
+        ArrayList<User> users = loaded.dao.getUsers();
+        footprint.bytesPerProfile = (usedHeap() - before) / Math.max(1, users.size());
+
+        return users;
+    }
+
+    /**
+     * Loads the summary of every user, as the user lists of the administrator windows do.
+     */
+    @Benchmark
+    public ArrayList<UserSummary> getUserSummaries(Loaded loaded, Footprint footprint) throws OurException
+    {
+        long before = usedHeap();
+        ArrayList<UserSummary> summaries = loaded.dao.getUserSummaries();
+        footprint.bytesPerProfile = (usedHeap() - before) / Math.max(1, summaries.size());
+
+        return summaries;
+    }
+
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < GC_ROUNDS; i++)
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,516 @@
+package benchmark;
+
+import dao.ExportFormat;
+import dao.ExportProgress;
+import dao.ModelDAO;
+import dao.PasswordHasher;
+import dao.ProfileCodec;
+import dao.UserExportWriter;
+import exception.ErrorMessages;
+import exception.OurException;
+import exception.VersionConflictException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import model.BulkReport;
+import model.Gender;
+import model.LoggedProfile;
+import model.Profile;
+import model.ProfileField;
+import model.ProfileType;
+import model.User;
+import model.UserStatistics;
+import model.UserSummary;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+
+/**
+ * ModelDAO that keeps the users collection in memory. Profiles are stored as encoded BSON and go through the same ProfileCodec as DBImplementation on every read and write, so a benchmark run against this class measures the mapping and DAO overhead without any server or network time.
+ *
+ * Unique credentials are enforced with hash indexes, like the unique indexes of the real collection, and users are kept in identifier order to serve pages the same way. Passwords are hashed and checked with a PasswordHasher, also like DBImplementation.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+public class InMemoryModelDAO implements ModelDAO
+{
+
+    private final ProfileCodec codec = new ProfileCodec();
+    private final PasswordHasher hasher;
+
+    private final TreeMap<ObjectId, RawBsonDocument> profiles = new TreeMap<>();
+    private final Map<String, ObjectId> idsByUsername = new HashMap<>();
+    private final Map<String, ObjectId> idsByEmail = new HashMap<>();
+
+    /**
+     * Constructs a new, empty InMemoryModelDAO.
+     *
+     * @param hasher the hasher used to store and check passwords, as in DBImplementation
+     */
+    public InMemoryModelDAO(PasswordHasher hasher)
+    {
+        this.hasher = hasher;
+    }
+
+    @Override
+    public synchronized ArrayList<User> getUsers() throws OurException
+    {
+        return decodeUsers(profiles, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized ArrayList<User> getUsersPage(ObjectId afterId, int limit) throws OurException
+    {
+        return decodeUsers(afterId == null ? profiles : profiles.tailMap(afterId, false), limit);
+    }
+
+    @Override
+    public synchronized ArrayList<UserSummary> getUserSummaries() throws OurException
+    {
+        return getUserSummariesPage(null, 0);
+    }
+
+    @Override
+    public synchronized ArrayList<UserSummary> getUserSummariesPage(ObjectId afterId, int limit) throws OurException
+    {
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+
+        for (Map.Entry<ObjectId, RawBsonDocument> entry : (afterId == null ? profiles : profiles.tailMap(afterId, false)).entrySet())
+        {
+            if (limit > 0 && summaries.size() == limit)
+            {
+                break;
+            }
+
+            RawBsonDocument document = entry.getValue();
+
+            if (isUser(document))
+            {
+                summaries.add(summarize(document));
+            }
+        }
+
+        return summaries;
+    }
+
+    @Override
+    public synchronized ArrayList<UserSummary> searchUsers(String query, Gender gender, ObjectId afterId, int limit) throws OurException
+    {
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+
+        for (Map.Entry<ObjectId, RawBsonDocument> entry : (afterId == null ? profiles : profiles.tailMap(afterId, false)).entrySet())
+        {
+            if (summaries.size() == limit)
+            {
+                break;
+            }
+
+            if (matches(entry.getValue(), query, gender))
+            {
+                summaries.add(summarize(entry.getValue()));
+            }
+        }
+
+        return summaries;
+    }
+
+    @Override
+    public synchronized ArrayList<UserSummary> searchUsersSorted(String query, Gender gender, ProfileField sortField, boolean ascending, int offset, int limit) throws OurException
+    {
+        ArrayList<UserSummary> matching = new ArrayList<>();
+
+        for (RawBsonDocument document : profiles.values())
+        {
+            if (matches(document, query, gender))
+            {
+                matching.add(summarize(document));
+            }
+        }
+
+        // Same order as the sorts of DBImplementation: missing values first, then _id, all in the same direction
+        Comparator<UserSummary> order = Comparator.comparing(summary -> sortKey(summary, sortField), Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        order = order.thenComparing(UserSummary::getId);
+        matching.sort(ascending ? order : order.reversed());
+
+        return new ArrayList<>(matching.subList(Math.min(offset, matching.size()), Math.min(offset + limit, matching.size())));
+    }
+
+    @Override
+    public synchronized long countUsers(String query, Gender gender) throws OurException
+    {
+        long count = 0;
+
+        for (RawBsonDocument document : profiles.values())
+        {
+            if (matches(document, query, gender))
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public synchronized UserStatistics getUserStatistics(int months) throws OurException
+    {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        YearMonth first = current.minusMonths(Math.max(months, 1) - 1);
+
+        Map<Gender, Long> genders = new EnumMap<>(Gender.class);
+        SortedMap<YearMonth, Long> registrations = new TreeMap<>();
+        long admins = 0;
+
+        for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1))
+        {
+            registrations.put(month, 0L);
+        }
+
+        for (Map.Entry<ObjectId, RawBsonDocument> entry : profiles.entrySet())
+        {
+            RawBsonDocument document = entry.getValue();
+
+            if (!isUser(document))
+            {
+                admins++;
+                continue;
+            }
+
+            genders.merge(Gender.valueOf(document.getString("U_GENDER").getValue()), 1L, Long::sum);
+
+            YearMonth month = YearMonth.from(Instant.ofEpochSecond(entry.getKey().getTimestamp()).atOffset(ZoneOffset.UTC));
+            registrations.computeIfPresent(month, (key, count) -> count + 1);
+        }
+
+        return new UserStatistics(admins, genders, registrations);
+    }
+
+    @Override
+    public synchronized User getUser(ObjectId id) throws OurException
+    {
+        RawBsonDocument document = id != null ? profiles.get(id) : null;
+        Profile profile = document != null ? document.decode(codec) : null;
+
+        return profile instanceof User ? (User) profile : null;
+    }
+
+    @Override
+    public synchronized boolean updateUser(User user) throws OurException
+    {
+        User stored = getUser(user.getId());
+
+        if (stored == null || !user.hasChanges())
+        {
+            return false;
+        }
+
+        if (stored.getVersion() != user.getVersion())
+        {
+            throw new VersionConflictException();
+        }
+
+        for (ProfileField field : user.getChangedFields())
+        {
+            switch (field)
+            {
+                case PASSWORD:
+                    stored.setStoredPassword(user.isStoredPassword() ? user.getPassword() : hasher.hash(user.getPassword()));
+                    user.setStoredPassword(stored.getPassword());
+                    break;
+                case NAME:
+                    stored.setName(user.getName());
+                    break;
+                case LASTNAME:
+                    stored.setLastname(user.getLastname());
+                    break;
+                case TELEPHONE:
+                    stored.setTelephone(user.getTelephone());
+                    break;
+                case GENDER:
+                    stored.setGender(user.getGender());
+                    break;
+                case CARD:
+                    stored.setCard(user.getCard());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        stored.setVersion(stored.getVersion() + 1);
+        user.setVersion(stored.getVersion());
+        user.clearChanges();
+
+        profiles.put(stored.getId(), new RawBsonDocument(stored, codec));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean deleteUser(ObjectId id) throws OurException
+    {
+        RawBsonDocument document = id != null ? profiles.remove(id) : null;
+
+        if (document == null)
+        {
+            return false;
+        }
+
+        idsByUsername.remove(document.getString("P_USERNAME").getValue());
+        idsByEmail.remove(document.getString("P_EMAIL").getValue());
+        return true;
+    }
+
+    @Override
+    public synchronized Profile login(String credential, String password) throws OurException
+    {
+        ObjectId id = idsByEmail.get(credential);
+
+        if (id == null)
+        {
+            id = idsByUsername.get(credential);
+        }
+
+        Profile profile = id != null ? profiles.get(id).decode(codec) : null;
+
+        if (profile == null || !hasher.verify(password, profile.getPassword()))
+        {
+            return null;
+        }
+
+        if (hasher.needsRehash(profile.getPassword()))
+        {
+            profile.setStoredPassword(hasher.hash(password));
+            profiles.put(id, new RawBsonDocument(profile, codec));
+        }
+
+        LoggedProfile.getInstance().setProfile(profile);
+        return profile;
+    }
+
+    @Override
+    public synchronized User register(User user) throws OurException
+    {
+        if (idsByEmail.containsKey(user.getEmail()))
+        {
+            throw new OurException(ErrorMessages.EMAIL_EXISTS);
+        }
+
+        if (idsByUsername.containsKey(user.getUsername()))
+        {
+            throw new OurException(ErrorMessages.USERNAME_EXISTS);
+        }
+
+        if (!user.isStoredPassword())
+        {
+            user.setStoredPassword(hasher.hash(user.getPassword()));
+        }
+
+        user.setId(new ObjectId());
+        profiles.put(user.getId(), new RawBsonDocument(user, codec));
+        idsByUsername.put(user.getUsername(), user.getId());
+        idsByEmail.put(user.getEmail(), user.getId());
+
+        return user;
+    }
+
+    @Override
+    public synchronized BulkReport registerAll(Iterable<User> users, int batchSize) throws OurException
+    {
+        BulkReport report = new BulkReport();
+        int index = 0;
+
+        for (User user : users)
+        {
+            try
+            {
+                register(user);
+                report.addProcessed(1, 1);
+            }
+            catch (OurException ex)
+            {
+                report.addProcessed(1, 0);
+                report.addFailure(index, user.getUsername(), ex.getMessage());
+            }
+
+            index++;
+        }
+
+        return report;
+    }
+
+    @Override
+    public synchronized BulkReport updateUsers(Collection<User> users) throws OurException
+    {
+        BulkReport report = new BulkReport();
+        int index = 0;
+
+        for (User user : users)
+        {
+            try
+            {
+                boolean updated = user.hasChanges() ? updateUser(user) : getUser(user.getId()) != null;
+                report.addProcessed(1, updated ? 1 : 0);
+
+                if (!updated)
+                {
+                    report.addFailure(index, String.valueOf(user.getId()), ErrorMessages.USER_NOT_FOUND);
+                }
+            }
+            catch (VersionConflictException ex)
+            {
+                report.addProcessed(1, 0);
+                report.addFailure(index, String.valueOf(user.getId()), ex.getMessage());
+            }
+
+            index++;
+        }
+
+        return report;
+    }
+
+    @Override
+    public synchronized BulkReport deleteUsers(Collection<ObjectId> ids) throws OurException
+    {
+        BulkReport report = new BulkReport();
+        int index = 0;
+
+        for (ObjectId id : ids)
+        {
+            boolean deleted = deleteUser(id);
+            report.addProcessed(1, deleted ? 1 : 0);
+
+            if (!deleted)
+            {
+                report.addFailure(index, String.valueOf(id), ErrorMessages.USER_NOT_FOUND);
+            }
+
+            index++;
+        }
+
+        return report;
+    }
+
+    @Override
+    public synchronized long exportUsers(OutputStream out, ExportFormat format, ExportProgress progress) throws OurException
+    {
+        try
+        {
+            UserExportWriter writer = new UserExportWriter(out, format);
+            long exported = 0;
+
+            for (RawBsonDocument document : profiles.values())
+            {
+                Profile profile = document.decode(codec);
+
+                if (profile instanceof User)
+                {
+                    writer.write((User) profile);
+                    exported++;
+                }
+            }
+
+            writer.flush();
+
+            if (progress != null)
+            {
+                progress.update(exported, exported);
+            }
+
+            return exported;
+        }
+        catch (IOException ex)
+        {
+            throw new OurException(ErrorMessages.EXPORT_USERS);
+        }
+    }
+
+    /**
+     * Returns the identifiers of every stored profile in identifier order.
+     *
+     * @return the stored identifiers
+     */
+    public synchronized ArrayList<ObjectId> getIds()
+    {
+        return new ArrayList<>(profiles.keySet());
+    }
+
+    private boolean matches(RawBsonDocument document, String query, Gender gender)
+    {
+        if (!isUser(document) || (gender != null && !gender.name().equals(document.getString("U_GENDER").getValue())))
+        {
+            return false;
+        }
+
+        String lastname = document.containsKey("P_LASTNAME") ? document.getString("P_LASTNAME").getValue() : "";
+
+        return query == null || document.getString("P_USERNAME").getValue().startsWith(query)
+                || document.getString("P_EMAIL").getValue().startsWith(query) || lastname.startsWith(query);
+    }
+
+    private UserSummary summarize(RawBsonDocument document)
+    {
+        return new UserSummary(document.getObjectId("_id").getValue(),
+                document.getString("P_USERNAME").getValue(),
+                document.getString("P_EMAIL").getValue(),
+                document.containsKey("P_NAME") ? document.getString("P_NAME").getValue() : null,
+                document.containsKey("U_GENDER") ? Gender.valueOf(document.getString("U_GENDER").getValue()) : null);
+    }
+
+    private static String sortKey(UserSummary summary, ProfileField sortField)
+    {
+        if (sortField == null)
+        {
+            return "";
+        }
+
+        switch (sortField)
+        {
+            case USERNAME:
+                return summary.getUsername();
+            case EMAIL:
+                return summary.getEmail();
+            case NAME:
+                return summary.getName();
+            case GENDER:
+                return summary.getGender() != null ? summary.getGender().name() : null;
+            default:
+                throw new IllegalArgumentException(sortField + " is not a sortable field");
+        }
+    }
+
+    private boolean isUser(RawBsonDocument document)
+    {
+        return ProfileType.USER.name().equals(document.getString("P_TYPE").getValue());
+    }
+
+    private ArrayList<User> decodeUsers(Map<ObjectId, RawBsonDocument> documents, int limit)
+    {
+        ArrayList<User> users = new ArrayList<>();
+
+        for (RawBsonDocument document : documents.values())
+        {
+            if (users.size() == limit)
+            {
+                break;
+            }
+
+            Profile profile = document.decode(codec);
+
+            if (profile instanceof User)
+            {
+                users.add((User) profile);
+            }
+        }
+
+        return users;
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import dao.PasswordHasher;
+import exception.OurException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calibrates the PBKDF2 work factor of the PasswordHasher. Each benchmark is run for several iteration counts and reports the sampled latency of checking one password on the calling thread, as a login does on its DAO worker, which is the time the hashing adds to every login.
+ *
+ * To choose password.pbkdf2.iterations, run this benchmark on the production hardware and take the largest iteration count whose p99 stays under the target login latency. Running it with -t set to the expected number of simultaneous logins shows how much of the latency is spent waiting for one of the pool threads.
+ *
+ * @author Kevin, Alex, Victor, Ekaitz
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark
+{
+
+    private static final String PASSWORD = Dataset.PASSWORD;
+    private static final int QUEUE_CAPACITY = 1000;
+
+    @Param({"100000", "210000", "310000", "600000"})
+    public int iterations;
+
+    @Param({"2"})
+    public int threads;
+
+    private PasswordHasher hasher;
+    private String stored;
+
+    @Setup(Level.Trial)
+    public void setUp() throws OurException
+    {
+        hasher = new PasswordHasher(iterations, threads, QUEUE_CAPACITY);
+        stored = hasher.hash(PASSWORD);
+    }
+
+    /**
+     * Checks the correct password against a stored hash, as a successful login does.
+     */
+    @Benchmark
+    public boolean verify() throws OurException
+    {
+        return hasher.verify(PASSWORD, stored);
+    }
+
+    /**
+     * Hashes a password with a new salt, as registering a user or changing a password does.
+     */
+    @Benchmark
+    public String hash() throws OurException
+    {
+        return hasher.hash(PASSWORD);
+    }
+}